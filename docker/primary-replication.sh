@@ -0,0 +1,5 @@
+#!/usr/bin/env bash
+# Executado pela imagem do Postgres na criação do volume do primário: libera conexões de replicação
+# para a réplica do docker-compose (perfil replica).
+set -euo pipefail
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
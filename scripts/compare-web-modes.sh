@@ -0,0 +1,95 @@
+#!/usr/bin/env bash
+# Compara os modos servlet (Spring MVC + JDBC) e reativo (perfil reactive: WebFlux + R2DBC) sob a mesma carga.
+#
+# Para cada modo: sobe a aplicação, cadastra um ADMIN, faz login e roda o wrk contra
+# GET /product/page (filtro JWT + consulta do usuário + página keyset) e GET /product (retrato em memória)
+# com cada quantidade de conexões. Os resultados (wrk --latency e /actuator/prometheus) ficam em target/web-modes.
+#
+# Requer o Postgres do docker-compose e o wrk (https://github.com/wg/wrk) no PATH.
+#   CONNECTIONS="50 200 1000" DURATION=30s THREADS=4 scripts/compare-web-modes.sh
+# Argumentos extras são repassados aos dois modos, ex: --api.security.stateless-principal.enabled=true
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+DURATION=${DURATION:-30s}
+CONNECTIONS=${CONNECTIONS:-"50 200 1000"}
+THREADS=${THREADS:-4}
+PORT=${PORT:-8080}
+OUT=target/web-modes
+BASE_URL="http://localhost:$PORT"
+
+if ! command -v wrk > /dev/null; then
+    echo "wrk não encontrado no PATH" >&2
+    exit 1
+fi
+
+./mvnw -q package -DskipTests
+JAR=$(ls target/*.jar | head -n 1)
+mkdir -p "$OUT"
+
+APP_PID=
+stop_app() {
+    if [[ -n "$APP_PID" ]]; then
+        kill "$APP_PID" 2> /dev/null || true
+        wait "$APP_PID" 2> /dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+wait_until_up() {
+    for _ in $(seq 1 120); do
+        if curl -sf -o /dev/null "$BASE_URL/actuator/health"; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "a aplicação não subiu, veja $OUT/$1.log" >&2
+    exit 1
+}
+
+login() {
+    local user="loadtest-$1-$RANDOM"
+    curl -sf -o /dev/null -XPOST "$BASE_URL/auth/register" -H 'Content-Type: application/json' \
+        -d "{\"login\":\"$user\",\"password\":\"loadtest\",\"role\":\"ADMIN\"}"
+    curl -sf -XPOST "$BASE_URL/auth/login" -H 'Content-Type: application/json' \
+        -d "{\"login\":\"$user\",\"password\":\"loadtest\"}" | sed 's/.*"token":"\([^"]*\)".*/\1/'
+}
+
+for mode in servlet reactive; do
+    args=(--server.port="$PORT" "$@")
+    if [[ "$mode" == reactive ]]; then
+        args+=(--spring.profiles.active=reactive)
+    fi
+    java -jar "$JAR" "${args[@]}" > "$OUT/$mode.log" 2>&1 &
+    APP_PID=$!
+    wait_until_up "$mode"
+    token=$(login "$mode")
+
+    for connections in $CONNECTIONS; do
+        for path in /product/page /product; do
+            name=$(echo "$path" | tr -c 'a-z\n' '-' | sed 's/^-//; s/-$//')
+            echo "$mode: $connections conexões em $path"
+            # aquecimento (JIT, pools e caches) fora da medição
+            wrk -t"$THREADS" -c"$connections" -d10s -H "Authorization: Bearer $token" "$BASE_URL$path" > /dev/null
+            wrk -t"$THREADS" -c"$connections" -d"$DURATION" --latency -H "Authorization: Bearer $token" \
+                "$BASE_URL$path" > "$OUT/$mode-c$connections-$name.txt"
+        done
+    done
+    curl -sf -H "Authorization: Bearer $token" "$BASE_URL/actuator/prometheus" > "$OUT/$mode-prometheus.txt"
+    stop_app
+done
+
+# resumo: vazão e latências por modo, conexões e rota
+printf '%-9s %-7s %-14s %12s %10s %10s %10s\n' mode conns route req/s p50 p99 non-2xx
+for file in "$OUT"/*-c*.txt; do
+    base=$(basename "$file" .txt)
+    mode=${base%%-c*}
+    rest=${base#*-c}
+    printf '%-9s %-7s %-14s %12s %10s %10s %10s\n' "$mode" "${rest%%-*}" "${rest#*-}" \
+        "$(awk '/Requests\/sec/ {print $2}' "$file")" \
+        "$(awk '$1 == "50%" {print $2}' "$file")" \
+        "$(awk '$1 == "99%" {print $2}' "$file")" \
+        "$(awk '/Non-2xx/ {count = $NF} END {print count + 0}' "$file")"
+done
@@ -0,0 +1,99 @@
+#!/usr/bin/env bash
+# Mede o tempo até a primeira requisição (time-to-first-request) em cada modo de inicialização.
+#
+# Modos: jar (padrão), cds (AppCDS), aot (Spring AOT na JVM), aot-cds (os dois) e native (GraalVM, só se
+# native-image estiver no PATH). Para cada modo o artefato é gerado com o profile Maven correspondente e a
+# aplicação sobe RUNS vezes; o tempo vai do lançamento do processo até o primeiro 200 em /actuator/health.
+# Também são registrados o "Started ... in" do Spring e o RSS no momento em que a aplicação responde.
+# Os resultados ficam em target/startup/results.csv e os logs de cada execução ao lado.
+#
+# Requer o Postgres do docker-compose (o treino do CDS e cada inicialização conectam no banco).
+#   RUNS=5 MODES="jar cds aot aot-cds native" scripts/measure-startup.sh
+# Argumentos extras são repassados à aplicação, ex: --spring.jpa.show-sql=false
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+MODES=${MODES:-"jar cds aot aot-cds native"}
+PORT=${PORT:-8080}
+MVN=${MVN:-./mvnw}
+OUT=target/startup
+BASE_URL="http://localhost:$PORT"
+JAR_NAME=demo-0.0.1-SNAPSHOT.jar
+
+APP_PID=
+stop_app() {
+    if [[ -n "$APP_PID" ]]; then
+        kill "$APP_PID" 2> /dev/null || true
+        wait "$APP_PID" 2> /dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+build() {
+    local mode=$1
+    shift
+    case "$mode" in
+        jar) "$MVN" -q package -DskipTests ;;
+        cds) "$MVN" -q package -DskipTests -Pcds -Dcds.training-args="$*" ;;
+        aot) "$MVN" -q package -DskipTests -Paot ;;
+        aot-cds) "$MVN" -q package -DskipTests -Paot,cds -Dcds.training-args="$*" ;;
+        native) "$MVN" -q -Pnative native:compile -DskipTests ;;
+    esac
+}
+
+command_for() {
+    case "$1" in
+        jar) echo "java -jar target/$JAR_NAME" ;;
+        cds) echo "java -XX:SharedArchiveFile=target/cds/application.jsa -jar target/cds/$JAR_NAME" ;;
+        aot) echo "java -Dspring.aot.enabled=true -jar target/$JAR_NAME" ;;
+        aot-cds) echo "java -Dspring.aot.enabled=true -XX:SharedArchiveFile=target/cds/application.jsa -jar target/cds/$JAR_NAME" ;;
+        native) echo "target/demo" ;;
+    esac
+}
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+mkdir -p "$OUT"
+echo "mode,run,time_to_first_request_ms,started_in_s,rss_mb" > "$OUT/results.csv"
+
+for mode in $MODES; do
+    if [[ "$mode" == native ]] && ! command -v native-image > /dev/null; then
+        echo "native-image não encontrado no PATH, modo native ignorado" >&2
+        continue
+    fi
+    echo "$mode: gerando o artefato"
+    build "$mode" "$@"
+    for run in $(seq 1 "$RUNS"); do
+        log="$OUT/$mode-$run.log"
+        start=$(now_ms)
+        # shellcheck disable=SC2046
+        $(command_for "$mode") --server.port="$PORT" "$@" > "$log" 2>&1 &
+        APP_PID=$!
+        until curl -sf -o /dev/null "$BASE_URL/actuator/health"; do
+            if ! kill -0 "$APP_PID" 2> /dev/null; then
+                echo "a aplicação terminou antes de responder, veja $log" >&2
+                exit 1
+            fi
+            sleep 0.02
+        done
+        elapsed=$(($(now_ms) - start))
+        rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$APP_PID/status" 2> /dev/null || echo 0)
+        started=$(sed -n 's/.*Started .* in \([0-9.]*\) seconds.*/\1/p' "$log" | head -n 1)
+        echo "$mode,$run,$elapsed,${started:-},$((rss_kb / 1024))" >> "$OUT/results.csv"
+        echo "$mode #$run: ${elapsed} ms até a primeira requisição"
+        stop_app
+    done
+done
+
+# resumo: mediana por modo
+printf '%-8s %8s %12s %10s\n' mode runs ttfr-p50-ms rss-mb
+for mode in $MODES; do
+    grep "^$mode," "$OUT/results.csv" | sort -t, -k3 -n | awk -F, -v mode="$mode" '
+        { ttfr[NR] = $3; rss[NR] = $5 }
+        END { if (NR > 0) printf "%-8s %8d %12d %10d\n", mode, NR, ttfr[int((NR + 1) / 2)], rss[int((NR + 1) / 2)] }'
+done
@@ -0,0 +1,87 @@
+package com.example.demo.configuration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de encontrar a regra de uma rota: {@link RouteTable} compilada contra a lista de
+ * {@code requestMatchers} avaliada em sequência, como no {@code authorizeHttpRequests} original.
+ * * <p>Com {@code rules} regras exatas, a rota procurada é a última da lista (pior caso da busca linear)
+ * ou uma rota sem regra, que cai na regra padrão.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteTableBenchmark {
+
+    @Param({"3", "300"})
+    private int rules;
+
+    private RouteTable routeTable;
+    private List<RequestMatcher> linearMatchers;
+    private MockHttpServletRequest lastRule;
+    private MockHttpServletRequest noRule;
+
+    @Setup
+    public void setup() {
+        var policies = new ArrayList<RoutePolicy>();
+        this.linearMatchers = new ArrayList<>();
+        for (int i = 0; i < this.rules; i++) {
+            String path = "/service-" + i + "/resource";
+            policies.add(RoutePolicy.hasRole("POST", path, "ADMIN"));
+            this.linearMatchers.add(PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, path));
+        }
+        this.routeTable = RouteTable.compile(policies);
+        this.lastRule = new MockHttpServletRequest("POST", "/service-" + (this.rules - 1) + "/resource");
+        this.noRule = new MockHttpServletRequest("GET", "/product");
+    }
+
+    @Benchmark
+    public RoutePolicy tableLastRule() {
+        return this.routeTable.match(this.lastRule.getMethod(), this.lastRule.getRequestURI());
+    }
+
+    @Benchmark
+    public RoutePolicy tableNoRule() {
+        return this.routeTable.match(this.noRule.getMethod(), this.noRule.getRequestURI());
+    }
+
+    @Benchmark
+    public int linearLastRule() {
+        return linearIndex(this.lastRule);
+    }
+
+    @Benchmark
+    public int linearNoRule() {
+        return linearIndex(this.noRule);
+    }
+
+    private int linearIndex(MockHttpServletRequest request) {
+        for (int i = 0; i < this.linearMatchers.size(); i++) {
+            if (this.linearMatchers.get(i).matches(request)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.configuration;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.demo.domain.enums.UserRole;
+import com.example.demo.domain.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de emissão e validação de tokens JWT no {@link TokenService}.
+ * * <p>{@code validateValidCached} mede o caminho comum do {@code SecurityFilter} (mesmo token
+ * reenviado), enquanto {@code validateValidUncached} usa um serviço sem cache para medir a
+ * verificação HMAC completa.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    private TokenService tokenService;
+    private TokenService uncachedTokenService;
+    private User user;
+    private String validToken;
+    private String expiredToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() {
+        this.tokenService = new TokenService(new SigningKeySet("HS256", SECRET, Duration.ofDays(1), Duration.ofHours(1), Duration.ofMinutes(5), null, null), 10_000, Duration.ofMinutes(15), new SimpleMeterRegistry());
+        this.uncachedTokenService = new TokenService(new SigningKeySet("HS256", SECRET, Duration.ofDays(1), Duration.ofHours(1), Duration.ofMinutes(5), null, null), 0, Duration.ofMinutes(15), new SimpleMeterRegistry());
+        this.user = new User(UUID.fromString("0b6f7f43-2d4c-4a4e-9a55-1f0f3c1d2e01"), "benchmark", "hash", UserRole.ADMIN);
+        this.validToken = this.tokenService.generateToken(this.user);
+        this.expiredToken = JWT.create()
+                .withIssuer("spring-security")
+                .withSubject(this.user.getLogin())
+                .withExpiresAt(Instant.now().minusSeconds(60))
+                .sign(Algorithm.HMAC256(SECRET));
+        this.tamperedToken = this.validToken.substring(0, this.validToken.length() - 4) + "AAAA";
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return this.tokenService.generateToken(this.user);
+    }
+
+    @Benchmark
+    public String validateValidCached() {
+        return this.tokenService.validateToken(this.validToken);
+    }
+
+    @Benchmark
+    public String validateValidUncached() {
+        return this.uncachedTokenService.validateToken(this.validToken);
+    }
+
+    @Benchmark
+    public String validateExpired() {
+        return this.tokenService.validateToken(this.expiredToken);
+    }
+
+    @Benchmark
+    public String validateTampered() {
+        return this.tokenService.validateToken(this.tamperedToken);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.configuration;
+
+import com.example.demo.domain.enums.UserRole;
+import com.example.demo.domain.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de assinatura e verificação por algoritmo, comparando o HMAC atual com RS256 e ES256.
+ * * <p>O {@link TokenService} é criado sem cache, para que cada chamada faça a verificação completa
+ * (busca do verificador pelo {@code kid} e checagem da assinatura).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenSigningBenchmark {
+
+    @Param({"HS256", "RS256", "ES256"})
+    private String algorithm;
+
+    private TokenService tokenService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        var signingKeys = new SigningKeySet(this.algorithm, "benchmark-secret", Duration.ofDays(1), Duration.ofHours(1), Duration.ofMinutes(5), null, null);
+        this.tokenService = new TokenService(signingKeys, 0, Duration.ofMinutes(15), new SimpleMeterRegistry());
+        this.user = new User(UUID.fromString("0b6f7f43-2d4c-4a4e-9a55-1f0f3c1d2e01"), "benchmark", "hash", UserRole.ADMIN);
+        this.token = this.tokenService.generateToken(this.user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return this.tokenService.generateToken(this.user);
+    }
+
+    @Benchmark
+    public String verify() {
+        return this.tokenService.validateToken(this.token);
+    }
+}
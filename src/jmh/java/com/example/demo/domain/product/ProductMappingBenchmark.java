@@ -0,0 +1,61 @@
+package com.example.demo.domain.product;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Custo do {@code GET /product}: mapeamento de entidades {@link Product} para {@link ProductResponseDTO}
+ * e serialização da lista em JSON, para catálogos de tamanhos diferentes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    private List<Product> products;
+    private JsonMapper jsonMapper;
+
+    @Setup
+    public void setup() {
+        this.products = IntStream.range(0, this.size)
+                .mapToObj(i -> new Product(UUID.randomUUID(), "product-" + i, i))
+                .toList();
+        this.jsonMapper = JsonMapper.builder().build();
+    }
+
+    @Benchmark
+    public List<ProductResponseDTO> mapToResponse() {
+        return this.products.stream()
+                .map(ProductResponseDTO::new)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() {
+        List<ProductResponseDTO> response = this.products.stream()
+                .map(ProductResponseDTO::new)
+                .toList();
+        return this.jsonMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.enums.UserRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de {@link User#getAuthorities()}, chamado pelo {@code SecurityFilter} a cada requisição autenticada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+
+    private final User admin = new User("admin", "hash", UserRole.ADMIN);
+    private final User user = new User("user", "hash", UserRole.USER);
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> adminAuthorities() {
+        return this.admin.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> userAuthorities() {
+        return this.user.getAuthorities();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserção em lote de produtos no Postgres, como no {@link ProductBatchService}: lotes de 500 linhas em um
+ * {@code batchUpdate} com {@code reWriteBatchedInserts=true}, um commit por lote. O resultado é em linhas por segundo.
+ * * <p>Compara a chave antiga ({@code TEXT} com UUIDv4 em texto, V1) com a nova ({@code uuid} com UUIDv7, V8);
+ * {@code uuid-v4} separa o ganho do tipo do ganho da ordem. Cada trial cria uma tabela de rascunho com os índices
+ * de {@code products} que contêm o id e, no fim, imprime o tamanho de cada índice por linha inserida antes de
+ * removê-la.</p>
+ * * <p>Diferente dos demais benchmarks, precisa do Postgres ({@code docker compose up -d}); a conexão pode ser
+ * trocada com {@code -Dbench.jdbc.url}, {@code -Dbench.jdbc.user} e {@code -Dbench.jdbc.password}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductInsertBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"text-v4", "uuid-v4", "uuid-v7"})
+    private String key;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private String table;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void createTable() throws SQLException {
+        this.connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/security?reWriteBatchedInserts=true"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "password"));
+        this.table = "bench_products_" + this.key.replace('-', '_');
+        String idColumn = this.key.startsWith("text") ? "id TEXT PRIMARY KEY UNIQUE NOT NULL" : "id uuid PRIMARY KEY";
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + this.table);
+            statement.execute("CREATE TABLE " + this.table + " (" + idColumn + ", name TEXT NOT NULL, price INTEGER NOT NULL)");
+            statement.execute("CREATE INDEX " + this.table + "_name_idx ON " + this.table + " ((lower(name) COLLATE \"C\"), id)");
+            statement.execute("CREATE INDEX " + this.table + "_price_idx ON " + this.table + " (price, id)");
+        }
+        this.connection.setAutoCommit(false);
+        this.insert = this.connection.prepareStatement("INSERT INTO " + this.table + " (id, name, price) VALUES (?, ?, ?)");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBatch() throws SQLException {
+        var random = ThreadLocalRandom.current();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            this.insert.setObject(1, nextId());
+            this.insert.setString(2, "product-" + this.sequence++);
+            this.insert.setInt(3, random.nextInt(100_000));
+            this.insert.addBatch();
+        }
+        int[] counts = this.insert.executeBatch();
+        this.connection.commit();
+        return counts;
+    }
+
+    @TearDown(Level.Trial)
+    public void reportAndDropTable() throws SQLException {
+        this.connection.setAutoCommit(true);
+        try (Statement statement = this.connection.createStatement()) {
+            long rows;
+            try (ResultSet count = statement.executeQuery("SELECT count(*) FROM " + this.table)) {
+                count.next();
+                rows = count.getLong(1);
+            }
+            try (ResultSet sizes = statement.executeQuery("""
+                    SELECT indexrelid::regclass, pg_relation_size(indexrelid)
+                    FROM pg_index WHERE indrelid = '%s'::regclass ORDER BY 1""".formatted(this.table))) {
+                System.out.printf("%n%s: %d linhas%n", this.key, rows);
+                while (sizes.next()) {
+                    long bytes = sizes.getLong(2);
+                    System.out.printf("  %-36s %8d KB  %6.1f bytes/linha%n", sizes.getString(1), bytes / 1024,
+                            (double) bytes / rows);
+                }
+            }
+            statement.execute("DROP TABLE " + this.table);
+        } finally {
+            this.connection.close();
+        }
+    }
+
+    private Object nextId() {
+        return switch (this.key) {
+            case "text-v4" -> UUID.randomUUID().toString();
+            case "uuid-v4" -> UUID.randomUUID();
+            default -> UuidV7.generate();
+        };
+    }
+}
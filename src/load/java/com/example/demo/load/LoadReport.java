@@ -0,0 +1,63 @@
+package com.example.demo.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resultado de uma execução do teste de carga, gravado em JSON para comparação entre execuções.
+ *
+ * @param generatedAt O instante do fim da execução (ISO-8601).
+ * @param warmupSeconds A duração do aquecimento, descartado das medições.
+ * @param durationSeconds A duração da janela medida.
+ * @param endpoints O resultado de cada cenário da mistura.
+ */
+record LoadReport(String generatedAt, double warmupSeconds, double durationSeconds, List<Endpoint> endpoints) {
+
+    /**
+     * @param name O nome do cenário.
+     * @param method O método HTTP.
+     * @param path O caminho da rota.
+     * @param targetRate As chegadas por segundo configuradas.
+     * @param requests As requisições concluídas na janela medida.
+     * @param errors As respostas fora de 2xx e as falhas de conexão.
+     * @param statusCodes A contagem por status HTTP (ou pelo nome da exceção, nas falhas de conexão).
+     * @param throughput As requisições concluídas por segundo.
+     * @param latencyMs A distribuição das latências, em milissegundos, a partir do instante previsto de envio.
+     * @param maxGeneratorLagMs O maior atraso do gerador em disparar uma chegada; valores altos indicam que
+     *                          a máquina de carga, e não a aplicação, limitou a taxa.
+     */
+    record Endpoint(String name, String method, String path, double targetRate, long requests, long errors,
+                    Map<String, Long> statusCodes, double throughput, Latency latencyMs, double maxGeneratorLagMs) {
+    }
+
+    record Latency(double p50, double p90, double p99, double p999, double max, double mean) {
+    }
+
+    /**
+     * Compara o p99 de cada cenário com o de uma execução anterior.
+     *
+     * @param baseline O relatório de referência.
+     * @param maxRegression O aumento relativo tolerado (ex: 0.2 para 20%).
+     * @return Uma descrição de cada cenário que piorou além do tolerado; vazia se nenhum piorou.
+     */
+    List<String> p99RegressionsAgainst(LoadReport baseline, double maxRegression) {
+        Map<String, Endpoint> previous = baseline.endpoints().stream()
+                .collect(Collectors.toMap(Endpoint::name, Function.identity()));
+        var regressions = new ArrayList<String>();
+        for (Endpoint endpoint : this.endpoints) {
+            Endpoint before = previous.get(endpoint.name());
+            if (before == null || before.requests() == 0) {
+                continue;
+            }
+            double limit = before.latencyMs().p99() * (1 + maxRegression);
+            if (endpoint.latencyMs().p99() > limit) {
+                regressions.add("%s p99 %.2f ms > %.2f ms (baseline %.2f ms + %.0f%%)".formatted(
+                        endpoint.name(), endpoint.latencyMs().p99(), limit, before.latencyMs().p99(), maxRegression * 100));
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.load;
+
+import com.example.demo.EmbeddedPostgresDatabase;
+import com.example.demo.domain.user.LoginResponseDTO;
+import com.example.demo.load.OpenModelLoadGenerator.Scenario;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ContextConfiguration;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de carga de ponta a ponta: sobe a aplicação com o PostgreSQL embutido ({@link EmbeddedPostgresDatabase},
+ * sem Postgres local) em uma porta aleatória e aplica uma mistura de requisições em modelo aberto
+ * ({@link OpenModelLoadGenerator}).
+ * * <p>Executar com {@code ./mvnw -Pload test}. A mistura e as durações são propriedades de sistema, ex:
+ * {@code ./mvnw -Pload test -Dload.duration=2m -Dload.rate.list-products=500}. O resultado por rota
+ * (vazão, p50/p90/p99/p99.9, status) é gravado em {@code load.report} (JSON). Com {@code load.baseline}
+ * apontando para um relatório anterior, o teste falha se o p99 de alguma rota piorar mais que
+ * {@code load.max-p99-regression}.</p>
+ * * <p>Com {@code -Dspring.profiles.active=reactive} a mesma carga roda contra o modo reativo (WebFlux + R2DBC).</p>
+ * * <p>O banco roda na mesma máquina que a aplicação e o gerador de carga: o relatório serve para comparar
+ * versões da aplicação na mesma máquina, não como estimativa da latência em produção.</p>
+ */
+@Tag("load")
+@ContextConfiguration(initializers = EmbeddedPostgresDatabase.Initializer.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // os tokens emitidos no preparo precisam durar a execução inteira
+        "api.security.token.access-ttl=12h",
+        // o log de SQL distorceria as medições
+        "spring.jpa.show-sql=false"
+})
+class LoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("${load.warmup:10s}")
+    private Duration warmup;
+    @Value("${load.duration:30s}")
+    private Duration duration;
+    @Value("${load.users:50}")
+    private int users;
+    @Value("${load.rate.register:2}")
+    private double registerRate;
+    @Value("${load.rate.login:5}")
+    private double loginRate;
+    @Value("${load.rate.list-products:50}")
+    private double listProductsRate;
+    @Value("${load.rate.create-product:5}")
+    private double createProductRate;
+    @Value("${load.report:target/load/load-report.json}")
+    private Path reportPath;
+    @Value("${load.baseline:}")
+    private String baselinePath;
+    @Value("${load.max-p99-regression:0.2}")
+    private double maxP99Regression;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void mixedTrafficAtFixedArrivalRates() throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        String adminToken = registerAndLogin("load-admin-" + runId, "ADMIN");
+        List<String> userLogins = new ArrayList<>();
+        List<String> userTokens = new ArrayList<>();
+        for (int i = 0; i < this.users; i++) {
+            String login = "load-user-" + runId + "-" + i;
+            userLogins.add(login);
+            userTokens.add(registerAndLogin(login, "USER"));
+        }
+
+        // sequência única entre aquecimento e medição: logins novos nunca se repetem
+        var registrations = new AtomicLong();
+        var generator = new OpenModelLoadGenerator(this.client, List.of(
+                new Scenario("register", "POST", "/auth/register", this.registerRate, n ->
+                        post("/auth/register", null, register("load-new-" + runId + "-" + registrations.incrementAndGet(), "USER"))),
+                new Scenario("login", "POST", "/auth/login", this.loginRate, n ->
+                        post("/auth/login", null, login(userLogins.get(random(userLogins.size()))))),
+                new Scenario("list-products", "GET", "/product", this.listProductsRate, n ->
+                        request("/product", userTokens.get(random(userTokens.size()))).GET().build()),
+                new Scenario("create-product", "POST", "/product", this.createProductRate, n ->
+                        post("/product", adminToken, "{\"name\":\"load-product-%s-%d\",\"price\":%d}"
+                                .formatted(runId, n, 1 + random(10_000))))
+        ));
+
+        generator.run(this.warmup);
+        generator.resetStats();
+        long start = System.nanoTime();
+        generator.run(this.duration);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        var report = new LoadReport(Instant.now().toString(), this.warmup.toMillis() / 1e3, elapsed.toMillis() / 1e3,
+                generator.results(elapsed));
+        Files.createDirectories(this.reportPath.toAbsolutePath().getParent());
+        this.jsonMapper.writerWithDefaultPrettyPrinter().writeValue(this.reportPath.toFile(), report);
+        report.endpoints().forEach(endpoint -> System.out.printf(
+                "%-15s %8.1f req/s  p50 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms  errors %d %s%n",
+                endpoint.name(), endpoint.throughput(), endpoint.latencyMs().p50(), endpoint.latencyMs().p99(),
+                endpoint.latencyMs().p999(), endpoint.errors(), endpoint.statusCodes()));
+        System.out.println("Load report written to " + this.reportPath.toAbsolutePath());
+
+        assertThat(report.endpoints()).allSatisfy(endpoint -> assertThat(endpoint.requests()).isPositive());
+        if (!this.baselinePath.isBlank()) {
+            LoadReport baseline = this.jsonMapper.readValue(Path.of(this.baselinePath).toFile(), LoadReport.class);
+            assertThat(report.p99RegressionsAgainst(baseline, this.maxP99Regression)).isEmpty();
+        }
+    }
+
+    private String registerAndLogin(String login, String role) throws IOException, InterruptedException {
+        HttpResponse<String> registered = this.client.send(post("/auth/register", null, register(login, role)),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(registered.statusCode()).as("register %s", login).isEqualTo(200);
+        HttpResponse<String> response = this.client.send(post("/auth/login", null, login(login)),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("login %s", login).isEqualTo(200);
+        return this.jsonMapper.readValue(response.body(), LoginResponseDTO.class).token();
+    }
+
+    private static String register(String login, String role) {
+        return "{\"login\":\"%s\",\"password\":\"%s\",\"role\":\"%s\"}".formatted(login, PASSWORD, role);
+    }
+
+    private static String login(String login) {
+        return "{\"login\":\"%s\",\"password\":\"%s\"}".formatted(login, PASSWORD);
+    }
+
+    private HttpRequest post(String path, String token, String body) {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        var builder = HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.demo.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Gerador de carga em modelo aberto: as requisições de cada cenário chegam em uma taxa fixa,
+ * independente de as anteriores já terem respondido.
+ * * <p>Em um modelo fechado (N clientes em laço), um servidor lento reduz a própria carga e as latências
+ * altas somem das medições (coordinated omission). Aqui cada chegada tem um instante previsto
+ * ({@code início + n / taxa}) e a latência é medida a partir dele: se o servidor, o pool de conexões ou o
+ * próprio gerador atrasarem o envio, a espera entra na medição. Cada requisição roda em uma virtual thread.</p>
+ * * <p>As latências vão para um {@link Recorder} do HdrHistogram por cenário (1µs a 60s, 3 dígitos
+ * significativos); {@link #resetStats()} descarta o aquecimento.</p>
+ */
+final class OpenModelLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * Um tipo de requisição da mistura, com a sua taxa de chegada.
+     *
+     * @param name O nome do cenário no relatório.
+     * @param method O método HTTP (apenas informativo no relatório).
+     * @param path O caminho (apenas informativo no relatório).
+     * @param ratePerSecond As chegadas por segundo; 0 desliga o cenário.
+     * @param request Monta a n-ésima requisição do cenário.
+     */
+    record Scenario(String name, String method, String path, double ratePerSecond, LongFunction<HttpRequest> request) {
+    }
+
+    private final HttpClient client;
+    private final List<Scenario> scenarios;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    OpenModelLoadGenerator(HttpClient client, List<Scenario> scenarios) {
+        this.client = client;
+        this.scenarios = scenarios.stream().filter(scenario -> scenario.ratePerSecond() > 0).toList();
+        this.scenarios.forEach(scenario -> this.stats.put(scenario.name(), new Stats()));
+    }
+
+    /**
+     * Executa a mistura pelo tempo informado e aguarda as requisições em andamento.
+     *
+     * @param duration Por quanto tempo novas requisições são disparadas.
+     */
+    void run(Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            var pacers = new ArrayList<Thread>();
+            for (Scenario scenario : this.scenarios) {
+                // uma thread de plataforma por cenário só para marcar o ritmo das chegadas
+                pacers.add(Thread.ofPlatform().name("load-" + scenario.name()).start(() ->
+                        pace(scenario, start, end, requests)));
+            }
+            for (Thread pacer : pacers) {
+                pacer.join();
+            }
+        }
+    }
+
+    /**
+     * Descarta as medições feitas até agora (fim do aquecimento).
+     */
+    void resetStats() {
+        this.stats.values().forEach(Stats::reset);
+    }
+
+    /**
+     * Fecha a janela de medição e devolve o resultado de cada cenário.
+     *
+     * @param elapsed A duração da janela medida, usada no cálculo da vazão.
+     * @return O resultado por cenário, na ordem da mistura.
+     */
+    List<LoadReport.Endpoint> results(Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1e9;
+        return this.scenarios.stream().map(scenario -> {
+            Stats stats = this.stats.get(scenario.name());
+            Histogram histogram = stats.latencies.getIntervalHistogram();
+            var statusCodes = new TreeMap<String, Long>();
+            stats.statusCodes.forEach((status, count) -> statusCodes.put(status, count.sum()));
+            long requests = histogram.getTotalCount();
+            long errors = statusCodes.entrySet().stream()
+                    .filter(entry -> !entry.getKey().startsWith("2"))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            return new LoadReport.Endpoint(
+                    scenario.name(), scenario.method(), scenario.path(), scenario.ratePerSecond(),
+                    requests, errors, statusCodes, requests / seconds,
+                    new LoadReport.Latency(
+                            millis(histogram.getValueAtPercentile(50)),
+                            millis(histogram.getValueAtPercentile(90)),
+                            millis(histogram.getValueAtPercentile(99)),
+                            millis(histogram.getValueAtPercentile(99.9)),
+                            millis(histogram.getMaxValue()),
+                            histogram.getTotalCount() > 0 ? histogram.getMean() / 1e6 : 0),
+                    stats.lag.get() / 1e6);
+        }).toList();
+    }
+
+    private void pace(Scenario scenario, long start, long end, ExecutorService requests) {
+        Stats stats = this.stats.get(scenario.name());
+        double intervalNanos = 1e9 / scenario.ratePerSecond();
+        for (long n = 0; ; n++) {
+            long intended = start + (long) (n * intervalNanos);
+            if (intended >= end) {
+                return;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            stats.lag.accumulateAndGet(now - intended, Math::max);
+            long sequence = n;
+            requests.execute(() -> send(scenario, sequence, intended, stats));
+        }
+    }
+
+    private void send(Scenario scenario, long sequence, long intended, Stats stats) {
+        String status;
+        try {
+            HttpResponse<Void> response = this.client.send(scenario.request().apply(sequence), HttpResponse.BodyHandlers.discarding());
+            status = String.valueOf(response.statusCode());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = "interrupted";
+        } catch (Exception e) {
+            status = e.getClass().getSimpleName();
+        }
+        long latency = Math.min(System.nanoTime() - intended, HIGHEST_TRACKABLE_NANOS);
+        stats.latencies.recordValue(latency);
+        stats.statusCodes.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class Stats {
+
+        private final Recorder latencies = new Recorder(1_000, HIGHEST_TRACKABLE_NANOS, 3);
+        private final Map<String, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        // maior atraso do próprio gerador em relação ao instante previsto
+        private final AtomicLong lag = new AtomicLong();
+
+        private void reset() {
+            this.latencies.reset();
+            this.statusCodes.clear();
+            this.lag.set(0);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.demo;
 
+import com.example.demo.configuration.ApplicationRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(ApplicationRuntimeHints.class)
 public class SecurityApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,78 @@
+package com.example.demo.configuration;
+
+import com.example.demo.domain.product.Product;
+import com.example.demo.domain.product.ProductBatchItemResultDTO;
+import com.example.demo.domain.product.ProductBatchResponseDTO;
+import com.example.demo.domain.product.ProductChangeDTO;
+import com.example.demo.domain.product.ProductChangesResponseDTO;
+import com.example.demo.domain.product.ProductPageResponseDTO;
+import com.example.demo.domain.product.ProductRequestDTO;
+import com.example.demo.domain.product.ProductResponseDTO;
+import com.example.demo.domain.user.AuthenticationDTO;
+import com.example.demo.domain.user.LoginResponseDTO;
+import com.example.demo.domain.user.RefreshTokenDTO;
+import com.example.demo.domain.user.RegisterDTO;
+import com.example.demo.domain.user.User;
+import com.example.demo.domain.user.UserImportItemResultDTO;
+import com.example.demo.domain.user.UserImportResponseDTO;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.stream.Stream;
+
+/**
+ * Metadados de reflexão para a imagem nativa (GraalVM) e para o processamento AOT.
+ * * <p>O Spring AOT já registra o que consegue inferir (beans, entidades JPA escaneadas, tipos de
+ * {@code @RequestBody} e retornos dos controllers, além das migrações do Flyway e dos
+ * {@code application*.properties}). Aqui ficam os casos que ele não enxerga:</p>
+ * <ul>
+ * <li><b>Entidades:</b> {@link User} e {@link Product} usam getters e construtores gerados pelo Lombok e
+ * são lidas pelo Hibernate e pelo Jackson por reflexão.</li>
+ * <li><b>DTOs:</b> os records são serializados também fora dos retornos dos controllers (ex: o
+ * {@code JsonGenerator} da exportação e do retrato do catálogo, as cargas em lote lidas item a item).</li>
+ * <li><b>java-jwt:</b> a biblioteca monta header e payload com serializadores Jackson próprios,
+ * instanciados e inspecionados por reflexão.</li>
+ * </ul>
+ */
+public class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] JWT_IMPL_TYPES = {
+            "com.auth0.jwt.impl.BasicHeader",
+            "com.auth0.jwt.impl.ClaimsHolder",
+            "com.auth0.jwt.impl.ClaimsSerializer",
+            "com.auth0.jwt.impl.HeaderClaimsHolder",
+            "com.auth0.jwt.impl.HeaderDeserializer",
+            "com.auth0.jwt.impl.HeaderSerializer",
+            "com.auth0.jwt.impl.JWTParser",
+            "com.auth0.jwt.impl.JsonNodeClaim",
+            "com.auth0.jwt.impl.PayloadClaimsHolder",
+            "com.auth0.jwt.impl.PayloadDeserializer",
+            "com.auth0.jwt.impl.PayloadImpl",
+            "com.auth0.jwt.impl.PayloadSerializer",
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        Stream.of(User.class, Product.class).forEach(entity -> hints.reflection().registerType(entity,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS,
+                MemberCategory.ACCESS_DECLARED_FIELDS));
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                AuthenticationDTO.class, LoginResponseDTO.class, RefreshTokenDTO.class, RegisterDTO.class,
+                UserImportItemResultDTO.class, UserImportResponseDTO.class,
+                ProductRequestDTO.class, ProductResponseDTO.class, ProductPageResponseDTO.class,
+                ProductBatchItemResultDTO.class, ProductBatchResponseDTO.class,
+                ProductChangeDTO.class, ProductChangesResponseDTO.class);
+
+        for (String type : JWT_IMPL_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.ACCESS_DECLARED_FIELDS);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.configuration;
+
+import com.example.demo.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PasswordEncoder} que executa o hashing em um pool dedicado e limitado.
+ * * <p>Com virtual threads, cada requisição de login ou registro rodaria o BCrypt em paralelo sem
+ * limite, saturando todos os núcleos e atrasando as demais rotas. Aqui o hashing roda em no máximo
+ * {@code threads} threads de plataforma, com uma fila de até {@code queueCapacity} tarefas.
+ * Quando a fila está cheia a requisição falha na hora com {@link ServiceOverloadedException}
+ * (503 com Retry-After), em vez de aumentar a latência de todo o sistema.</p>
+ * * <p>{@link #upgradeEncoding(String)} apenas inspeciona o hash e roda na própria thread.</p>
+ * * <p>O tempo de cada hash ({@code auth.password.hashing}, por operação) e o tempo de espera na fila
+ * ({@code auth.password.hashing.wait}) são medidos separadamente, para distinguir um custo BCrypt alto
+ * de um pool saturado.</p>
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+
+    public BoundedPasswordEncoder(
+            PasswordEncoder delegate,
+            int threads,
+            int queueCapacity,
+            Duration retryAfter,
+            MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.retryAfter = retryAfter;
+        this.encodeTimer = Timer.builder("auth.password.hashing")
+                .description("Time spent hashing or checking a password")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hashing")
+                .description("Time spent hashing or checking a password")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.password.hashing.wait")
+                .description("Time a password hashing task waited for a thread")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(this.encodeTimer, () -> this.delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(this.matchesTimer, () -> this.delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * O encoder sem o pool limitado, para rotinas que já controlam o próprio paralelismo
+     * (ex: importação em lote de usuários) e não devem disputar a fila do login.
+     */
+    public PasswordEncoder unbounded() {
+        return this.delegate;
+    }
+
+    /**
+     * Quantidade de tarefas de hashing aguardando uma thread livre.
+     */
+    public int queueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * Quantidade de threads executando hashing neste momento.
+     */
+    public int activeCount() {
+        return this.executor.getActiveCount();
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    private <T> T submit(Timer timer, Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return this.executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                this.waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }).get();
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Password hashing capacity exhausted", this.retryAfter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.configuration;
+
+import java.time.Instant;
+
+/**
+ * Token de acesso recém-emitido pelo {@link TokenService}.
+ *
+ * @param token O JWT assinado.
+ * @param jti O identificador único do token, usado para revogá-lo.
+ * @param expiresAt O instante de expiração do token.
+ */
+public record IssuedToken(String token, String jti, Instant expiresAt) {
+}
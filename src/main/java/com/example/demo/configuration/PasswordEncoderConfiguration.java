@@ -0,0 +1,69 @@
+package com.example.demo.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuração do hashing de senhas, compartilhada pelos modos servlet e reativo
+ * (e pela importação de usuários, que roda em ambos).
+ */
+@Configuration
+public class PasswordEncoderConfiguration {
+
+    /**
+     * Define o algoritmo de hashing para o armazenamento e validação de senhas.
+     * * <p>O {@link PasswordEncoder} é utilizado pelo Spring Security para garantir que as senhas
+     * nunca sejam armazenadas em texto plano (plain text) no banco de dados, atendendo às
+     * melhores práticas de segurança (OWASP).</p>
+     * * <p><b>Funcionamento do BCrypt:</b></p>
+     * <ul>
+     * <li><b>Hashing Seguro:</b> O BCrypt utiliza uma função de derivação de chave baseada no cifrador Blowfish.</li>
+     * <li><b>Salt Automático:</b> Gera um "salt" (tempero) aleatório para cada senha, garantindo que
+     * dois usuários com a mesma senha tenham hashes diferentes no banco, prevenindo ataques de Rainbow Tables.</li>
+     * <li><b>Custo Adaptativo:</b> É um algoritmo deliberadamente lento, o que dificulta ataques de força bruta.
+     * O custo é configurado por ambiente em {@code api.security.password.bcrypt-cost}.</li>
+     * </ul>
+     * * <p><b>DelegatingPasswordEncoder:</b> os hashes novos são gravados com o prefixo do algoritmo
+     * ({@code {bcrypt}$2a$...}), o que permite trocar o algoritmo ou o custo sem invalidar as senhas
+     * existentes. Hashes antigos, sem prefixo, continuam sendo aceitos como BCrypt. Quando um hash
+     * está desatualizado, o {@link org.springframework.security.core.userdetails.UserDetailsPasswordService}
+     * regrava a senha no próximo login bem-sucedido.</p>
+     * * <p>O hashing roda no pool limitado do {@link BoundedPasswordEncoder}, para que uma rajada de
+     * logins não consuma todos os núcleos da máquina.</p>
+     * * <p>Este Bean é consultado automaticamente pelo {@code AuthenticationManager} durante o
+     * processo de autenticação para comparar a senha enviada pelo usuário com o hash salvo.</p>
+     * * @return Um {@link BoundedPasswordEncoder} sobre um {@link DelegatingPasswordEncoder} com BCrypt.
+     */
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${api.security.password.bcrypt-cost:10}") int bcryptCost,
+            @Value("${api.security.password.hashing.threads:0}") int threads,
+            @Value("${api.security.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${api.security.password.hashing.retry-after:1s}") Duration retryAfter,
+            MeterRegistry meterRegistry
+    ) {
+        var bcrypt = new BCryptPasswordEncoder(bcryptCost);
+        var delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // hashes gravados antes do DelegatingPasswordEncoder não têm o prefixo {bcrypt}
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        var encoder = new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, retryAfter, meterRegistry);
+        Gauge.builder("auth.password.hashing.queue", encoder, BoundedPasswordEncoder::queueDepth)
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", encoder, BoundedPasswordEncoder::activeCount)
+                .description("Password hashing tasks running")
+                .register(meterRegistry);
+        return encoder;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@code DataSource} JDBC do modo reativo.
+ * * <p>O Spring Boot não cria o {@code DataSource} quando existe um {@code ConnectionFactory} R2DBC.
+ * No modo reativo o JDBC continua necessário para o Flyway, os refresh tokens, a lista de revogação,
+ * o retrato do catálogo e as tarefas agendadas, então ele é declarado aqui com as mesmas propriedades
+ * {@code spring.datasource.*} do modo servlet.</p>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveJdbcConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
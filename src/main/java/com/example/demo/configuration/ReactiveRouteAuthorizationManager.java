@@ -0,0 +1,47 @@
+package com.example.demo.configuration;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Versão reativa do {@link RouteAuthorizationManager}: resolve a regra da rota na mesma {@link RouteTable}
+ * compilada e aplica a mesma decisão.
+ * * <p>No modo reativo apenas as regras do código são usadas ({@code api.security.routes.source=database}
+ * não se aplica).</p>
+ */
+public class ReactiveRouteAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    private final RouteTable routeTable;
+
+    public ReactiveRouteAuthorizationManager(List<RoutePolicy> policies) {
+        this.routeTable = RouteTable.compile(policies);
+    }
+
+    @Override
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, AuthorizationContext context) {
+        RoutePolicy policy = match(context.getExchange().getRequest());
+        if (policy.access() == RoutePolicy.Access.PUBLIC) {
+            return Mono.just(RouteAuthorizationManager.decide(policy, () -> null));
+        }
+        return authentication
+                .map(user -> RouteAuthorizationManager.decide(policy, () -> user))
+                .defaultIfEmpty(RouteAuthorizationManager.decide(policy, () -> null));
+    }
+
+    /**
+     * Indica se a rota é pública, para que o filtro JWT não seja executado nela.
+     */
+    public boolean isPublic(ServerHttpRequest request) {
+        return match(request).access() == RoutePolicy.Access.PUBLIC;
+    }
+
+    private RoutePolicy match(ServerHttpRequest request) {
+        return this.routeTable.match(request.getMethod().name(), request.getPath().pathWithinApplication());
+    }
+}
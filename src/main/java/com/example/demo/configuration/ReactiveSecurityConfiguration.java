@@ -0,0 +1,110 @@
+package com.example.demo.configuration;
+
+import com.example.demo.repository.ReactiveUserRepository;
+import com.example.demo.service.ReactiveAuthorizationService;
+import com.example.demo.service.TokenRevocationStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Configuração de segurança do modo reativo (perfil {@code reactive}: WebFlux sobre Netty e R2DBC).
+ * * <p>Equivale ao {@link SecurityConfiguration} do modo servlet: as mesmas regras de rota
+ * ({@link RoutePolicy#defaults()}), o mesmo {@link TokenService} e a mesma lista de revogação,
+ * sem sessão e com as mesmas respostas (403 para requisições sem autenticação válida).</p>
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfiguration {
+
+    /**
+     * Cadeia de filtros de segurança do WebFlux.
+     * * <p>Login por formulário, HTTP Basic, logout padrão e CSRF ficam desligados; o contexto de
+     * segurança não é guardado entre requisições ({@link NoOpServerSecurityContextRepository}).
+     * O {@link ReactiveSecurityFilter} ocupa a posição de autenticação e a autorização é resolvida
+     * pelo {@link ReactiveRouteAuthorizationManager}.</p>
+     *
+     * @param http O builder de configuração do WebFlux Security.
+     * @return A cadeia de filtros finalizada.
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(
+            ServerHttpSecurity http,
+            ReactiveRouteAuthorizationManager routeAuthorizationManager,
+            TokenService tokenService,
+            ReactiveUserRepository userRepository,
+            TokenRevocationStore revocationStore,
+            @Value("${api.security.stateless-principal.enabled:false}") boolean statelessPrincipal,
+            @Value("${api.security.stateless-principal.recheck-routes:POST /product,POST /product/batch}") String[] recheckRoutes,
+            MeterRegistry meterRegistry
+    ) {
+        var securityFilter = new ReactiveSecurityFilter(tokenService, userRepository, revocationStore,
+                routeAuthorizationManager, statelessPrincipal, recheckRoutes, meterRegistry);
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .cors(ServerHttpSecurity.CorsSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                // mesmo status do modo servlet para requisições sem autenticação
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .authorizeExchange(exchange -> exchange.anyExchange().access(routeAuthorizationManager))
+                .addFilterAt(securityFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    @Bean
+    public ReactiveRouteAuthorizationManager reactiveRouteAuthorizationManager() {
+        return new ReactiveRouteAuthorizationManager(RoutePolicy.defaults());
+    }
+
+    /**
+     * Gerenciador de autenticação usado no login: busca o usuário pelo {@link ReactiveAuthorizationService},
+     * confere a senha com o {@link BoundedPasswordEncoder} (no {@link #passwordHashingScheduler()}, fora do
+     * event loop) e regrava hashes desatualizados.
+     */
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(
+            ReactiveAuthorizationService userDetailsService,
+            PasswordEncoder passwordEncoder,
+            Scheduler passwordHashingScheduler
+    ) {
+        var authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        authenticationManager.setUserDetailsPasswordService(userDetailsService);
+        authenticationManager.setScheduler(passwordHashingScheduler);
+        return authenticationManager;
+    }
+
+    /**
+     * Scheduler das chamadas ao {@link BoundedPasswordEncoder} no modo reativo.
+     * * <p>Cada chamada fica bloqueada até o pool limitado calcular o hash. No {@code boundedElastic}
+     * (10 threads por núcleo) uma rajada de logins e cadastros ocupava todas as threads dele, e as demais
+     * rotas que o usam (retrato do catálogo, refresh tokens) esperavam segundos na fila. Em virtual threads
+     * a espera não prende uma thread de plataforma; o limite de CPU continua sendo o do próprio
+     * {@link BoundedPasswordEncoder}, que responde 503 quando a fila enche.</p>
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler passwordHashingScheduler() {
+        return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "password-hashing");
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.configuration;
+
+import com.example.demo.domain.user.TokenPrincipal;
+import com.example.demo.repository.ReactiveUserRepository;
+import com.example.demo.service.TokenRevocationStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Versão reativa do {@link SecurityFilter}, registrada apenas na {@code SecurityWebFilterChain}
+ * do {@link ReactiveSecurityConfiguration} (não é um bean, para não ser aplicada duas vezes pelo WebFlux).
+ * * <p>As etapas são as mesmas: recuperação do token, verificação pelo {@link TokenService}, revogação
+ * pelo {@link TokenRevocationStore} e consulta do usuário (ou principal montado das claims no modo
+ * stateless). A consulta usa o {@link ReactiveUserRepository}, e a autenticação segue pelo contexto
+ * do Reactor ({@link ReactiveSecurityContextHolder}) em vez de uma variável da thread. As etapas são
+ * medidas no mesmo timer {@code auth.filter}, o que permite comparar os dois modos pelas mesmas métricas.</p>
+ */
+public class ReactiveSecurityFilter implements WebFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final ReactiveUserRepository repository;
+    private final TokenRevocationStore revocationStore;
+    // rotas públicas não passam pelo filtro
+    private final ReactiveRouteAuthorizationManager routeAuthorizationManager;
+
+    // modo stateless: principal montado a partir das claims do token, sem consulta ao banco
+    private final boolean statelessPrincipal;
+    // rotas sensíveis que continuam consultando o banco mesmo no modo stateless
+    private final List<Route> recheckRoutes;
+
+    private final Timer recoverPresent;
+    private final Timer recoverAbsent;
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+    private final Timer verifyRevoked;
+    private final Timer lookupFound;
+    private final Timer lookupUserMissing;
+    private final Timer lookupStateless;
+
+    public ReactiveSecurityFilter(
+            TokenService tokenService,
+            ReactiveUserRepository repository,
+            TokenRevocationStore revocationStore,
+            ReactiveRouteAuthorizationManager routeAuthorizationManager,
+            boolean statelessPrincipal,
+            String[] recheckRoutes,
+            MeterRegistry meterRegistry
+    ) {
+        this.tokenService = tokenService;
+        this.repository = repository;
+        this.revocationStore = revocationStore;
+        this.routeAuthorizationManager = routeAuthorizationManager;
+        this.statelessPrincipal = statelessPrincipal;
+        this.recheckRoutes = compileRoutes(recheckRoutes);
+        this.recoverPresent = phaseTimer(meterRegistry, "recover", "present");
+        this.recoverAbsent = phaseTimer(meterRegistry, "recover", "absent");
+        this.verifyValid = phaseTimer(meterRegistry, "verify", "valid");
+        this.verifyInvalid = phaseTimer(meterRegistry, "verify", "invalid");
+        this.verifyRevoked = phaseTimer(meterRegistry, "verify", "revoked");
+        this.lookupFound = phaseTimer(meterRegistry, "lookup", "found");
+        this.lookupUserMissing = phaseTimer(meterRegistry, "lookup", "user-missing");
+        this.lookupStateless = phaseTimer(meterRegistry, "lookup", "stateless");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        // rotas públicas (login, registro, refresh, JWKS...) não leem o cabeçalho nem verificam o token
+        if (this.routeAuthorizationManager.isPublic(request)) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        String token = recoverToken(request);
+        start = record(token != null ? this.recoverPresent : this.recoverAbsent, start);
+        if (token == null) {
+            return chain.filter(exchange);
+        }
+        Optional<VerifiedToken> verified = this.tokenService.verifyToken(token);
+        if (verified.isEmpty()) {
+            record(this.verifyInvalid, start);
+            return chain.filter(exchange);
+        }
+        if (this.revocationStore.isRevoked(verified.get().jti())) {
+            record(this.verifyRevoked, start);
+            return chain.filter(exchange);
+        }
+        start = record(this.verifyValid, start);
+        // a cadeia roda uma única vez, com ou sem autenticação no contexto
+        return authenticate(request, verified.get(), start)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authentication -> authentication
+                        .map(auth -> chain.filter(exchange)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth)))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    private Mono<Authentication> authenticate(ServerHttpRequest request, VerifiedToken verified, long start) {
+        if (this.statelessPrincipal && verified.hasPrincipalClaims() && !requiresRecheck(request)) {
+            var principal = new TokenPrincipal(verified.userId(), verified.subject(), verified.role());
+            record(this.lookupStateless, start);
+            return Mono.just(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        }
+        return this.repository.findByLogin(verified.subject())
+                .doOnSuccess(user -> record(user != null ? this.lookupFound : this.lookupUserMissing, start))
+                .map(user -> new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private boolean requiresRecheck(ServerHttpRequest request) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        for (Route route : this.recheckRoutes) {
+            if (route.method().equals(request.getMethod()) && route.pattern().matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // registra o tempo desde start e retorna o instante atual, início da próxima etapa
+    private static long record(Timer timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String phase, String outcome) {
+        return Timer.builder("auth.filter")
+                .description("Time spent in each phase of the JWT security filter")
+                .tag("phase", phase)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String recoverToken(ServerHttpRequest request) {
+        var authorizationHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorizationHeader == null) return null;
+        return authorizationHeader.replace(BEARER_PREFIX, "");
+    }
+
+    // cada rota no formato "METODO /caminho", ex: "POST /product"
+    private static List<Route> compileRoutes(String[] routes) {
+        return Arrays.stream(routes)
+                .map(String::trim)
+                .filter(route -> !route.isEmpty())
+                .map(route -> {
+                    String[] parts = route.split("\\s+", 2);
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Invalid route, expected 'METHOD /path': " + route);
+                    }
+                    return new Route(HttpMethod.valueOf(parts[0].toUpperCase()), PathPatternParser.defaultInstance.parse(parts[1]));
+                })
+                .toList();
+    }
+
+    private record Route(HttpMethod method, PathPattern pattern) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separação de leituras e escritas entre o primário e réplicas de leitura (modo servlet).
+ * * <p>Ativada com {@code api.database.replicas.enabled=true} e a lista de URLs JDBC em
+ * {@code api.database.replicas.urls}. O {@code DataSource} da aplicação passa a ser um
+ * {@link LazyConnectionDataSourceProxy} sobre o primário ({@code spring.datasource.*}): a conexão física só é
+ * obtida no primeiro comando, quando o gerenciador de transações já marcou a conexão como somente leitura.
+ * Transações {@code @Transactional(readOnly = true)} vão para o {@link ReplicaRoutingDataSource}; todo o
+ * resto (escritas, Flyway, JDBC fora de transação) vai para o primário.</p>
+ * * <p>Os pools das réplicas são criados sem falhar na inicialização: uma réplica fora do ar na subida
+ * apenas começa fora do rodízio.</p>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "api.database.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaStickiness replicaStickiness(
+            @Value("${api.database.replicas.read-your-writes-window:5s}") Duration window,
+            @Value("${api.database.replicas.read-your-writes-max-keys:100000}") long maxKeys
+    ) {
+        return new ReplicaStickiness(window, maxKeys);
+    }
+
+    @Bean(defaultCandidate = false)
+    public ReplicaRoutingDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            ReplicaStickiness stickiness,
+            @Value("${api.database.replicas.urls}") String[] urls,
+            @Value("${api.database.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${api.database.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${api.database.replicas.pool-size:10}") int poolSize,
+            @Value("${api.database.replicas.connection-timeout:1s}") Duration connectionTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        var replicas = new ArrayList<ReplicaRoutingDataSource.Replica>(urls.length);
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(poolSize);
+            // uma réplica fora do ar precisa falhar rápido para a leitura seguir para a próxima
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setInitializationFailTimeout(-1);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaRoutingDataSource.Replica(replica.getPoolName(), replica));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, List.copyOf(replicas), stickiness, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Qualifier("replicaDataSource") ReplicaRoutingDataSource replicaDataSource
+    ) {
+        var dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
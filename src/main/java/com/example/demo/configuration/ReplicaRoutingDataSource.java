@@ -0,0 +1,194 @@
+package com.example.demo.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Destino das conexões somente leitura: distribui as leituras entre as réplicas, com failover para o primário.
+ * * <p>É usado como {@code readOnlyDataSource} do {@code LazyConnectionDataSourceProxy} montado em
+ * {@link ReadReplicaConfiguration}: apenas transações {@code readOnly} chegam aqui. Cada conexão vai para a
+ * próxima réplica saudável em round-robin. Uma réplica que falha ao entregar uma conexão é marcada como fora
+ * do ar e a leitura segue para a seguinte; sem nenhuma réplica saudável, a leitura vai para o primário.
+ * A verificação periódica ({@code api.database.replicas.health-check-interval}) devolve ao rodízio as
+ * réplicas que voltaram a responder.</p>
+ * * <p>A leitura também vai para o primário quando o cliente escreveu há pouco ({@link ReplicaStickiness}) ou
+ * quando o código pediu explicitamente o primário com {@link #runOnPrimary(Runnable)}, como a reconstrução do
+ * retrato do catálogo, que precisa enxergar a escrita que a disparou, e a consulta do cache de usuários, que roda
+ * fora da requisição e cujo resultado vale para todos os clientes.</p>
+ * * <p>Falhas depois que a conexão foi entregue (no meio de uma consulta) não são repetidas em outra réplica:
+ * a exceção chega ao chamador e a réplica é retirada do rodízio na próxima tentativa de conexão.</p>
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /**
+     * Uma réplica de leitura.
+     *
+     * @param name O nome usado no log e nas métricas (o nome do pool).
+     * @param dataSource O pool de conexões da réplica.
+     */
+    public record Replica(String name, DataSource dataSource) {
+    }
+
+    private final DataSource primary;
+    private final List<ReplicaState> replicas;
+    private final ReplicaStickiness stickiness;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryForced;
+    private final Counter primarySticky;
+    private final Counter primaryFailover;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReplicaStickiness stickiness,
+                                    MeterRegistry meterRegistry) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one read replica is required");
+        }
+        this.primary = primary;
+        this.replicas = replicas.stream().map(replica -> new ReplicaState(replica, meterRegistry)).toList();
+        this.stickiness = stickiness;
+        this.primaryForced = readsCounter(meterRegistry, "primary", "forced");
+        this.primarySticky = readsCounter(meterRegistry, "primary", "sticky");
+        this.primaryFailover = readsCounter(meterRegistry, "primary", "failover");
+    }
+
+    /**
+     * Executa {@code action} com as leituras somente leitura da thread atual indo para o primário.
+     * Sem réplicas configuradas não tem efeito.
+     *
+     * @param action O trecho que precisa ler o estado mais recente.
+     */
+    public static void runOnPrimary(Runnable action) {
+        callOnPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executa {@code action} com as leituras somente leitura da thread atual indo para o primário.
+     * Sem réplicas configuradas não tem efeito.
+     *
+     * @param action O trecho que precisa ler o estado mais recente.
+     * @return O resultado de {@code action}.
+     */
+    public static <T> T callOnPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_FORCED.remove();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PRIMARY_FORCED.get() != null) {
+            this.primaryForced.increment();
+            return this.primary.getConnection();
+        }
+        if (this.stickiness.isSticky()) {
+            this.primarySticky.increment();
+            return this.primary.getConnection();
+        }
+        int size = this.replicas.size();
+        int start = Math.floorMod(this.next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaState replica = this.replicas.get((start + i) % size);
+            if (!replica.healthy.get()) {
+                continue;
+            }
+            try {
+                Connection connection = replica.replica.dataSource().getConnection();
+                replica.reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        this.primaryFailover.increment();
+        return this.primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing uses the credentials of each pool");
+    }
+
+    /**
+     * Testa cada réplica e atualiza o seu estado no rodízio.
+     */
+    @Scheduled(fixedDelayString = "${api.database.replicas.health-check-interval:5s}",
+            initialDelayString = "${api.database.replicas.health-check-interval:5s}")
+    public void checkHealth() {
+        for (ReplicaState replica : this.replicas) {
+            try (Connection connection = replica.replica.dataSource().getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Connection validation failed");
+                }
+                if (replica.healthy.compareAndSet(false, true)) {
+                    log.info("Read replica {} is back in rotation", replica.replica.name());
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (ReplicaState replica : this.replicas) {
+            if (replica.replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Counter readsCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("db.replica.reads")
+                .description("Read-only connections handed out, by target database")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static final class ReplicaState {
+
+        private final Replica replica;
+        private final AtomicBoolean healthy = new AtomicBoolean(true);
+        private final Counter reads;
+
+        private ReplicaState(Replica replica, MeterRegistry meterRegistry) {
+            this.replica = replica;
+            this.reads = readsCounter(meterRegistry, replica.name(), "round-robin");
+            Gauge.builder("db.replica.healthy", this.healthy, healthy -> healthy.get() ? 1 : 0)
+                    .description("Whether the read replica is in the rotation")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+
+        private void markDown(SQLException e) {
+            if (this.healthy.compareAndSet(true, false)) {
+                log.warn("Read replica {} removed from rotation: {}", this.replica.name(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consistência "leia o que escreveu" sobre réplicas assíncronas.
+ * * <p>Depois do commit de uma transação de escrita, o cliente que a fez fica preso ao primário por
+ * {@code api.database.replicas.read-your-writes-window}: as suas leituras somente leitura não vão para as
+ * réplicas, que podem ainda não ter aplicado a escrita. O cliente é identificado pelo login autenticado e
+ * pelo IP da requisição; o IP cobre o fluxo cadastro → login, em que ainda não existe usuário autenticado.</p>
+ * * <p>O Spring Boot registra este listener no gerenciador de transações. Escritas feitas fora de uma
+ * requisição (tarefas agendadas, importação pela linha de comando) não prendem ninguém ao primário.</p>
+ */
+public class ReplicaStickiness implements TransactionExecutionListener {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaStickiness(Duration window, long maxKeys) {
+        this.recentWriters = window.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (this.recentWriters == null || commitFailure != null || transaction.isReadOnly()) {
+            return;
+        }
+        currentClientKeys().forEach(key -> this.recentWriters.put(key, Boolean.TRUE));
+    }
+
+    /**
+     * @return {@code true} se o cliente da requisição atual escreveu dentro da janela.
+     */
+    public boolean isSticky() {
+        if (this.recentWriters == null) {
+            return false;
+        }
+        for (String key : currentClientKeys()) {
+            if (this.recentWriters.getIfPresent(key) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> currentClientKeys() {
+        var keys = new ArrayList<String>(2);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            keys.add("user:" + authentication.getName());
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            keys.add("ip:" + attributes.getRequest().getRemoteAddr());
+        }
+        return keys;
+    }
+}
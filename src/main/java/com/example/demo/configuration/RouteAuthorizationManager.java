@@ -0,0 +1,126 @@
+package com.example.demo.configuration;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.server.RequestPath;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Autoriza as requisições consultando a {@link RouteTable} compilada, em vez de uma lista de matchers
+ * avaliada em sequência.
+ * * <p>As regras padrão vêm de {@link RoutePolicy#defaults()}. Com {@code api.security.routes.source=database},
+ * as regras da tabela {@code route_policies} são somadas às padrão (e as substituem quando têm o mesmo
+ * método e padrão) e recarregadas a cada {@code api.security.routes.reload-interval}, sem redeploy.
+ * A tabela é trocada inteira por uma referência volátil; as requisições nunca esperam a recarga.</p>
+ */
+@Slf4j
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthenticationTrustResolver TRUST_RESOLVER = new AuthenticationTrustResolverImpl();
+    private static final String SELECT_POLICIES = "SELECT method, pattern, access, role FROM route_policies ORDER BY id";
+
+    private final List<RoutePolicy> defaultPolicies;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile RouteTable routeTable;
+
+    /**
+     * @param defaultPolicies As regras definidas no código.
+     * @param jdbcTemplate Acesso à tabela {@code route_policies}, ou {@code null} para usar apenas as regras padrão.
+     */
+    public RouteAuthorizationManager(List<RoutePolicy> defaultPolicies, JdbcTemplate jdbcTemplate) {
+        this.defaultPolicies = List.copyOf(defaultPolicies);
+        this.jdbcTemplate = jdbcTemplate;
+        this.routeTable = RouteTable.compile(this.defaultPolicies);
+        if (jdbcTemplate != null) {
+            reload();
+        }
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<? extends Authentication> authentication, RequestAuthorizationContext context) {
+        return decide(match(context.getRequest()), authentication);
+    }
+
+    /**
+     * Decisão de uma regra para o usuário autenticado, compartilhada com o {@link ReactiveRouteAuthorizationManager}.
+     * A autenticação só é lida quando a regra não é pública.
+     */
+    static AuthorizationResult decide(RoutePolicy policy, Supplier<? extends Authentication> authentication) {
+        return switch (policy.access()) {
+            case PUBLIC -> new AuthorizationDecision(true);
+            case AUTHENTICATED -> new AuthorizationDecision(TRUST_RESOLVER.isAuthenticated(authentication.get()));
+            case ROLE -> new AuthorizationDecision(hasRole(authentication.get(), policy.role()));
+        };
+    }
+
+    /**
+     * Indica se a rota é pública, para que o filtro JWT não seja executado nela.
+     */
+    public boolean isPublic(HttpServletRequest request) {
+        return match(request).access() == RoutePolicy.Access.PUBLIC;
+    }
+
+    /**
+     * Recarrega as regras da tabela {@code route_policies}. Em caso de erro (ex: regra inválida),
+     * a tabela atual continua valendo.
+     */
+    @Scheduled(fixedDelayString = "${api.security.routes.reload-interval:30s}",
+            initialDelayString = "${api.security.routes.reload-interval:30s}")
+    public void reload() {
+        if (this.jdbcTemplate == null) {
+            return;
+        }
+        try {
+            var policies = new ArrayList<>(this.defaultPolicies);
+            policies.addAll(this.jdbcTemplate.query(SELECT_POLICIES, (rs, rowNum) -> new RoutePolicy(
+                    rs.getString("method"),
+                    rs.getString("pattern"),
+                    RoutePolicy.Access.valueOf(rs.getString("access")),
+                    rs.getString("role")
+            )));
+            RouteTable reloaded = RouteTable.compile(policies);
+            if (reloaded.size() != this.routeTable.size()) {
+                log.info("Route table reloaded with {} policies", reloaded.size());
+            }
+            this.routeTable = reloaded;
+        } catch (DataAccessException | IllegalArgumentException e) {
+            log.error("Failed to reload route policies, keeping the current {} policies", this.routeTable.size(), e);
+        }
+    }
+
+    // o mesmo caminho analisado que o DispatcherServlet usa para escolher o handler
+    private RoutePolicy match(HttpServletRequest request) {
+        RequestPath path = ServletRequestPathUtils.hasParsedRequestPath(request)
+                ? ServletRequestPathUtils.getParsedRequestPath(request)
+                : RequestPath.parse(request.getRequestURI(), request.getContextPath());
+        return this.routeTable.match(request.getMethod(), path.pathWithinApplication());
+    }
+
+    private static boolean hasRole(Authentication authentication, String role) {
+        if (!TRUST_RESOLVER.isAuthenticated(authentication)) {
+            return false;
+        }
+        String authority = "ROLE_" + role;
+        for (GrantedAuthority granted : authentication.getAuthorities()) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
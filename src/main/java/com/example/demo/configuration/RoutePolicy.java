@@ -0,0 +1,58 @@
+package com.example.demo.configuration;
+
+import java.util.List;
+
+/**
+ * Regra de acesso de uma rota: método HTTP + padrão de caminho → quem pode acessar.
+ *
+ * @param method O método HTTP (ex: {@code POST}), ou {@code null} para qualquer método.
+ * @param pattern O caminho exato ({@code /auth/login}) ou um padrão ({@code /product/**}, {@code /users/{id}}).
+ * @param access O tipo de acesso exigido.
+ * @param role O papel exigido quando {@code access} é {@link Access#ROLE} (ex: {@code ADMIN}).
+ */
+public record RoutePolicy(String method, String pattern, Access access, String role) {
+
+    public enum Access {
+        // rota pública: o filtro JWT nem chega a ser executado
+        PUBLIC,
+        // qualquer usuário autenticado
+        AUTHENTICATED,
+        // usuário autenticado com o papel indicado
+        ROLE
+    }
+
+    public static RoutePolicy permitAll(String method, String pattern) {
+        return new RoutePolicy(method, pattern, Access.PUBLIC, null);
+    }
+
+    public static RoutePolicy authenticated(String method, String pattern) {
+        return new RoutePolicy(method, pattern, Access.AUTHENTICATED, null);
+    }
+
+    public static RoutePolicy hasRole(String method, String pattern, String role) {
+        return new RoutePolicy(method, pattern, Access.ROLE, role);
+    }
+
+    /**
+     * Regras de acesso por rota, compartilhadas pelos modos servlet e reativo. Rotas sem regra exigem autenticação.
+     * * <p>Rotas públicas não passam pelo filtro JWT. Caminhos exatos são resolvidos em O(1); para
+     * padrões ({@code /product/**}) vale o mais específico.</p>
+     *
+     * @return As regras padrão, definidas no código.
+     */
+    public static List<RoutePolicy> defaults() {
+        return List.of(
+                permitAll("POST", "/auth/register"),
+                permitAll("POST", "/auth/login"),
+                permitAll("POST", "/auth/refresh"),
+                hasRole("POST", "/auth/register/batch", "ADMIN"),
+                permitAll("GET", "/.well-known/jwks.json"),
+                permitAll("GET", "/actuator/health"),
+                permitAll("GET", "/actuator/health/**"),
+                // métricas (inclusive /actuator/prometheus) expõem falhas de login, filas e caches
+                hasRole("GET", "/actuator/**", "ADMIN"),
+                hasRole("POST", "/product", "ADMIN"),
+                hasRole("POST", "/product/batch", "ADMIN")
+        );
+    }
+}
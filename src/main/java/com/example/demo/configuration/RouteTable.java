@@ -0,0 +1,155 @@
+package com.example.demo.configuration;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabela de regras de acesso compilada, imutável e indexada por método e caminho.
+ * * <p>Caminhos exatos ficam em um {@link HashMap} por método, então a maioria das requisições
+ * é resolvida com uma consulta O(1), independente da quantidade de regras. Apenas as regras com
+ * curingas ou variáveis são comparadas uma a uma, ordenadas da mais específica para a menos
+ * específica.</p>
+ * * <p>Precedência: caminho exato do método, caminho exato para qualquer método, padrão do método,
+ * padrão para qualquer método. Sem regra correspondente, a rota exige autenticação.</p>
+ * * <p>A comparação é feita sobre o caminho decodificado, o mesmo que o Spring MVC e o WebFlux usam para
+ * escolher o controller: {@code /%70roduct} cai na regra de {@code /product}, e não na regra padrão.</p>
+ */
+public final class RouteTable {
+
+    private static final RoutePolicy DEFAULT_POLICY = RoutePolicy.authenticated(null, "/**");
+
+    private final Map<String, Routes> byMethod;
+    private final Routes anyMethod;
+    private final int size;
+
+    private RouteTable(Map<String, Routes> byMethod, Routes anyMethod, int size) {
+        this.byMethod = byMethod;
+        this.anyMethod = anyMethod;
+        this.size = size;
+    }
+
+    /**
+     * Compila as regras. Em regras repetidas (mesmo método e padrão), prevalece a última da lista.
+     *
+     * @param policies As regras de acesso.
+     * @return A tabela compilada.
+     * @throws IllegalArgumentException Caso algum padrão seja inválido ou uma regra de papel não informe o papel.
+     */
+    public static RouteTable compile(List<RoutePolicy> policies) {
+        var builders = new HashMap<String, RoutesBuilder>();
+        var anyMethod = new RoutesBuilder();
+        for (RoutePolicy policy : policies) {
+            if (policy.access() == RoutePolicy.Access.ROLE && (policy.role() == null || policy.role().isBlank())) {
+                throw new IllegalArgumentException("Route " + policy.method() + " " + policy.pattern() + " requires a role");
+            }
+            RoutesBuilder builder = policy.method() == null
+                    ? anyMethod
+                    : builders.computeIfAbsent(policy.method().toUpperCase(), method -> new RoutesBuilder());
+            builder.add(policy);
+        }
+        var byMethod = new HashMap<String, Routes>();
+        builders.forEach((method, builder) -> byMethod.put(method, builder.build()));
+        return new RouteTable(Map.copyOf(byMethod), anyMethod.build(), policies.size());
+    }
+
+    /**
+     * Encontra a regra aplicável à requisição.
+     *
+     * @param method O método HTTP da requisição.
+     * @param path O caminho da requisição como recebido (codificado), sem o context path.
+     * @return A regra correspondente, ou a regra padrão (autenticado).
+     */
+    public RoutePolicy match(String method, String path) {
+        return match(method, PathContainer.parsePath(path));
+    }
+
+    /**
+     * Encontra a regra aplicável à requisição.
+     *
+     * @param method O método HTTP da requisição.
+     * @param container O caminho já analisado, sem o context path.
+     * @return A regra correspondente, ou a regra padrão (autenticado).
+     */
+    public RoutePolicy match(String method, PathContainer container) {
+        String path = decoded(container);
+        Routes routes = this.byMethod.get(method);
+        RoutePolicy policy = routes != null ? routes.exact().get(path) : null;
+        if (policy == null) {
+            policy = this.anyMethod.exact().get(path);
+        }
+        if (policy != null) {
+            return policy;
+        }
+        boolean hasPatterns = (routes != null && !routes.patterns().isEmpty()) || !this.anyMethod.patterns().isEmpty();
+        if (!hasPatterns) {
+            return DEFAULT_POLICY;
+        }
+        if (routes != null) {
+            policy = routes.match(container);
+        }
+        if (policy == null) {
+            policy = this.anyMethod.match(container);
+        }
+        return policy != null ? policy : DEFAULT_POLICY;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    // segmentos decodificados e sem parâmetros de matriz, como o PathPattern os compara
+    private static String decoded(PathContainer container) {
+        var path = new StringBuilder(container.value().length());
+        for (PathContainer.Element element : container.elements()) {
+            path.append(element instanceof PathContainer.PathSegment segment ? segment.valueToMatch() : element.value());
+        }
+        return path.toString();
+    }
+
+    private record CompiledPattern(PathPattern pattern, RoutePolicy policy) {
+    }
+
+    private record Routes(Map<String, RoutePolicy> exact, List<CompiledPattern> patterns) {
+
+        RoutePolicy match(PathContainer path) {
+            for (CompiledPattern compiled : this.patterns) {
+                if (compiled.pattern().matches(path)) {
+                    return compiled.policy();
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class RoutesBuilder {
+
+        private final Map<String, RoutePolicy> exact = new HashMap<>();
+        private final Map<String, CompiledPattern> patterns = new HashMap<>();
+
+        void add(RoutePolicy policy) {
+            PathPattern pattern = PathPatternParser.defaultInstance.parse(policy.pattern());
+            if (isLiteral(policy.pattern())) {
+                this.exact.put(pattern.getPatternString(), policy);
+            } else {
+                this.patterns.put(pattern.getPatternString(), new CompiledPattern(pattern, policy));
+            }
+        }
+
+        Routes build() {
+            var sorted = new ArrayList<>(this.patterns.values());
+            sorted.sort(Comparator.comparing(CompiledPattern::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+            return new Routes(Map.copyOf(this.exact), List.copyOf(sorted));
+        }
+
+        private static boolean isLiteral(String pattern) {
+            return pattern.indexOf('*') < 0 && pattern.indexOf('{') < 0 && pattern.indexOf('?') < 0;
+        }
+    }
+}
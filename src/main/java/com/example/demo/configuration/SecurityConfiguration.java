@@ -1,21 +1,24 @@
 package com.example.demo.configuration;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfiguration {
 
     private final SecurityFilter securityFilter;
@@ -33,7 +36,8 @@ public class SecurityConfiguration {
      * aplicados a cada requisição HTTP.</p>
      * * <p>O funcionamento baseia-se em:</p>
      * <ul>
-     * <li><b>Autorização:</b> Define quais rotas são públicas (permitAll) e quais exigem roles específicas.</li>
+     * <li><b>Autorização:</b> Define quais rotas são públicas (permitAll) e quais exigem roles específicas,
+     * a partir das regras de {@link RoutePolicy#defaults()} compiladas no {@link RouteAuthorizationManager}.</li>
      * <li><b>Cadeia de Filtros:</b> Retorna um {@link SecurityFilterChain}, que é uma lista de filtros
      * interceptores (ex: filtros de autenticação, CSRF, sessão) processados em sequência.</li>
      * <li><b>Contexto de Segurança:</b> Garante que as credenciais e permissões (Authorities)
@@ -45,7 +49,7 @@ public class SecurityConfiguration {
      * @throws Exception Caso ocorra algum erro durante a construção da configuração de segurança.
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RouteAuthorizationManager routeAuthorizationManager) throws Exception {
         // .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll() garante que as páginas de erro sejam acessadas
         // sem auth, mesmo que o erro tenha ocorrido em rotas protegidas
         // não faz sentido em apps stateless com controllerAdvice tratando erros e front controlando os erros
@@ -53,6 +57,8 @@ public class SecurityConfiguration {
         // .authorizeHttpRequests define a politica de acesso por rota e permissão do usuário fazendo a request
         // .requestMatchers é a ponte usada pela classe AuthorizationManagerRequestMatcherRegistry authorize
         // para saber e filtrar quais verbos e rotas aplicar as politicas para permitir ou bloquear
+        // aqui as regras não são uma lista de requestMatchers avaliada em sequência: o RouteAuthorizationManager
+        // resolve a regra da rota em uma tabela compilada (HashMap por método + padrões ordenados)
 
         //.addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
         // serve para adicionar o filtro JWT (securityFilter) antes do UsernamePasswordAuthenticationFilter ser chamado pelo spring
@@ -61,17 +67,30 @@ public class SecurityConfiguration {
                 .csrf(AbstractHttpConfigurer::disable) // CSRF desativado para configuração stateless
                 .cors(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // regras compiladas em uma tabela indexada (ver RoutePolicy.defaults)
                 .authorizeHttpRequests(authorize -> authorize
-                        // .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
-                        .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/product").hasRole("ADMIN")
-                        .anyRequest().authenticated()
-                )
+                        // o despacho ASYNC encerra uma resposta assíncrona (stream SSE, exportação) de uma requisição
+                        // já autorizada; o filtro JWT não roda nele, então não há autenticação a verificar
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .anyRequest().access(routeAuthorizationManager))
                 .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
+    /**
+     * Tabela de autorização compilada a partir de {@link RoutePolicy#defaults()} e, opcionalmente, da tabela
+     * {@code route_policies} ({@code api.security.routes.source=database}).
+     * * <p>Método estático porque o {@link SecurityFilter}, injetado nesta configuração, também depende dele.</p>
+     */
+    @Bean
+    static RouteAuthorizationManager routeAuthorizationManager(
+            @Value("${api.security.routes.source:static}") String source,
+            ObjectProvider<JdbcTemplate> jdbcTemplate
+    ) {
+        boolean database = "database".equalsIgnoreCase(source);
+        return new RouteAuthorizationManager(RoutePolicy.defaults(), database ? jdbcTemplate.getObject() : null);
+    }
+
     /**
      * Expõe o gerenciador de autenticação central (AuthenticationManager) como um Bean.
      * * <p>O {@link AuthenticationManager} é o componente do Spring Security responsável por
@@ -93,25 +112,4 @@ public class SecurityConfiguration {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
-    /**
-     * Define o algoritmo de hashing para o armazenamento e validação de senhas.
-     * * <p>O {@link PasswordEncoder} é utilizado pelo Spring Security para garantir que as senhas
-     * nunca sejam armazenadas em texto plano (plain text) no banco de dados, atendendo às
-     * melhores práticas de segurança (OWASP).</p>
-     * * <p><b>Funcionamento do BCrypt:</b></p>
-     * <ul>
-     * <li><b>Hashing Seguro:</b> O BCrypt utiliza uma função de derivação de chave baseada no cifrador Blowfish.</li>
-     * <li><b>Salt Automático:</b> Gera um "salt" (tempero) aleatório para cada senha, garantindo que
-     * dois usuários com a mesma senha tenham hashes diferentes no banco, prevenindo ataques de Rainbow Tables.</li>
-     * <li><b>Custo Adaptativo:</b> É um algoritmo deliberadamente lento, o que dificulta ataques de força bruta.</li>
-     * </ul>
-     * * <p>Este Bean é consultado automaticamente pelo {@link AuthenticationManager} durante o
-     * processo de autenticação para comparar a senha enviada pelo usuário com o hash salvo.</p>
-     * * @return Uma instância de {@link BCryptPasswordEncoder} para criptografia forte.
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
 }
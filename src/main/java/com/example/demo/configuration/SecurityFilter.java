@@ -1,29 +1,89 @@
 package com.example.demo.configuration;
 
+import com.example.demo.domain.user.TokenPrincipal;
+import com.example.demo.exception.ServiceOverloadedException;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.DatabaseBulkhead;
+import com.example.demo.service.TokenRevocationStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
     private final UserRepository repository;
+    private final TokenRevocationStore revocationStore;
+    private final DatabaseBulkhead bulkhead;
+    // rotas públicas não passam pelo filtro
+    private final RouteAuthorizationManager routeAuthorizationManager;
 
     private final String authorizationHeaderString = "Authorization";
     private final String bearerPrefix = "Bearer ";
 
-    public SecurityFilter(TokenService tokenService, UserRepository repository) {
+    // modo stateless: principal montado a partir das claims do token, sem consulta ao banco
+    private final boolean statelessPrincipal;
+    // rotas sensíveis que continuam consultando o banco mesmo no modo stateless
+    private final RequestMatcher recheckRoutes;
+
+    // tempo de cada etapa do filtro (auth.filter), por etapa e resultado
+    private final Timer recoverPresent;
+    private final Timer recoverAbsent;
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+    private final Timer verifyRevoked;
+    private final Timer lookupFound;
+    private final Timer lookupUserMissing;
+    private final Timer lookupStateless;
+
+    public SecurityFilter(
+            TokenService tokenService,
+            UserRepository repository,
+            TokenRevocationStore revocationStore,
+            DatabaseBulkhead bulkhead,
+            RouteAuthorizationManager routeAuthorizationManager,
+            @Value("${api.security.stateless-principal.enabled:false}") boolean statelessPrincipal,
+            @Value("${api.security.stateless-principal.recheck-routes:POST /product,POST /product/batch}") String[] recheckRoutes,
+            MeterRegistry meterRegistry
+    ) {
         this.tokenService = tokenService;
         this.repository = repository;
+        this.revocationStore = revocationStore;
+        this.bulkhead = bulkhead;
+        this.routeAuthorizationManager = routeAuthorizationManager;
+        this.statelessPrincipal = statelessPrincipal;
+        this.recheckRoutes = compileRoutes(recheckRoutes);
+        this.recoverPresent = phaseTimer(meterRegistry, "recover", "present");
+        this.recoverAbsent = phaseTimer(meterRegistry, "recover", "absent");
+        this.verifyValid = phaseTimer(meterRegistry, "verify", "valid");
+        this.verifyInvalid = phaseTimer(meterRegistry, "verify", "invalid");
+        this.verifyRevoked = phaseTimer(meterRegistry, "verify", "revoked");
+        this.lookupFound = phaseTimer(meterRegistry, "lookup", "found");
+        this.lookupUserMissing = phaseTimer(meterRegistry, "lookup", "user-missing");
+        this.lookupStateless = phaseTimer(meterRegistry, "lookup", "stateless");
     }
 
     /**
@@ -32,12 +92,21 @@ public class SecurityFilter extends OncePerRequestFilter {
      * <ul>
      * <li><b>Recuperação:</b> Tenta extrair o token do cabeçalho "Authorization" da requisição.</li>
      * <li><b>Validação:</b> Utiliza o {@code TokenService} para verificar a integridade e validade do token.</li>
-     * <li><b>Consulta:</b> Se o token for válido, busca os detalhes do usuário no banco de dados através do login extraído.</li>
+     * <li><b>Revogação:</b> Descarta tokens revogados (logout, reuso de refresh token) consultando o
+     * {@link TokenRevocationStore}, que responde em memória, sem acessar o banco.</li>
+     * <li><b>Consulta:</b> Se o token for válido, busca os detalhes do usuário no banco de dados através do login extraído.
+     * No modo stateless ({@code api.security.stateless-principal.enabled=true}) o banco não é consultado:
+     * o principal é montado a partir das claims do token, exceto nas rotas sensíveis configuradas em
+     * {@code api.security.stateless-principal.recheck-routes}. A consulta passa pelo {@link DatabaseBulkhead}
+     * (classe {@code auth}); se não houver capacidade, a requisição é recusada com 503 e Retry-After.</li>
      * <li><b>Autenticação:</b> Cria um objeto {@link UsernamePasswordAuthenticationToken} preenchido com as
      * permissões (Authorities) do usuário.</li>
      * <li><b>Contexto:</b> Injeta essa autenticação no {@link SecurityContextHolder}, permitindo que o
      * Spring Security autorize o acesso às rotas protegidas.</li>
      * </ul>
+     * * <p>Cada etapa (recuperação, validação e consulta) é medida no timer {@code auth.filter}, com as
+     * tags {@code phase} e {@code outcome}. A distinção entre token expirado e inválido fica no timer
+     * {@code auth.token.verify} do {@link TokenService}.</p>
      * * <p>Ao final, o metodo chama {@code filterChain.doFilter} para garantir que a requisição
      * continue seu fluxo para o próximo filtro ou para o Controller.</p>
      * * @param request Objeto contendo os dados da requisição HTTP.
@@ -48,21 +117,95 @@ public class SecurityFilter extends OncePerRequestFilter {
      */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
         var token = this.recoverToken(request);
+        start = record(token != null ? this.recoverPresent : this.recoverAbsent, start);
         if (token != null) {
-            var login = this.tokenService.validateToken(token);
-            repository.findByLogin(login).ifPresent(user -> {
-                var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            });
+            Optional<VerifiedToken> verified = this.tokenService.verifyToken(token);
+            if (verified.isEmpty()) {
+                record(this.verifyInvalid, start);
+            } else if (this.revocationStore.isRevoked(verified.get().jti())) {
+                record(this.verifyRevoked, start);
+            } else {
+                start = record(this.verifyValid, start);
+                try {
+                    authenticate(request, verified.get(), start);
+                } catch (ServiceOverloadedException e) {
+                    // o filtro roda antes dos controllers, fora do RestExceptionHandler
+                    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())));
+                    return;
+                }
+            }
         }
         filterChain.doFilter(request, response);
     }
 
-    private String recoverToken(HttpServletRequest request) {
+    /**
+     * Rotas públicas (login, registro, refresh, JWKS...) não leem o cabeçalho nem verificam o token:
+     * a autorização delas não depende do usuário.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return this.routeAuthorizationManager.isPublic(request);
+    }
+
+    private void authenticate(HttpServletRequest request, VerifiedToken verified, long start) {
+        if (this.statelessPrincipal && verified.hasPrincipalClaims() && !this.recheckRoutes.matches(request)) {
+            var principal = new TokenPrincipal(verified.userId(), verified.subject(), verified.role());
+            var authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            record(this.lookupStateless, start);
+            return;
+        }
+        var user = this.bulkhead.call(DatabaseBulkhead.Workload.AUTH, () -> this.repository.findByLogin(verified.subject()));
+        record(user.isPresent() ? this.lookupFound : this.lookupUserMissing, start);
+        user.ifPresent(details -> {
+            var authentication = new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        });
+    }
+
+    // registra o tempo desde start e retorna o instante atual, início da próxima etapa
+    private static long record(Timer timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String phase, String outcome) {
+        return Timer.builder("auth.filter")
+                .description("Time spent in each phase of the JWT security filter")
+                .tag("phase", phase)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // visibilidade de pacote para o benchmark JMH (src/jmh/java)
+    String recoverToken(HttpServletRequest request) {
         var authorizationHeader = request.getHeader(this.authorizationHeaderString);
         if (authorizationHeader == null) return null;
         return authorizationHeader.replace(this.bearerPrefix, "");
     }
 
+    // cada rota no formato "METODO /caminho", ex: "POST /product"
+    private static RequestMatcher compileRoutes(String[] routes) {
+        List<RequestMatcher> matchers = Arrays.stream(routes)
+                .map(String::trim)
+                .filter(route -> !route.isEmpty())
+                .map(route -> {
+                    String[] parts = route.split("\\s+", 2);
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Invalid route, expected 'METHOD /path': " + route);
+                    }
+                    return (RequestMatcher) PathPatternRequestMatcher.withDefaults()
+                            .matcher(HttpMethod.valueOf(parts[0].toUpperCase()), parts[1]);
+                })
+                .toList();
+        if (matchers.isEmpty()) {
+            return request -> false;
+        }
+        return new OrRequestMatcher(matchers);
+    }
+
 }
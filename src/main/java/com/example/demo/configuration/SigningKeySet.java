@@ -0,0 +1,428 @@
+package com.example.demo.configuration;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.domain.UuidV7;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.Set;
+
+/**
+ * Conjunto de chaves usadas para assinar e verificar os tokens JWT.
+ * * <p>Com {@code HS256} (padrão) há uma única chave, o segredo {@code api.security.token.secret},
+ * e nada é publicado no JWKS. Com {@code RS256} ou {@code ES256} os pares de chaves ficam na tabela
+ * {@code signing_keys} e a chave pública é publicada em {@code /.well-known/jwks.json}, para que outros
+ * serviços verifiquem os tokens sem conhecer nenhum segredo. Todas as instâncias leem a mesma tabela: um
+ * token emitido por uma é aceito pelas outras, continua válido depois de um reinício e o JWKS é o mesmo
+ * em qualquer instância. A chave privada é gravada cifrada (AES-GCM) com uma chave derivada de
+ * {@code api.security.token.secret}, que por isso precisa ser o mesmo em todas as instâncias.</p>
+ * * <p>Cada token leva no cabeçalho o {@code kid} da chave que o assinou. A verificação procura o
+ * {@link JWTVerifier} já construído para esse {@code kid} em um mapa imutável, publicado por uma
+ * referência volátil: leituras não usam locks e a rotação troca o mapa inteiro.</p>
+ * * <p>As chaves assimétricas são rotacionadas a cada {@code api.security.token.keys.rotation-interval}.
+ * A próxima chave é gravada {@code api.security.token.keys.jwks-max-age} (o {@code max-age} do JWKS) antes
+ * de começar a assinar: quem guardou o documento em cache já a conhece quando chega o primeiro token
+ * assinado por ela. A troca segue o {@code activates_at} da chave, no mesmo instante em todas as instâncias,
+ * e a chave anterior continua aceita por {@code api.security.token.keys.overlap}, que deve ser maior que o
+ * tempo de vida do token de acesso.</p>
+ * * <p>Cada instância relê a tabela a cada {@code api.security.token.keys.refresh-interval}, que deve ser
+ * menor que o {@code jwks-max-age}. A instância que encontra a rotação vencida grava a próxima chave sob um
+ * advisory lock do Postgres, então cada rotação cria uma única chave, qualquer que seja o número de instâncias.</p>
+ */
+@Slf4j
+@Component
+public class SigningKeySet {
+
+    private static final String SELECT_KEYS =
+            "SELECT kid, public_key, private_key, activates_at FROM signing_keys WHERE algorithm = ? ORDER BY activates_at, kid";
+    private static final String INSERT_KEY =
+            "INSERT INTO signing_keys (kid, algorithm, public_key, private_key, activates_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_KEY = "DELETE FROM signing_keys WHERE kid = ?";
+    // serializa a rotação entre as instâncias; liberado no fim da transação
+    private static final String LOCK_KEYS = "SELECT pg_advisory_xact_lock(hashtext('signing_keys'))";
+    private static final Set<String> ALGORITHMS = Set.of("HS256", "RS256", "ES256");
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Uma chave com o algoritmo de assinatura e o verificador prontos.
+     *
+     * @param kid O identificador da chave, enviado no cabeçalho do token.
+     * @param algorithm O algoritmo com a chave privada (ou o segredo), usado para assinar.
+     * @param verifier O verificador construído uma única vez para esta chave.
+     * @param jwk A chave pública no formato JWK, ou {@code null} para HMAC.
+     * @param activatesAt A partir de quando a chave assina novos tokens; antes disso ela só é publicada.
+     * @param retiresAt A partir de quando a chave deixa de ser aceita, ou {@code null} enquanto for a mais nova.
+     */
+    record SigningKey(String kid, Algorithm algorithm, JWTVerifier verifier, Map<String, Object> jwk,
+                      Instant activatesAt, Instant retiresAt) {
+
+        SigningKey retiringAt(Instant instant) {
+            return new SigningKey(this.kid, this.algorithm, this.verifier, this.jwk, this.activatesAt, instant);
+        }
+    }
+
+    // um par de chaves como gravado na tabela (ou na lista em memória), já decifrado
+    private record StoredKey(String kid, KeyPair pair, Instant activatesAt) {
+    }
+
+    private final String algorithmName;
+    private final String issuer;
+    private final Duration rotationInterval;
+    private final Duration overlap;
+    private final Duration jwksMaxAge;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final SecretKey storageKey;
+    private final List<StoredKey> memoryKeys = new ArrayList<>();
+    // kid -> chave, em ordem de ativação; a atual é a mais nova já ativa
+    private volatile SequencedMap<String, SigningKey> keys;
+
+    /**
+     * @param jdbcTemplate Acesso à tabela {@code signing_keys}, ou {@code null} para manter as chaves só em memória
+     *                     (testes e benchmarks com uma única instância).
+     * @param transactionManager A transação do advisory lock da rotação, ou {@code null} junto com o {@code jdbcTemplate}.
+     */
+    public SigningKeySet(
+            @Value("${api.security.token.algorithm:HS256}") String algorithmName,
+            @Value("${api.security.token.secret}") String secret,
+            @Value("${api.security.token.keys.rotation-interval:24h}") Duration rotationInterval,
+            @Value("${api.security.token.keys.overlap:1h}") Duration overlap,
+            @Value("${api.security.token.keys.jwks-max-age:5m}") Duration jwksMaxAge,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.algorithmName = algorithmName.toUpperCase();
+        if (!ALGORITHMS.contains(this.algorithmName)) {
+            throw new IllegalArgumentException(
+                    "Unsupported api.security.token.algorithm, expected HS256, RS256 or ES256: " + this.algorithmName);
+        }
+        this.issuer = "spring-security";
+        this.rotationInterval = rotationInterval;
+        this.overlap = overlap;
+        this.jwksMaxAge = jwksMaxAge;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+        this.storageKey = storageKey(secret);
+        if ("HS256".equals(this.algorithmName)) {
+            SigningKey key = key("hs256", Algorithm.HMAC256(secret), null, Instant.EPOCH, null);
+            this.keys = Collections.unmodifiableSequencedMap(new LinkedHashMap<>(Map.of(key.kid(), key)));
+        } else {
+            this.keys = Collections.unmodifiableSequencedMap(new LinkedHashMap<>());
+            rotateAndLoad();
+        }
+    }
+
+    public String issuer() {
+        return this.issuer;
+    }
+
+    /**
+     * Por quanto tempo o JWKS pode ficar em cache; é também a antecedência com que a próxima chave é publicada.
+     */
+    public Duration jwksMaxAge() {
+        return this.jwksMaxAge;
+    }
+
+    /**
+     * A chave usada para assinar novos tokens: a mais nova cujo {@code activates_at} já passou.
+     */
+    SigningKey current() {
+        Instant now = Instant.now();
+        SigningKey oldest = null;
+        for (SigningKey key : this.keys.sequencedValues().reversed()) {
+            if (!key.activatesAt().isAfter(now)) {
+                return key;
+            }
+            oldest = key;
+        }
+        // nenhuma ativa (relógio atrasado em relação a quem gravou a chave): usa a mais antiga
+        return oldest;
+    }
+
+    /**
+     * Verifica a assinatura, o emissor e a expiração do token com a chave indicada pelo seu {@code kid}.
+     * Tokens sem {@code kid} (emitidos antes das chaves terem identificador) são verificados com a chave atual.
+     *
+     * @param token O token JWT.
+     * @return O token decodificado e verificado.
+     * @throws JWTVerificationException Caso o token seja inválido, expirado ou assinado por uma chave desconhecida.
+     */
+    DecodedJWT verify(String token) {
+        DecodedJWT decoded = JWT.decode(token);
+        String kid = decoded.getKeyId();
+        SigningKey key = kid != null ? this.keys.get(kid) : current();
+        if (key == null || (key.retiresAt() != null && key.retiresAt().isBefore(Instant.now()))) {
+            throw new JWTVerificationException("Unknown or retired signing key: " + kid);
+        }
+        return key.verifier().verify(decoded);
+    }
+
+    /**
+     * As chaves públicas aceitas na verificação, no formato JWK, incluindo a próxima chave antes de ela
+     * começar a assinar. Vazio com HMAC, cujo segredo nunca é publicado.
+     */
+    public List<Map<String, Object>> publicKeys() {
+        return this.keys.values().stream()
+                .filter(key -> key.jwk() != null)
+                .map(SigningKey::jwk)
+                .toList();
+    }
+
+    /**
+     * Relê as chaves da tabela e, se a rotação venceu, grava a próxima. Em caso de erro as chaves atuais
+     * continuam valendo. Com HMAC não há rotação.
+     */
+    @Scheduled(fixedDelayString = "${api.security.token.keys.refresh-interval:1m}",
+            initialDelayString = "${api.security.token.keys.refresh-interval:1m}")
+    public void refresh() {
+        if ("HS256".equals(this.algorithmName)) {
+            return;
+        }
+        try {
+            rotateAndLoad();
+        } catch (DataAccessException | IllegalStateException e) {
+            log.error("Failed to refresh {} signing keys, keeping the current {} keys", this.algorithmName, this.keys.size(), e);
+        }
+    }
+
+    private synchronized void rotateAndLoad() {
+        List<StoredKey> stored;
+        if (this.jdbcTemplate != null) {
+            stored = this.transaction.execute(status -> {
+                this.jdbcTemplate.execute(LOCK_KEYS);
+                return rotate(this.jdbcTemplate.query(SELECT_KEYS, (rs, rowNum) -> decode(rs), this.algorithmName));
+            });
+        } else {
+            stored = rotate(List.copyOf(this.memoryKeys));
+        }
+        this.keys = signingKeys(stored);
+    }
+
+    /**
+     * Descarta as chaves cuja sucessora já assina há mais que o overlap e grava a próxima chave quando
+     * faltar {@code jwks-max-age} para a rotação.
+     *
+     * @param stored As chaves gravadas, em ordem de ativação.
+     * @return As chaves que continuam gravadas, em ordem de ativação.
+     */
+    private List<StoredKey> rotate(List<StoredKey> stored) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        var kept = new ArrayList<StoredKey>(stored.size() + 1);
+        for (int i = 0; i < stored.size(); i++) {
+            if (i + 1 < stored.size() && stored.get(i + 1).activatesAt().plus(this.overlap).isBefore(now)) {
+                delete(stored.get(i));
+            } else {
+                kept.add(stored.get(i));
+            }
+        }
+        if (kept.isEmpty()) {
+            // primeira chave: nenhum JWKS em cache pode conhecê-la, não há por que esperar
+            kept.add(insert(new StoredKey(UuidV7.generate().toString(), generateKeyPair(), now)));
+            log.info("Created {} signing key {}", this.algorithmName, kept.getFirst().kid());
+            return kept;
+        }
+        StoredKey newest = kept.getLast();
+        Instant rotatesAt = newest.activatesAt().plus(this.rotationInterval);
+        // a próxima chave ainda não publicada, ou a rotação ainda longe
+        if (newest.activatesAt().isAfter(now) || now.isBefore(rotatesAt.minus(this.jwksMaxAge))) {
+            return kept;
+        }
+        Instant publishedFor = now.plus(this.jwksMaxAge);
+        StoredKey next = insert(new StoredKey(UuidV7.generate().toString(), generateKeyPair(),
+                rotatesAt.isAfter(publishedFor) ? rotatesAt : publishedFor));
+        kept.add(next);
+        log.info("Published next {} signing key {}, signing from {}, {} keys accepted",
+                this.algorithmName, next.kid(), next.activatesAt(), kept.size());
+        return kept;
+    }
+
+    private SequencedMap<String, SigningKey> signingKeys(List<StoredKey> stored) {
+        var loaded = new LinkedHashMap<String, SigningKey>();
+        for (int i = 0; i < stored.size(); i++) {
+            StoredKey key = stored.get(i);
+            // cada chave vale até a sucessora assinar há mais que o overlap
+            Instant retiresAt = i + 1 < stored.size() ? stored.get(i + 1).activatesAt().plus(this.overlap) : null;
+            SigningKey existing = this.keys.get(key.kid());
+            loaded.put(key.kid(), existing != null ? existing.retiringAt(retiresAt) : key(key, retiresAt));
+        }
+        return Collections.unmodifiableSequencedMap(loaded);
+    }
+
+    private StoredKey insert(StoredKey key) {
+        if (this.jdbcTemplate == null) {
+            this.memoryKeys.add(key);
+            return key;
+        }
+        this.jdbcTemplate.update(INSERT_KEY, key.kid(), this.algorithmName, key.pair().getPublic().getEncoded(),
+                encrypt(key.kid(), key.pair().getPrivate().getEncoded()), OffsetDateTime.ofInstant(key.activatesAt(), ZoneOffset.UTC));
+        return key;
+    }
+
+    private void delete(StoredKey key) {
+        if (this.jdbcTemplate == null) {
+            this.memoryKeys.remove(key);
+        } else {
+            this.jdbcTemplate.update(DELETE_KEY, key.kid());
+        }
+    }
+
+    private StoredKey decode(ResultSet rs) throws SQLException {
+        String kid = rs.getString("kid");
+        try {
+            var factory = KeyFactory.getInstance("RS256".equals(this.algorithmName) ? "RSA" : "EC");
+            var pair = new KeyPair(
+                    factory.generatePublic(new X509EncodedKeySpec(rs.getBytes("public_key"))),
+                    factory.generatePrivate(new PKCS8EncodedKeySpec(decrypt(kid, rs.getBytes("private_key")))));
+            return new StoredKey(kid, pair, rs.getObject("activates_at", OffsetDateTime.class).toInstant());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(
+                    "Could not load signing key " + kid + ", api.security.token.secret must match the instance that created it", e);
+        }
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            if ("RS256".equals(this.algorithmName)) {
+                var generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                return generator.generateKeyPair();
+            }
+            var generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate " + this.algorithmName + " signing key", e);
+        }
+    }
+
+    private SigningKey key(StoredKey stored, Instant retiresAt) {
+        KeyPair pair = stored.pair();
+        if ("RS256".equals(this.algorithmName)) {
+            var publicKey = (RSAPublicKey) pair.getPublic();
+            var jwk = jwk(stored.kid(), "RSA", "RS256");
+            jwk.put("n", base64Url(publicKey.getModulus(), 0));
+            jwk.put("e", base64Url(publicKey.getPublicExponent(), 0));
+            return key(stored.kid(), Algorithm.RSA256(publicKey, (RSAPrivateKey) pair.getPrivate()), jwk,
+                    stored.activatesAt(), retiresAt);
+        }
+        var publicKey = (ECPublicKey) pair.getPublic();
+        var jwk = jwk(stored.kid(), "EC", "ES256");
+        jwk.put("crv", "P-256");
+        jwk.put("x", base64Url(publicKey.getW().getAffineX(), 32));
+        jwk.put("y", base64Url(publicKey.getW().getAffineY(), 32));
+        return key(stored.kid(), Algorithm.ECDSA256(publicKey, (ECPrivateKey) pair.getPrivate()), jwk,
+                stored.activatesAt(), retiresAt);
+    }
+
+    private SigningKey key(String kid, Algorithm algorithm, Map<String, Object> jwk, Instant activatesAt, Instant retiresAt) {
+        JWTVerifier verifier = JWT.require(algorithm)
+                .withIssuer(this.issuer)
+                .build();
+        return new SigningKey(kid, algorithm, verifier, jwk != null ? Collections.unmodifiableMap(jwk) : null,
+                activatesAt, retiresAt);
+    }
+
+    // iv || texto cifrado; o kid entra como dado autenticado, para que uma chave não possa ser trocada de linha
+    private byte[] encrypt(String kid, byte[] plain) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            RANDOM.nextBytes(iv);
+            var cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, this.storageKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] encrypted = cipher.doFinal(plain);
+            return ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt signing key " + kid, e);
+        }
+    }
+
+    private byte[] decrypt(String kid, byte[] stored) throws GeneralSecurityException {
+        var cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, this.storageKey, new GCMParameterSpec(GCM_TAG_BITS, stored, 0, GCM_IV_LENGTH));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(stored, GCM_IV_LENGTH, stored.length - GCM_IV_LENGTH);
+    }
+
+    // prefixo próprio para que a chave de cifra não coincida com a chave HMAC do mesmo segredo
+    private static SecretKey storageKey(String secret) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(("signing-keys:" + secret).getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(hash, "AES");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Map<String, Object> jwk(String kid, String keyType, String algorithm) {
+        var jwk = new LinkedHashMap<String, Object>();
+        jwk.put("kty", keyType);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm);
+        jwk.put("kid", kid);
+        return jwk;
+    }
+
+    // inteiro sem sinal em big-endian, com tamanho fixo quando exigido (coordenadas EC)
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (length > bytes.length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,30 +1,73 @@
 package com.example.demo.configuration;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.Claim;
+import com.example.demo.domain.enums.UserRole;
 import com.example.demo.domain.user.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TokenService {
 
-    @Value("${api.security.token.secret}")
-    private String secret;
-
-    private final Algorithm algorithm;
+    // chaves de assinatura (HMAC, RSA ou EC), indexadas pelo kid
+    private final SigningKeySet signingKeys;
     // nome da aplicacao que criou o token
     private final String issuer;
+    // tempo de vida curto: a renovação é feita com o refresh token
+    private final Duration accessTokenTtl;
+    // claims que permitem montar o principal sem consultar o banco (modo stateless do SecurityFilter)
+    static final String ROLE_CLAIM = "role";
+    static final String USER_ID_CLAIM = "uid";
+    // chave: digest SHA-256 do token, para não manter o token (credencial) em memória
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final Timer generateTimer;
+    private final Timer verifyValidTimer;
+    private final Timer verifyExpiredTimer;
+    private final Timer verifyInvalidTimer;
 
-    public TokenService(@Value("${api.security.token.secret}") String secret) {
-        this.algorithm = Algorithm.HMAC256(secret);
-        this.issuer = "spring-security";
+    public TokenService(
+            SigningKeySet signingKeys,
+            @Value("${api.security.token.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${api.security.token.access-ttl:15m}") Duration accessTokenTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.signingKeys = signingKeys;
+        this.issuer = signingKeys.issuer();
+        this.accessTokenTtl = accessTokenTtl;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.verifiedTokens, "auth.token.cache");
+        this.generateTimer = Timer.builder("auth.token.generate")
+                .description("Time spent signing access tokens")
+                .register(meterRegistry);
+        this.verifyValidTimer = verifyTimer(meterRegistry, "valid");
+        this.verifyExpiredTimer = verifyTimer(meterRegistry, "expired");
+        this.verifyInvalidTimer = verifyTimer(meterRegistry, "invalid");
     }
 
     /**
@@ -34,8 +77,13 @@ public class TokenService {
      * <ul>
      * <li><b>Issuer:</b> Identifica a aplicação que emitiu o token (emissor).</li>
      * <li><b>Subject:</b> Define o proprietário do token (geralmente o login ou ID).</li>
-     * <li><b>Expiration:</b> Define um tempo de vida para o token para reduzir riscos em caso de interceptação.</li>
-     * <li><b>Signature:</b> O token é assinado com um algoritmo secreto, garantindo que não foi alterado.</li>
+     * <li><b>Claims:</b> O papel ({@code role}) e o id ({@code uid}) do usuário, para que o filtro
+     * possa autorizar a requisição sem consultar o banco.</li>
+     * <li><b>JWT ID:</b> Um identificador único ({@code jti}) que permite revogar o token antes da expiração.</li>
+     * <li><b>Expiration:</b> Define um tempo de vida curto ({@code api.security.token.access-ttl}) para reduzir
+     * riscos em caso de interceptação; a renovação é feita com o refresh token.</li>
+     * <li><b>Signature:</b> O token é assinado com a chave atual do {@link SigningKeySet}, garantindo que não foi
+     * alterado. O {@code kid} da chave vai no cabeçalho do token.</li>
      * </ul>
      * </p>
      * * @param user A entidade do usuário autenticado que receberá o token.
@@ -43,15 +91,36 @@ public class TokenService {
      * @throws RuntimeException Caso ocorra uma falha interna na criação do token.
      */
     public String generateToken(User user) {
+        return issueToken(user).token();
+    }
+
+    /**
+     * Mesmo que {@link #generateToken(User)}, mas retorna também o {@code jti} e a expiração do token,
+     * necessários para associá-lo a um refresh token e para revogá-lo.
+     *
+     * @param user A entidade do usuário autenticado que receberá o token.
+     * @return O token emitido.
+     */
+    public IssuedToken issueToken(User user) {
+        long start = System.nanoTime();
         try {
+            String jti = UUID.randomUUID().toString();
+            Instant expiresAt = generateExpirationDate();
+            SigningKeySet.SigningKey key = this.signingKeys.current();
             String token = JWT.create()
+                    .withKeyId(key.kid())
                     .withIssuer(issuer)
+                    .withJWTId(jti)
                     .withSubject(user.getLogin())
-                    .withExpiresAt(generateExpirationDate())
-                    .sign(algorithm);
-            return token;
+                    .withClaim(ROLE_CLAIM, user.getRole() != null ? user.getRole().name() : null)
+                    .withClaim(USER_ID_CLAIM, user.getId() != null ? user.getId().toString() : null)
+                    .withExpiresAt(expiresAt)
+                    .sign(key.algorithm());
+            return new IssuedToken(token, jti, expiresAt);
         } catch (JWTCreationException e) {
             throw new RuntimeException("Error while generating token", e);
+        } finally {
+            this.generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -60,29 +129,127 @@ public class TokenService {
      * * <p>Este metodo é utilizado em cada requisição protegida para verificar se o token
      * enviado pelo cliente é confiável. O processo de validação garante que:</p>
      * <ul>
-     * <li>O token foi assinado pela mesma chave secreta da aplicação.</li>
+     * <li>O token foi assinado por uma das chaves aceitas da aplicação (pelo {@code kid} do cabeçalho).</li>
      * <li>O emissor (Issuer) é válido.</li>
      * <li>O token não expirou.</li>
      * <li>O conteúdo do token não foi modificado por terceiros.</li>
      * </ul>
+     * * <p>Tokens já verificados ficam em um cache limitado por tamanho, cuja entrada expira
+     * junto com o próprio token. Assim, o mesmo token enviado várias vezes durante seu tempo
+     * de vida só tem a assinatura verificada na primeira requisição.</p>
      * * @param token A String do token JWT recebida no cabeçalho Authorization.
      * @return O Subject (login/identificador) do usuário contido no token.
      * @throws RuntimeException Caso o token seja inválido, expirado ou malformado.
      */
     public String validateToken(String token) {
+        return verifyToken(token)
+                .map(VerifiedToken::subject)
+                .orElse("");
+    }
+
+    /**
+     * Valida um token JWT e retorna todas as informações extraídas dele.
+     * * <p>Mesma validação de {@link #validateToken(String)}, mas expõe também as claims de
+     * papel e id do usuário, usadas pelo {@code SecurityFilter} no modo stateless.</p>
+     *
+     * @param token A String do token JWT recebida no cabeçalho Authorization.
+     * @return O token verificado, ou vazio caso seja inválido, expirado ou malformado.
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        long start = System.nanoTime();
+        Timer outcome = this.verifyInvalidTimer;
         try {
-            return JWT.require(algorithm)
-                    .withIssuer(issuer)
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            VerifiedToken verified = this.verifiedTokens.get(digest(token), key -> verify(token));
+            outcome = this.verifyValidTimer;
+            return Optional.of(verified);
+        } catch (TokenExpiredException e) {
+            outcome = this.verifyExpiredTimer;
+            return Optional.empty();
         } catch (JWTVerificationException e) {
-            return "";
+            return Optional.empty();
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Estatísticas (hits, misses, evictions) do cache de tokens verificados.
+     * * <p>Os mesmos valores são publicados no Actuator como {@code cache.gets}
+     * com a tag {@code cache=auth.token.cache}.</p>
+     *
+     * @return Um retrato imutável das estatísticas acumuladas do cache.
+     */
+    public CacheStats cacheStats() {
+        return this.verifiedTokens.stats();
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.token.verify")
+                .description("Time spent verifying access tokens, including cache hits")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private VerifiedToken verify(String token) {
+        DecodedJWT decoded = this.signingKeys.verify(token);
+        return new VerifiedToken(
+                decoded.getId(),
+                decoded.getSubject(),
+                decoded.getClaim(USER_ID_CLAIM).asString(),
+                parseRole(decoded.getClaim(ROLE_CLAIM)),
+                decoded.getExpiresAtAsInstant()
+        );
+    }
+
+    private static UserRole parseRole(Claim claim) {
+        String role = claim.asString();
+        if (role == null) {
+            return null;
+        }
+        try {
+            return UserRole.valueOf(role);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
     private Instant generateExpirationDate() {
-        return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
+        return Instant.now().plus(this.accessTokenTtl);
+    }
+
+    /**
+     * Expira cada entrada do cache no mesmo instante em que o token expira.
+     * Tokens sem expiração nunca são emitidos por este serviço, mas se existirem
+     * ficam sujeitos apenas ao limite de tamanho do cache.
+     */
+    private static final class ExpireAtTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            if (value.expiresAt() == null) {
+                return Long.MAX_VALUE;
+            }
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 
 }
@@ -0,0 +1,86 @@
+package com.example.demo.configuration;
+
+import com.example.demo.domain.user.UserImportItemResultDTO;
+import com.example.demo.domain.user.UserImportResponseDTO;
+import com.example.demo.domain.user.UserImportStatus;
+import com.example.demo.service.UserImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Importação de usuários pela linha de comando, com o mesmo serviço do {@code POST /auth/register/batch}.
+ * * <p>Uso: {@code java -jar app.jar --spring.main.web-application-type=none --import-users=usuarios.ndjson
+ * [--import-users.report=resultado.ndjson]}. O arquivo pode ser um array JSON ou NDJSON. O resultado de
+ * cada item é gravado no relatório, se informado, e a aplicação termina com código 0, ou 1 se a carga
+ * foi interrompida por um erro.</p>
+ */
+@Slf4j
+@Component
+public class UserImportRunner implements ApplicationRunner {
+
+    private static final String IMPORT_OPTION = "import-users";
+    private static final String REPORT_OPTION = "import-users.report";
+
+    private final UserImportService userImportService;
+    private final JsonMapper jsonMapper;
+    private final ConfigurableApplicationContext context;
+
+    public UserImportRunner(UserImportService userImportService, JsonMapper jsonMapper, ConfigurableApplicationContext context) {
+        this.userImportService = userImportService;
+        this.jsonMapper = jsonMapper;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption(IMPORT_OPTION)) {
+            return;
+        }
+        Path source = Path.of(args.getOptionValues(IMPORT_OPTION).getFirst());
+        log.info("Importing users from {}", source);
+        long start = System.nanoTime();
+        UserImportResponseDTO response;
+        try (InputStream input = Files.newInputStream(source)) {
+            response = this.userImportService.importUsers(input);
+        }
+        log.info("User import finished in {} ms: {} created, {} duplicates, {} rejected",
+                (System.nanoTime() - start) / 1_000_000, response.created(), response.duplicates(), response.rejected());
+        if (response.error() != null) {
+            log.error("User import stopped: {}", response.error());
+        }
+        if (args.containsOption(REPORT_OPTION)) {
+            writeReport(Path.of(args.getOptionValues(REPORT_OPTION).getFirst()), response);
+        } else {
+            response.items().stream()
+                    .filter(item -> item.status() != UserImportStatus.CREATED)
+                    .limit(20)
+                    .forEach(item -> log.warn("Item {} ({}): {} {}", item.index(), item.login(), item.status(), item.errors()));
+        }
+        int exitCode = response.error() != null ? 1 : 0;
+        System.exit(SpringApplication.exit(this.context, () -> exitCode));
+    }
+
+    private void writeReport(Path target, UserImportResponseDTO response) {
+        try (SequenceWriter writer = this.jsonMapper.writer().withRootValueSeparator("\n")
+                .writeValues(Files.newOutputStream(target))) {
+            for (UserImportItemResultDTO item : response.items()) {
+                writer.write(item);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("User import report written to {}", target);
+    }
+}
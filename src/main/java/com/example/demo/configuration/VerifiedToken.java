@@ -0,0 +1,27 @@
+package com.example.demo.configuration;
+
+import com.example.demo.domain.enums.UserRole;
+
+import java.time.Instant;
+
+/**
+ * Resultado de um token JWT já verificado (assinatura, emissor e expiração).
+ * * <p>Guardado no cache do {@link TokenService} para que o mesmo token não precise
+ * ser decodificado e ter a assinatura recalculada a cada requisição.</p>
+ *
+ * @param jti O identificador único do token (claim {@code jti}), usado na lista de revogação,
+ *            ou {@code null} em tokens emitidos sem a claim.
+ * @param subject O login do usuário contido no token.
+ * @param userId O id do usuário (claim {@code uid}), ou {@code null} em tokens emitidos sem a claim.
+ * @param role O papel do usuário (claim {@code role}), ou {@code null} em tokens emitidos sem a claim.
+ * @param expiresAt O instante de expiração do token, usado também para expirar a entrada do cache.
+ */
+public record VerifiedToken(String jti, String subject, String userId, UserRole role, Instant expiresAt) {
+
+    /**
+     * Indica se o token carrega as claims necessárias para montar um principal sem consultar o banco.
+     */
+    public boolean hasPrincipalClaims() {
+        return this.userId != null && this.role != null;
+    }
+}
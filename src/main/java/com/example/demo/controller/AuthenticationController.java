@@ -1,56 +1,171 @@
 package com.example.demo.controller;
 
 import com.example.demo.configuration.TokenService;
+import com.example.demo.domain.audit.AuditEventType;
 import com.example.demo.domain.user.AuthenticationDTO;
 import com.example.demo.domain.user.LoginResponseDTO;
+import com.example.demo.domain.user.RefreshTokenDTO;
 import com.example.demo.domain.user.RegisterDTO;
 import com.example.demo.domain.user.User;
+import com.example.demo.domain.user.UserImportResponseDTO;
+import com.example.demo.exception.ServiceOverloadedException;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AuditLogService;
+import com.example.demo.service.AuthorizationService;
+import com.example.demo.service.DatabaseBulkhead;
+import com.example.demo.service.LoginThrottleService;
+import com.example.demo.service.RefreshTokenService;
+import com.example.demo.service.UserImportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/auth")
 public class AuthenticationController {
 
     private final UserRepository userRepository;
+    private final AuthorizationService authorizationService;
     private final TokenService tokenService;
     private final AuthenticationManager authenticationManager;
+    private final PasswordEncoder passwordEncoder;
+    private final LoginThrottleService loginThrottleService;
+    private final RefreshTokenService refreshTokenService;
+    private final UserImportService userImportService;
+    private final DatabaseBulkhead bulkhead;
+    private final AuditLogService auditLog;
+    // tempo do AuthenticationManager (consulta do usuário + BCrypt), por resultado
+    private final Timer authenticateSuccess;
+    private final Timer authenticateFailure;
 
     public AuthenticationController(
             UserRepository userRepository,
+            AuthorizationService authorizationService,
             TokenService tokenService,
-            AuthenticationManager authenticationManager
+            AuthenticationManager authenticationManager,
+            PasswordEncoder passwordEncoder,
+            LoginThrottleService loginThrottleService,
+            RefreshTokenService refreshTokenService,
+            UserImportService userImportService,
+            DatabaseBulkhead bulkhead,
+            AuditLogService auditLog,
+            MeterRegistry meterRegistry
     ) {
         this.userRepository = userRepository;
+        this.authorizationService = authorizationService;
         this.tokenService = tokenService;
         this.authenticationManager = authenticationManager;
+        this.passwordEncoder = passwordEncoder;
+        this.loginThrottleService = loginThrottleService;
+        this.refreshTokenService = refreshTokenService;
+        this.userImportService = userImportService;
+        this.bulkhead = bulkhead;
+        this.auditLog = auditLog;
+        this.authenticateSuccess = authenticateTimer(meterRegistry, "success");
+        this.authenticateFailure = authenticateTimer(meterRegistry, "failure");
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDTO> login(@RequestBody @Valid AuthenticationDTO authDTO) {
+    public ResponseEntity<LoginResponseDTO> login(@RequestBody @Valid AuthenticationDTO authDTO, HttpServletRequest request) {
+        // recusa logins e IPs bloqueados antes de qualquer hashing ou consulta ao banco
+        String clientIp = request.getRemoteAddr();
+        this.loginThrottleService.checkAllowed(authDTO.login(), clientIp);
+
         var usernamePassword = new UsernamePasswordAuthenticationToken(authDTO.login(), authDTO.password());
-        var auth = this.authenticationManager.authenticate(usernamePassword);
-        var token = this.tokenService.generateToken((User) auth.getPrincipal());
-        return ResponseEntity.ok(new LoginResponseDTO(token));
+        Authentication auth;
+        long start = System.nanoTime();
+        try {
+            auth = this.authenticationManager.authenticate(usernamePassword);
+            this.authenticateSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (AuthenticationException e) {
+            // o DaoAuthenticationProvider embrulha a recusa do bulkhead na consulta do usuário: é um 503,
+            // não uma senha errada, e não conta para o bloqueio do login
+            if (e instanceof InternalAuthenticationServiceException && e.getCause() instanceof ServiceOverloadedException overloaded) {
+                throw overloaded;
+            }
+            this.authenticateFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            this.loginThrottleService.recordFailure(authDTO.login(), clientIp);
+            this.auditLog.record(AuditEventType.LOGIN_FAILURE, authDTO.login(), clientIp, e.getClass().getSimpleName());
+            throw e;
+        }
+        this.loginThrottleService.recordSuccess(authDTO.login());
+        this.auditLog.record(AuditEventType.LOGIN_SUCCESS, authDTO.login(), clientIp, null);
+        return ResponseEntity.ok(this.refreshTokenService.issue((User) auth.getPrincipal()));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDTO> refresh(@RequestBody @Valid RefreshTokenDTO refreshDTO) {
+        return ResponseEntity.ok(this.refreshTokenService.refresh(refreshDTO.refreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            @RequestBody(required = false) RefreshTokenDTO refreshDTO
+    ) {
+        var token = authorization.replace("Bearer ", "");
+        this.tokenService.verifyToken(token).ifPresent(verified ->
+                this.refreshTokenService.logout(verified, refreshDTO != null ? refreshDTO.refreshToken() : null));
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/register")
-    public ResponseEntity<User> register(@RequestBody @Valid RegisterDTO registerDTO) {
-        if (this.userRepository.findByLogin(registerDTO.login()).isPresent()) {
+    public ResponseEntity<User> register(@RequestBody @Valid RegisterDTO registerDTO, HttpServletRequest request) {
+        if (this.authorizationService.findByLogin(registerDTO.login()).isPresent()) {
             return ResponseEntity.badRequest().build();
         }
-        String encriptedPassword = new BCryptPasswordEncoder().encode(registerDTO.password());
+        String encriptedPassword = this.passwordEncoder.encode(registerDTO.password());
         User newUser = new User(registerDTO.login(), encriptedPassword, registerDTO.role());
-        User user = this.userRepository.save(newUser);
+        User user = this.bulkhead.call(DatabaseBulkhead.Workload.WRITE, () -> this.userRepository.save(newUser));
+        this.auditLog.record(AuditEventType.REGISTER, user.getLogin(), request.getRemoteAddr(), "role=" + user.getRole());
         return ResponseEntity.ok(user);
     }
 
+    /**
+     * Cadastro em lote de usuários (somente ADMIN), recebido como array JSON ou NDJSON de {@link RegisterDTO}.
+     * * <p>Logins já existentes ou repetidos na carga são informados como {@code DUPLICATE} no resultado
+     * do item, sem interromper a carga.</p>
+     *
+     * @param body O corpo da requisição, lido de forma incremental.
+     * @return Os totais e o resultado de cada item da carga.
+     */
+    @PostMapping(value = "/register/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<UserImportResponseDTO> registerBatch(InputStream body, Principal principal, HttpServletRequest request) {
+        UserImportResponseDTO response = this.userImportService.importUsers(body);
+        this.auditLog.record(AuditEventType.USER_IMPORT, principal.getName(), request.getRemoteAddr(),
+                "created=%d duplicates=%d rejected=%d".formatted(response.created(), response.duplicates(), response.rejected()));
+        if (response.error() != null) {
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    private static Timer authenticateTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.authenticate")
+                .description("Time spent in AuthenticationManager.authenticate on login")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
 }
@@ -0,0 +1,36 @@
+package com.example.demo.controller;
+
+import com.example.demo.configuration.SigningKeySet;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class JwksController {
+
+    private final SigningKeySet signingKeys;
+
+    public JwksController(SigningKeySet signingKeys) {
+        this.signingKeys = signingKeys;
+    }
+
+    /**
+     * Publica as chaves públicas aceitas na verificação dos tokens (RFC 7517).
+     * * <p>Outros serviços podem verificar os tokens localmente, guardando este documento em cache e
+     * buscando-o de novo ao encontrar um {@code kid} desconhecido. Com HMAC a lista é vazia.</p>
+     * * <p>O {@code max-age} é o {@code api.security.token.keys.jwks-max-age}, a mesma antecedência com que a
+     * próxima chave é publicada antes de assinar.</p>
+     *
+     * @return O conjunto de chaves no formato JWKS.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(this.signingKeys.jwksMaxAge()).cachePublic())
+                .body(Map.of("keys", this.signingKeys.publicKeys()));
+    }
+}
@@ -1,37 +1,264 @@
 package com.example.demo.controller;
 
+import com.example.demo.domain.audit.AuditEventType;
 import com.example.demo.domain.product.Product;
+import com.example.demo.domain.product.ProductBatchResponseDTO;
+import com.example.demo.domain.product.ProductChangesResponseDTO;
+import com.example.demo.domain.product.ProductPageResponseDTO;
 import com.example.demo.domain.product.ProductRequestDTO;
 import com.example.demo.domain.product.ProductResponseDTO;
+import com.example.demo.exception.InvalidProductSearchException;
 import com.example.demo.repository.ProductRepository;
+import com.example.demo.service.AuditLogService;
+import com.example.demo.service.DatabaseBulkhead;
+import com.example.demo.service.ProductBatchService;
+import com.example.demo.service.ProductCatalogSnapshot;
+import com.example.demo.service.ProductChangeFeed;
+import com.example.demo.service.ProductExportService;
+import com.example.demo.service.ProductSearchService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.security.Principal;
 import java.util.List;
+import java.util.UUID;
 
 @RestController()
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/product")
 public class ProductController {
 
     private final ProductRepository repository;
+    private final ProductExportService exportService;
+    private final ProductBatchService batchService;
+    private final ProductCatalogSnapshot catalogSnapshot;
+    private final ProductSearchService searchService;
+    private final ProductChangeFeed changeFeed;
+    private final DatabaseBulkhead bulkhead;
+    private final AuditLogService auditLog;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public ProductController(ProductRepository repository) {
+    public ProductController(
+            ProductRepository repository,
+            ProductExportService exportService,
+            ProductBatchService batchService,
+            ProductCatalogSnapshot catalogSnapshot,
+            ProductSearchService searchService,
+            ProductChangeFeed changeFeed,
+            DatabaseBulkhead bulkhead,
+            AuditLogService auditLog,
+            @Value("${api.product.page.default-size:50}") int defaultPageSize,
+            @Value("${api.product.page.max-size:500}") int maxPageSize
+    ) {
         this.repository = repository;
+        this.exportService = exportService;
+        this.batchService = batchService;
+        this.catalogSnapshot = catalogSnapshot;
+        this.searchService = searchService;
+        this.changeFeed = changeFeed;
+        this.bulkhead = bulkhead;
+        this.auditLog = auditLog;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @PostMapping
-    public ResponseEntity<Void> postProduct(@RequestBody @Valid ProductRequestDTO body) {
+    public ResponseEntity<Void> postProduct(@RequestBody @Valid ProductRequestDTO body, Principal principal,
+                                            HttpServletRequest request) {
         Product newProduct = new Product(body);
-        this.repository.save(newProduct);
+        Product product = this.bulkhead.call(DatabaseBulkhead.Workload.WRITE, () -> this.repository.save(newProduct));
+        this.catalogSnapshot.invalidate();
+        this.changeFeed.publish();
+        this.auditLog.record(AuditEventType.PRODUCT_CREATE, principal.getName(), request.getRemoteAddr(), "id=" + product.getId());
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Carga em lote de produtos (somente ADMIN), recebida como array JSON ou NDJSON.
+     * * <p>Os itens são validados e gravados em streaming pelo {@link ProductBatchService}.
+     * A resposta traz o resultado de cada item; o status é 400 apenas quando o corpo não é
+     * um JSON válido ou excede o limite de itens.</p>
+     *
+     * @param body O corpo da requisição, lido de forma incremental.
+     * @return Os totais e o resultado de cada item da carga.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductBatchResponseDTO> postProductBatch(InputStream body, Principal principal,
+                                                                    HttpServletRequest request) {
+        ProductBatchResponseDTO response = this.batchService.ingest(body);
+        if (response.created() > 0) {
+            this.catalogSnapshot.invalidate();
+            this.changeFeed.publish();
+        }
+        this.auditLog.record(AuditEventType.PRODUCT_BATCH, principal.getName(), request.getRemoteAddr(),
+                "created=%d rejected=%d".formatted(response.created(), response.rejected()));
+        if (response.error() != null) {
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Lista todos os produtos a partir do retrato pré-serializado do catálogo.
+     * * <p>O corpo é o mesmo array JSON de sempre, mas vem de {@link ProductCatalogSnapshot}: nenhuma
+     * consulta ou serialização acontece por requisição. A resposta traz um {@code ETag}; clientes que
+     * reenviam o valor em {@code If-None-Match} recebem 304 sem corpo enquanto o catálogo não mudar.
+     * Clientes que aceitam gzip (com peso maior que zero) recebem a versão já comprimida.</p>
+     *
+     * @param acceptEncoding O cabeçalho Accept-Encoding da requisição.
+     * @param webRequest A requisição, usada para comparar o If-None-Match.
+     * @return O catálogo em JSON, ou 304 quando o cliente já possui a versão atual.
+     */
     @GetMapping
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        List<ProductResponseDTO> productList = this.repository.findAll().stream()
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        ProductCatalogSnapshot.Snapshot snapshot = this.catalogSnapshot.current();
+        boolean gzip = snapshot.gzip() != null && ProductCatalogSnapshot.acceptsGzip(acceptEncoding);
+        // cada representação (com e sem gzip) tem o seu próprio ETag
+        String etag = gzip ? snapshot.etag().replaceFirst("\"$", "-gzip\"") : snapshot.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        var response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    /**
+     * Lista os produtos com paginação keyset (cursor no {@code id}).
+     * * <p>Em vez de {@code OFFSET}, cada página continua a partir do último id da página anterior,
+     * o que mantém o custo de cada página constante pelo índice da chave primária.
+     * O cliente repassa o {@code nextCursor} recebido até que ele venha {@code null}.</p>
+     *
+     * @param cursor O {@code nextCursor} da página anterior; ausente na primeira página.
+     * @param size A quantidade de produtos por página, limitada a {@code api.product.page.max-size}.
+     * @return A página de produtos e o cursor da próxima página.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageResponseDTO> getProductPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        int pageSize = Math.clamp(size != null ? size : this.defaultPageSize, 1, this.maxPageSize);
+        // busca um item a mais apenas para saber se existe próxima página
+        Limit limit = Limit.of(pageSize + 1);
+        List<Product> products = this.bulkhead.call(DatabaseBulkhead.Workload.READ, () -> cursor == null || cursor.isBlank()
+                ? this.repository.findAllByOrderByIdAsc(limit)
+                : this.repository.findByIdGreaterThanOrderByIdAsc(parseCursor(cursor), limit));
+
+        boolean hasNext = products.size() > pageSize;
+        List<ProductResponseDTO> items = products.stream()
+                .limit(pageSize)
                 .map(ProductResponseDTO::new)
                 .toList();
-        return ResponseEntity.ok(productList);
+        String nextCursor = hasNext ? items.getLast().id() : null;
+        return ResponseEntity.ok(new ProductPageResponseDTO(items, nextCursor));
+    }
+
+    /**
+     * Busca produtos por nome e faixa de preço, com ordenação e paginação keyset.
+     * * <p>Exemplo: {@code GET /product/search?name=cad&minPrice=100&maxPrice=500&sort=price&direction=desc}.
+     * Assim como em {@code /product/page}, o cliente repassa o {@code nextCursor} (com os mesmos filtros
+     * e ordenação) até que ele venha {@code null}.</p>
+     *
+     * @param name O termo buscado no nome, sem diferenciar maiúsculas.
+     * @param match {@code prefix} (padrão) ou {@code contains}.
+     * @param minPrice O preço mínimo, inclusivo.
+     * @param maxPrice O preço máximo, inclusivo.
+     * @param sort {@code name} (padrão), {@code price} ou {@code id}.
+     * @param direction {@code asc} (padrão) ou {@code desc}.
+     * @param cursor O {@code nextCursor} da página anterior; ausente na primeira página.
+     * @param size A quantidade de produtos por página, limitada a {@code api.product.page.max-size}.
+     * @return A página de produtos e o cursor da próxima página.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ProductPageResponseDTO> searchProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(required = false) Integer minPrice,
+            @RequestParam(required = false) Integer maxPrice,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        var query = this.searchService.query(name, match, minPrice, maxPrice, sort, direction, cursor, size);
+        return ResponseEntity.ok(this.searchService.search(query));
+    }
+
+    /**
+     * Lista as alterações de produtos posteriores a um cursor (sincronização incremental).
+     * * <p>O cliente começa sem {@code since}, o que traz o catálogo inteiro em páginas, e depois repassa o
+     * {@code nextCursor} recebido para buscar apenas o que mudou. Enquanto {@code hasMore} vier {@code true},
+     * já existem mais alterações a buscar. Escritas de transações ainda abertas aparecem em uma chamada seguinte.</p>
+     *
+     * @param since O {@code nextCursor} da chamada anterior.
+     * @param size A quantidade máxima de alterações, limitada a {@code api.product.page.max-size}.
+     * @return As alterações e o cursor da próxima chamada.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesResponseDTO> getProductChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(this.changeFeed.changes(since, size));
+    }
+
+    /**
+     * Stream SSE das alterações de produtos: primeiro o que mudou desde o cursor, depois cada escrita
+     * logo após o commit. Ao reconectar, o cliente envia o id do último evento em {@code Last-Event-ID}.
+     *
+     * @param since O cursor inicial, usado quando não há {@code Last-Event-ID}.
+     * @param lastEventId O id do último evento recebido em uma conexão anterior.
+     * @return O stream de eventos {@code products}, cada um com um array de alterações.
+     */
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return this.changeFeed.subscribe(lastEventId == null || lastEventId.isBlank() ? since : lastEventId);
+    }
+
+    /**
+     * Exporta o catálogo completo em streaming, com memória constante no servidor.
+     *
+     * @return O corpo da resposta escrito de forma incremental pelo {@link ProductExportService}.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = this.exportService::writeCatalog;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static UUID parseCursor(String cursor) {
+        try {
+            return UUID.fromString(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidProductSearchException("Invalid cursor");
+        }
     }
 }
@@ -0,0 +1,169 @@
+package com.example.demo.controller;
+
+import com.example.demo.configuration.TokenService;
+import com.example.demo.domain.audit.AuditEventType;
+import com.example.demo.domain.user.AuthenticationDTO;
+import com.example.demo.domain.user.LoginResponseDTO;
+import com.example.demo.domain.user.RefreshTokenDTO;
+import com.example.demo.domain.user.RegisterDTO;
+import com.example.demo.domain.user.User;
+import com.example.demo.repository.ReactiveUserRepository;
+import com.example.demo.service.AuditLogService;
+import com.example.demo.service.LoginThrottleService;
+import com.example.demo.service.ReactiveAuthorizationService;
+import com.example.demo.service.RefreshTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rotas de autenticação do modo reativo, com o mesmo contrato do {@link AuthenticationController}.
+ * * <p>A consulta do usuário e o cadastro usam R2DBC. O BCrypt continua no pool limitado do
+ * {@code BoundedPasswordEncoder}, aguardado no scheduler próprio do hashing (virtual threads), e a emissão e renovação de refresh tokens (JDBC) rodam no
+ * {@link Schedulers#boundedElastic()}, fora do event loop. A carga em lote de usuários só existe
+ * no modo servlet.</p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/auth")
+public class ReactiveAuthenticationController {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveAuthorizationService authorizationService;
+    private final TokenService tokenService;
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler passwordHashingScheduler;
+    private final LoginThrottleService loginThrottleService;
+    private final RefreshTokenService refreshTokenService;
+    private final AuditLogService auditLog;
+    // tempo do ReactiveAuthenticationManager (consulta do usuário + BCrypt), por resultado
+    private final Timer authenticateSuccess;
+    private final Timer authenticateFailure;
+
+    public ReactiveAuthenticationController(
+            ReactiveUserRepository userRepository,
+            ReactiveAuthorizationService authorizationService,
+            TokenService tokenService,
+            ReactiveAuthenticationManager authenticationManager,
+            PasswordEncoder passwordEncoder,
+            Scheduler passwordHashingScheduler,
+            LoginThrottleService loginThrottleService,
+            RefreshTokenService refreshTokenService,
+            AuditLogService auditLog,
+            MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.authorizationService = authorizationService;
+        this.tokenService = tokenService;
+        this.authenticationManager = authenticationManager;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.loginThrottleService = loginThrottleService;
+        this.refreshTokenService = refreshTokenService;
+        this.auditLog = auditLog;
+        this.authenticateSuccess = authenticateTimer(meterRegistry, "success");
+        this.authenticateFailure = authenticateTimer(meterRegistry, "failure");
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<LoginResponseDTO>> login(@RequestBody @Valid AuthenticationDTO authDTO, ServerHttpRequest request) {
+        // recusa logins e IPs bloqueados antes de qualquer hashing ou consulta ao banco
+        String clientIp = clientIp(request);
+        this.loginThrottleService.checkAllowed(authDTO.login(), clientIp);
+
+        var usernamePassword = new UsernamePasswordAuthenticationToken(authDTO.login(), authDTO.password());
+        long start = System.nanoTime();
+        return this.authenticationManager.authenticate(usernamePassword)
+                .doOnSuccess(auth -> this.authenticateSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .onErrorMap(AuthenticationException.class, e -> {
+                    this.authenticateFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    this.loginThrottleService.recordFailure(authDTO.login(), clientIp);
+                    this.auditLog.record(AuditEventType.LOGIN_FAILURE, authDTO.login(), clientIp, e.getClass().getSimpleName());
+                    // mesmo status do modo servlet, em que o ExceptionTranslationFilter responde 403
+                    return new ResponseStatusException(HttpStatus.FORBIDDEN, null, e);
+                })
+                .publishOn(Schedulers.boundedElastic())
+                .map(auth -> {
+                    this.loginThrottleService.recordSuccess(authDTO.login());
+                    this.auditLog.record(AuditEventType.LOGIN_SUCCESS, authDTO.login(), clientIp, null);
+                    return ResponseEntity.ok(this.refreshTokenService.issue((User) auth.getPrincipal()));
+                });
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<LoginResponseDTO>> refresh(@RequestBody @Valid RefreshTokenDTO refreshDTO) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(this.refreshTokenService.refresh(refreshDTO.refreshToken())))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Void>> logout(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            @RequestBody(required = false) RefreshTokenDTO refreshDTO
+    ) {
+        var token = authorization.replace("Bearer ", "");
+        return Mono.fromRunnable(() -> this.tokenService.verifyToken(token).ifPresent(verified ->
+                        this.refreshTokenService.logout(verified, refreshDTO != null ? refreshDTO.refreshToken() : null)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<User>> register(@RequestBody @Valid RegisterDTO registerDTO, ServerHttpRequest request) {
+        return this.authorizationService.findByUsername(registerDTO.login())
+                .hasElement()
+                .flatMap(exists -> {
+                    if (exists) {
+                        return Mono.just(ResponseEntity.badRequest().<User>build());
+                    }
+                    return Mono.fromCallable(() -> this.passwordEncoder.encode(registerDTO.password()))
+                            .subscribeOn(this.passwordHashingScheduler)
+                            .flatMap(encriptedPassword -> this.userRepository.save(
+                                    new User(registerDTO.login(), encriptedPassword, registerDTO.role())))
+                            // o login pode estar no cache negativo
+                            .doOnSuccess(user -> {
+                                this.authorizationService.evict(registerDTO.login());
+                                this.auditLog.record(AuditEventType.REGISTER, user.getLogin(), clientIp(request),
+                                        "role=" + user.getRole());
+                            })
+                            .map(ResponseEntity::ok)
+                            // cadastro simultâneo do mesmo login
+                            .onErrorReturn(DataIntegrityViolationException.class, ResponseEntity.badRequest().build());
+                });
+    }
+
+    private static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getHostString() : null;
+    }
+
+    private static Timer authenticateTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.authenticate")
+                .description("Time spent in AuthenticationManager.authenticate on login")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.controller;
+
+import com.example.demo.domain.audit.AuditEventType;
+import com.example.demo.domain.product.Product;
+import com.example.demo.domain.product.ProductChangesResponseDTO;
+import com.example.demo.domain.product.ProductPageResponseDTO;
+import com.example.demo.domain.product.ProductRequestDTO;
+import com.example.demo.domain.product.ProductResponseDTO;
+import com.example.demo.exception.InvalidProductSearchException;
+import com.example.demo.repository.ReactiveProductRepository;
+import com.example.demo.service.AuditLogService;
+import com.example.demo.service.ProductCatalogSnapshot;
+import com.example.demo.service.ProductChangeFeed;
+import com.example.demo.service.ProductSearchService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rotas de produtos do modo reativo, com o mesmo contrato do {@link ProductController}.
+ * * <p>A listagem continua vindo do {@link ProductCatalogSnapshot} (com ETag/304) e a busca do
+ * {@link ProductSearchService}; a paginação e o cadastro usam R2DBC. A carga em lote, a exportação em streaming e o
+ * stream SSE de alterações só existem no modo servlet; a consulta de alterações por cursor existe nos dois.</p>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/product")
+public class ReactiveProductController {
+
+    private final ReactiveProductRepository repository;
+    private final ProductCatalogSnapshot catalogSnapshot;
+    private final ProductSearchService searchService;
+    private final ProductChangeFeed changeFeed;
+    private final AuditLogService auditLog;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public ReactiveProductController(
+            ReactiveProductRepository repository,
+            ProductCatalogSnapshot catalogSnapshot,
+            ProductSearchService searchService,
+            ProductChangeFeed changeFeed,
+            AuditLogService auditLog,
+            @Value("${api.product.page.default-size:50}") int defaultPageSize,
+            @Value("${api.product.page.max-size:500}") int maxPageSize
+    ) {
+        this.repository = repository;
+        this.catalogSnapshot = catalogSnapshot;
+        this.searchService = searchService;
+        this.changeFeed = changeFeed;
+        this.auditLog = auditLog;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> postProduct(@RequestBody @Valid ProductRequestDTO body, Principal principal,
+                                                  ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String clientIp = remoteAddress != null ? remoteAddress.getHostString() : null;
+        return this.repository.save(new Product(body))
+                .doOnSuccess(product -> {
+                    this.catalogSnapshot.invalidate();
+                    this.changeFeed.publish();
+                    this.auditLog.record(AuditEventType.PRODUCT_CREATE, principal.getName(), clientIp, "id=" + product.getId());
+                })
+                .thenReturn(ResponseEntity.ok().build());
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            ServerWebExchange exchange
+    ) {
+        // só a primeira chamada, antes do aquecimento do retrato, consulta o banco (JDBC)
+        return Mono.fromCallable(this.catalogSnapshot::current)
+                .subscribeOn(Schedulers.boundedElastic())
+                .mapNotNull(snapshot -> {
+                    boolean gzip = snapshot.gzip() != null && ProductCatalogSnapshot.acceptsGzip(acceptEncoding);
+                    String etag = gzip ? snapshot.etag().replaceFirst("\"$", "-gzip\"") : snapshot.etag();
+                    if (exchange.checkNotModified(etag)) {
+                        return null;
+                    }
+                    var response = ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .cacheControl(CacheControl.noCache())
+                            .eTag(etag)
+                            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+                    if (gzip) {
+                        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+                    }
+                    return response.body(snapshot.json());
+                });
+    }
+
+    @GetMapping("/page")
+    public Mono<ProductPageResponseDTO> getProductPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        int pageSize = Math.clamp(size != null ? size : this.defaultPageSize, 1, this.maxPageSize);
+        // busca um item a mais apenas para saber se existe próxima página
+        return this.repository.findPage(cursor == null || cursor.isBlank() ? null : parseCursor(cursor), pageSize + 1)
+                .map(ProductResponseDTO::new)
+                .collectList()
+                .map(products -> {
+                    boolean hasNext = products.size() > pageSize;
+                    List<ProductResponseDTO> items = hasNext ? products.subList(0, pageSize) : products;
+                    return new ProductPageResponseDTO(items, hasNext ? items.getLast().id() : null);
+                });
+    }
+
+    @GetMapping("/search")
+    public Mono<ProductPageResponseDTO> searchProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(required = false) Integer minPrice,
+            @RequestParam(required = false) Integer maxPrice,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        var query = this.searchService.query(name, match, minPrice, maxPrice, sort, direction, cursor, size);
+        // a busca usa JDBC (ou o índice em memória) e roda fora do event loop
+        return Mono.fromCallable(() -> this.searchService.search(query))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/changes")
+    public Mono<ProductChangesResponseDTO> getProductChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer size
+    ) {
+        return Mono.fromCallable(() -> this.changeFeed.changes(since, size))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static UUID parseCursor(String cursor) {
+        try {
+            return UUID.fromString(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidProductSearchException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.controller;
+
+import com.example.demo.exception.InvalidProductSearchException;
+import com.example.demo.exception.InvalidRefreshTokenException;
+import com.example.demo.exception.ServiceOverloadedException;
+import com.example.demo.exception.TooManyLoginAttemptsException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    /**
+     * Converte a recusa por falta de capacidade em 503, informando ao cliente quando tentar novamente.
+     *
+     * @param e A exceção com o tempo sugerido de espera.
+     * @return Resposta 503 com o cabeçalho Retry-After (em segundos).
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ProblemDetail> handleServiceOverloaded(ServiceOverloadedException e) {
+        long retryAfterSeconds = Math.max(1, e.getRetryAfter().toSeconds());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+
+    /**
+     * Converte o bloqueio por excesso de tentativas de login em 429.
+     *
+     * @param e A exceção com o tempo sugerido de espera.
+     * @return Resposta 429 com o cabeçalho Retry-After (em segundos).
+     */
+    @ExceptionHandler(TooManyLoginAttemptsException.class)
+    public ResponseEntity<ProblemDetail> handleTooManyLoginAttempts(TooManyLoginAttemptsException e) {
+        long retryAfterSeconds = Math.max(1, e.getRetryAfter().toSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage()));
+    }
+
+    /**
+     * Converte um refresh token inválido, expirado, revogado ou reutilizado em 401.
+     *
+     * @param e A exceção lançada na renovação.
+     * @return Resposta 401 sem detalhes sobre o motivo.
+     */
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidRefreshToken(InvalidRefreshTokenException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, e.getMessage()));
+    }
+
+    /**
+     * Converte um parâmetro de busca de produtos inválido em 400.
+     *
+     * @param e A exceção com o parâmetro inválido.
+     * @return Resposta 400 com o motivo.
+     */
+    @ExceptionHandler(InvalidProductSearchException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidProductSearch(InvalidProductSearchException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+}
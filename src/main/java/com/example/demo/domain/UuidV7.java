@@ -0,0 +1,57 @@
+package com.example.demo.domain;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de UUIDs versão 7 (RFC 9562): os 48 bits mais altos são o instante em milissegundos, então ids
+ * gerados em sequência são também crescentes e entram sempre no fim do índice da chave primária.
+ * * <p>Os 12 bits seguintes ({@code rand_a}) funcionam como contador dentro do mesmo milissegundo, o que torna os
+ * ids desta JVM estritamente crescentes; se o contador estoura, o instante avança 1 ms. Os 62 bits finais são
+ * aleatórios. Os ids não são segredos: a parte aleatória evita colisões entre instâncias, não adivinhação.</p>
+ * * <p>Usado pelo Hibernate nas entidades ({@link Generator}) e diretamente nas inserções JDBC e R2DBC.</p>
+ */
+public final class UuidV7 {
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+    private static final int COUNTER_BITS = 12;
+
+    // último instante (ms) deslocado 12 bits, somado ao contador
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    /**
+     * @return Um UUIDv7 maior que todos os anteriores gerados por esta JVM.
+     */
+    public static UUID generate() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        long last;
+        long next;
+        do {
+            last = LAST.get();
+            next = Math.max(now, last + 1);
+        } while (!LAST.compareAndSet(last, next));
+        long mostSignificant = (next >>> COUNTER_BITS) << 16 | VERSION | (next & 0xFFF);
+        long leastSignificant = ThreadLocalRandom.current().nextLong() & RANDOM_MASK | VARIANT;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    /**
+     * Estratégia de {@code @UuidGenerator} das entidades.
+     */
+    public static final class Generator implements UuidValueGenerator {
+
+        @Override
+        public UUID generateUuid(SharedSessionContractImplementor session) {
+            return UuidV7.generate();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.domain.audit;
+
+import java.time.Instant;
+
+/**
+ * Um evento do log de auditoria.
+ *
+ * @param occurredAt O instante em que o evento aconteceu (e não o da gravação, que é assíncrona).
+ * @param type O tipo do evento.
+ * @param login O login envolvido: o informado na tentativa de login, o cadastrado ou o do autor da escrita.
+ * @param clientIp O IP de origem da requisição, quando conhecido.
+ * @param detail Informação complementar (ex: o id do produto criado ou os totais de uma carga), opcional.
+ */
+public record AuditEvent(Instant occurredAt, AuditEventType type, String login, String clientIp, String detail) {
+}
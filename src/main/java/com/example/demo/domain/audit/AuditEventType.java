@@ -0,0 +1,16 @@
+package com.example.demo.domain.audit;
+
+public enum AuditEventType {
+    // login com senha correta
+    LOGIN_SUCCESS,
+    // login recusado pelo AuthenticationManager
+    LOGIN_FAILURE,
+    // cadastro de um usuário
+    REGISTER,
+    // importação em lote de usuários
+    USER_IMPORT,
+    // criação de um produto
+    PRODUCT_CREATE,
+    // carga em lote de produtos
+    PRODUCT_BATCH
+}
@@ -1,15 +1,36 @@
 package com.example.demo.domain.enums;
 
 import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
 
 @Getter
 public enum UserRole {
     ADMIN("admin"),
     USER("user");
 
+    // instâncias compartilhadas: as authorities são imutáveis e consultadas a cada requisição
+    private static final SimpleGrantedAuthority ROLE_ADMIN = new SimpleGrantedAuthority("ROLE_ADMIN");
+    private static final SimpleGrantedAuthority ROLE_USER = new SimpleGrantedAuthority("ROLE_USER");
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES = List.of(ROLE_ADMIN, ROLE_USER);
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(ROLE_USER);
+
     private final String role;
 
     UserRole(String role) {
         this.role = role;
     }
+
+    /**
+     * Retorna as permissões (authorities) concedidas por este papel.
+     * * <p>ADMIN herda as permissões de USER. A lista é pré-alocada e imutável, portanto
+     * pode ser compartilhada entre todas as requisições sem novas alocações.</p>
+     *
+     * @return A lista imutável de authorities do papel.
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        return this == ADMIN ? ADMIN_AUTHORITIES : USER_AUTHORITIES;
+    }
 }
@@ -0,0 +1,10 @@
+package com.example.demo.domain.product;
+
+public enum BatchItemStatus {
+    // item gravado no banco
+    CREATED,
+    // item rejeitado na conversão ou na validação
+    INVALID,
+    // item válido cujo lote falhou ao gravar no banco
+    FAILED
+}
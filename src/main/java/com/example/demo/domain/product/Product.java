@@ -1,10 +1,14 @@
 package com.example.demo.domain.product;
 
+import com.example.demo.domain.UuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.util.UUID;
 
 @Table(name = "products")
 @Entity(name = "products")
@@ -14,8 +18,8 @@ import lombok.NoArgsConstructor;
 @EqualsAndHashCode(of = "id")
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @UuidGenerator(algorithm = UuidV7.Generator.class)
+    private UUID id;
 
     private String name;
     private Integer price;
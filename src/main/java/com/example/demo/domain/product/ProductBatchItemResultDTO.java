@@ -0,0 +1,6 @@
+package com.example.demo.domain.product;
+
+import java.util.List;
+
+public record ProductBatchItemResultDTO(int index, BatchItemStatus status, String id, List<String> errors) {
+}
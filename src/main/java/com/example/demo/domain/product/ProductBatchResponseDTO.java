@@ -0,0 +1,6 @@
+package com.example.demo.domain.product;
+
+import java.util.List;
+
+public record ProductBatchResponseDTO(int created, int rejected, List<ProductBatchItemResultDTO> items, String error) {
+}
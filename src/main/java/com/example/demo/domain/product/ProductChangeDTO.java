@@ -0,0 +1,15 @@
+package com.example.demo.domain.product;
+
+import java.time.Instant;
+
+/**
+ * Um produto como ficou depois de uma escrita, com a versão em que a escrita aconteceu.
+ *
+ * @param id O id do produto.
+ * @param name O nome.
+ * @param price O preço.
+ * @param version A versão da escrita, crescente em toda a tabela.
+ * @param updatedAt O instante da escrita.
+ */
+public record ProductChangeDTO(String id, String name, Integer price, long version, Instant updatedAt) {
+}
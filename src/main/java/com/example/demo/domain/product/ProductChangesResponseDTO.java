@@ -0,0 +1,6 @@
+package com.example.demo.domain.product;
+
+import java.util.List;
+
+public record ProductChangesResponseDTO(List<ProductChangeDTO> changes, String nextCursor, boolean hasMore) {
+}
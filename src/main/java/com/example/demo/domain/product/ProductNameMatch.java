@@ -0,0 +1,8 @@
+package com.example.demo.domain.product;
+
+public enum ProductNameMatch {
+    // nome começa com o termo (índice B-tree em lower(name))
+    PREFIX,
+    // nome contém o termo (índice de trigramas)
+    CONTAINS
+}
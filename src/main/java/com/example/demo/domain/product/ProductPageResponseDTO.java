@@ -0,0 +1,6 @@
+package com.example.demo.domain.product;
+
+import java.util.List;
+
+public record ProductPageResponseDTO(List<ProductResponseDTO> items, String nextCursor) {
+}
@@ -2,6 +2,6 @@ package com.example.demo.domain.product;
 
 public record ProductResponseDTO(String id, String name, Integer price) {
     public ProductResponseDTO(Product product) {
-        this(product.getId(), product.getName(), product.getPrice());
+        this(product.getId().toString(), product.getName(), product.getPrice());
     }
 }
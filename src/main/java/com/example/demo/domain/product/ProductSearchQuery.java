@@ -0,0 +1,34 @@
+package com.example.demo.domain.product;
+
+import java.util.Locale;
+
+/**
+ * Critérios de uma busca de produtos ({@code GET /product/search}).
+ * * <p>O termo de nome é comparado sem diferenciar maiúsculas. Os limites de preço são inclusivos.
+ * A ordenação sempre desempata pelo {@code id}, o que mantém o cursor keyset estável.</p>
+ *
+ * @param name O termo buscado no nome, ou {@code null} para não filtrar por nome.
+ * @param match Como o termo é comparado com o nome.
+ * @param minPrice O preço mínimo, ou {@code null}.
+ * @param maxPrice O preço máximo, ou {@code null}.
+ * @param sort O campo de ordenação.
+ * @param descending Se a ordenação é decrescente.
+ * @param cursor O {@code nextCursor} da página anterior, ou {@code null} na primeira página.
+ * @param size A quantidade de produtos por página.
+ */
+public record ProductSearchQuery(
+        String name,
+        ProductNameMatch match,
+        Integer minPrice,
+        Integer maxPrice,
+        ProductSortField sort,
+        boolean descending,
+        String cursor,
+        int size
+) {
+
+    public ProductSearchQuery {
+        name = name == null || name.isBlank() ? null : name.toLowerCase(Locale.ROOT);
+        cursor = cursor == null || cursor.isBlank() ? null : cursor;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.domain.product;
+
+public enum ProductSortField {
+    ID,
+    NAME,
+    PRICE
+}
@@ -1,6 +1,7 @@
 package com.example.demo.domain.user;
 
 public record LoginResponseDTO(
-        String token
+        String token,
+        String refreshToken
 ) {
 }
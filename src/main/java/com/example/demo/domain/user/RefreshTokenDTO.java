@@ -0,0 +1,8 @@
+package com.example.demo.domain.user;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenDTO(
+        @NotBlank String refreshToken
+) {
+}
@@ -0,0 +1,28 @@
+package com.example.demo.domain.user;
+
+import com.example.demo.domain.enums.UserRole;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Principal leve construído apenas a partir das claims de um token JWT verificado.
+ * * <p>Usado no modo stateless do {@code SecurityFilter}, em que o usuário não é buscado
+ * no banco a cada requisição: o id, o login e o papel viajam dentro do próprio token.</p>
+ *
+ * @param id O id do usuário (claim {@code uid}).
+ * @param login O login do usuário (subject do token).
+ * @param role O papel do usuário (claim {@code role}).
+ */
+public record TokenPrincipal(String id, String login, UserRole role) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return this.login;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return this.role.getAuthorities();
+    }
+}
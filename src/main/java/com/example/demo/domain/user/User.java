@@ -1,17 +1,19 @@
 package com.example.demo.domain.user;
 
+import com.example.demo.domain.UuidV7;
 import com.example.demo.domain.enums.UserRole;
+import com.example.demo.service.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.List;
+import java.util.UUID;
 
 @Getter
 @NoArgsConstructor
@@ -19,11 +21,12 @@ import java.util.List;
 @EqualsAndHashCode(of = "id")
 @Entity(name = "users")
 @Table(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @UuidGenerator(algorithm = UuidV7.Generator.class)
+    private UUID id;
     private String login;
     private String password;
 
@@ -36,12 +39,19 @@ public class User implements UserDetails {
         this.role = role;
     }
 
+    /**
+     * Cópia deste usuário com um novo hash de senha (usada na atualização transparente do hash).
+     */
+    public User withPassword(String encriptedPassword) {
+        return new User(this.id, this.login, encriptedPassword, this.role);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         if (this.role == UserRole.ADMIN) {
-            return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER"));
+            return UserRole.ADMIN.getAuthorities();
         }
-        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return UserRole.USER.getAuthorities();
     }
 
     @Override
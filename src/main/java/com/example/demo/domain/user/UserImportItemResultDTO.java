@@ -0,0 +1,6 @@
+package com.example.demo.domain.user;
+
+import java.util.List;
+
+public record UserImportItemResultDTO(int index, String login, UserImportStatus status, List<String> errors) {
+}
@@ -0,0 +1,6 @@
+package com.example.demo.domain.user;
+
+import java.util.List;
+
+public record UserImportResponseDTO(int created, int duplicates, int rejected, List<UserImportItemResultDTO> items, String error) {
+}
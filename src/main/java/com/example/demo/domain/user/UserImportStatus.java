@@ -0,0 +1,12 @@
+package com.example.demo.domain.user;
+
+public enum UserImportStatus {
+    // usuário gravado no banco
+    CREATED,
+    // login já existente no banco ou repetido na própria carga
+    DUPLICATE,
+    // item rejeitado na conversão ou na validação
+    INVALID,
+    // item válido cujo lote falhou ao gravar no banco
+    FAILED
+}
@@ -0,0 +1,12 @@
+package com.example.demo.exception;
+
+/**
+ * Indica um parâmetro de busca de produtos inválido (ordenação, faixa de preço ou cursor).
+ * É convertida em 400.
+ */
+public class InvalidProductSearchException extends RuntimeException {
+
+    public InvalidProductSearchException(String message) {
+        super(message);
+    }
+}
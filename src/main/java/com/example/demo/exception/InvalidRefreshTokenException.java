@@ -0,0 +1,12 @@
+package com.example.demo.exception;
+
+/**
+ * Indica um refresh token inexistente, expirado, revogado ou já utilizado.
+ * É convertida em 401.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException() {
+        super("Invalid refresh token");
+    }
+}
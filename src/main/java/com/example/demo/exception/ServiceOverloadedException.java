@@ -0,0 +1,20 @@
+package com.example.demo.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Indica que um recurso limitado (ex: o pool de hashing de senhas) está saturado e que a
+ * requisição foi recusada em vez de enfileirada. É convertida em 503 com o cabeçalho Retry-After.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Indica que o login ou o IP de origem excedeu o limite de tentativas de login com falha.
+ * É convertida em 429 com o cabeçalho Retry-After.
+ */
+@Getter
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyLoginAttemptsException(Duration retryAfter) {
+        super("Too many failed login attempts");
+        this.retryAfter = retryAfter;
+    }
+}
@@ -1,7 +1,20 @@
 package com.example.demo.repository;
 
 import com.example.demo.domain.product.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ProductRepository extends JpaRepository<Product, UUID> {
+
+    // paginação keyset: primeira página e páginas seguintes a partir do último id retornado
+    @Transactional(readOnly = true)
+    List<Product> findAllByOrderByIdAsc(Limit limit);
+
+    @Transactional(readOnly = true)
+    List<Product> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
 
-public interface ProductRepository extends JpaRepository<Product, String> {
 }
@@ -0,0 +1,57 @@
+package com.example.demo.repository;
+
+import com.example.demo.domain.UuidV7;
+import com.example.demo.domain.product.Product;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Acesso não bloqueante (R2DBC) à tabela {@code products}, usado no modo reativo no lugar do {@link ProductRepository}.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductRepository {
+
+    private static final String SELECT_FIRST_PAGE = "SELECT id, name, price FROM products ORDER BY id LIMIT $1";
+    private static final String SELECT_PAGE_AFTER = "SELECT id, name, price FROM products WHERE id > $1 ORDER BY id LIMIT $2";
+    private static final String INSERT_PRODUCT = "INSERT INTO products (id, name, price) VALUES ($1, $2, $3)";
+
+    private final DatabaseClient client;
+
+    public ReactiveProductRepository(ConnectionFactory connectionFactory) {
+        this.client = DatabaseClient.create(connectionFactory);
+    }
+
+    // paginação keyset: primeira página (cursor nulo) e páginas seguintes a partir do último id retornado
+    public Flux<Product> findPage(UUID cursor, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = cursor == null
+                ? this.client.sql(SELECT_FIRST_PAGE).bind(0, limit)
+                : this.client.sql(SELECT_PAGE_AFTER).bind(0, cursor).bind(1, limit);
+        return spec.map(ReactiveProductRepository::toProduct).all();
+    }
+
+    public Mono<Product> save(Product product) {
+        var saved = new Product(UuidV7.generate(), product.getName(), product.getPrice());
+        return this.client.sql(INSERT_PRODUCT)
+                .bind(0, saved.getId())
+                .bind(1, saved.getName())
+                .bind(2, saved.getPrice())
+                .then()
+                .thenReturn(saved);
+    }
+
+    private static Product toProduct(Readable row) {
+        return new Product(
+                row.get("id", UUID.class),
+                row.get("name", String.class),
+                row.get("price", Integer.class)
+        );
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.repository;
+
+import com.example.demo.domain.UuidV7;
+import com.example.demo.domain.enums.UserRole;
+import com.example.demo.domain.user.User;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Acesso não bloqueante (R2DBC) à tabela {@code users}, usado no modo reativo no lugar do {@link UserRepository}.
+ * * <p>As consultas são as mesmas geradas pelo JPA; os ids continuam sendo UUIDv7 gerados na aplicação.</p>
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository {
+
+    private static final String SELECT_BY_LOGIN = "SELECT id, login, password, role FROM users WHERE login = $1";
+    private static final String INSERT_USER = "INSERT INTO users (id, login, password, role) VALUES ($1, $2, $3, $4)";
+    private static final String UPDATE_PASSWORD = "UPDATE users SET password = $1 WHERE login = $2";
+
+    private final DatabaseClient client;
+
+    public ReactiveUserRepository(ConnectionFactory connectionFactory) {
+        this.client = DatabaseClient.create(connectionFactory);
+    }
+
+    public Mono<User> findByLogin(String login) {
+        return this.client.sql(SELECT_BY_LOGIN)
+                .bind(0, login)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<User> save(User user) {
+        var saved = new User(UuidV7.generate(), user.getLogin(), user.getPassword(), user.getRole());
+        return this.client.sql(INSERT_USER)
+                .bind(0, saved.getId())
+                .bind(1, saved.getLogin())
+                .bind(2, saved.getPassword())
+                .bind(3, saved.getRole().name())
+                .then()
+                .thenReturn(saved);
+    }
+
+    public Mono<Long> updatePassword(String login, String password) {
+        return this.client.sql(UPDATE_PASSWORD)
+                .bind(0, password)
+                .bind(1, login)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static User toUser(Readable row) {
+        return new User(
+                row.get("id", UUID.class),
+                row.get("login", String.class),
+                row.get("password", String.class),
+                UserRole.valueOf(row.get("role", String.class))
+        );
+    }
+}
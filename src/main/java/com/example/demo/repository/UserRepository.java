@@ -2,14 +2,27 @@ package com.example.demo.repository;
 
 import com.example.demo.domain.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, UUID> {
 
+    // consultado a cada requisição autenticada: com réplicas configuradas, vai para uma réplica
+    // (o AuthorizationService, que guarda o resultado em cache, consulta o primário)
+    @Transactional(readOnly = true)
     Optional<UserDetails> findByLogin(String login);
 
+    @Transactional
+    @Modifying
+    @Query("UPDATE users u SET u.password = :password WHERE u.login = :login")
+    int updatePassword(@Param("login") String login, @Param("password") String password);
+
 }
@@ -0,0 +1,245 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.audit.AuditEvent;
+import com.example.demo.domain.audit.AuditEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log de auditoria assíncrono: logins, falhas de login, cadastros e escritas de produtos.
+ * * <p>{@link #record} não acessa o banco: o evento vai para uma {@link BoundedMpscQueue} e a requisição segue.
+ * Uma única thread de escrita esvazia a fila e grava os eventos na tabela {@code audit_events} em lotes JDBC,
+ * quando o lote atinge {@code api.audit.batch-size} ou quando o evento mais antigo do lote espera
+ * {@code api.audit.flush-interval}, o que acontecer primeiro.</p>
+ * * <p>Com a fila cheia, o comportamento segue {@code api.audit.overflow-policy}:</p>
+ * <ul>
+ * <li><b>drop</b> (padrão): o evento é descartado na hora e contado em {@code audit.events{outcome=dropped}};
+ * a latência das requisições não depende do banco.</li>
+ * <li><b>block</b>: a requisição acorda a thread de escrita e espera até {@code api.audit.block-timeout} por
+ * espaço na fila; só então descarta o evento. Perde-se menos eventos em picos, ao custo de latência.</li>
+ * </ul>
+ * * <p>A memória ocupada fica limitada à capacidade da fila mais um lote em montagem.</p>
+ * * <p>No encerramento da aplicação, depois que o servidor web parou de aceitar requisições, a thread de escrita
+ * grava o que restou na fila (até {@code api.audit.shutdown-timeout}). Um lote que falha ao gravar é descartado
+ * e contado em {@code audit.events{outcome=failed}}, para que um banco fora do ar não acumule memória.</p>
+ */
+@Slf4j
+@Service
+public class AuditLogService implements SmartLifecycle {
+
+    /**
+     * O que fazer com um evento quando a fila está cheia.
+     */
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO audit_events (occurred_at, event_type, login, client_ip, detail) VALUES (?, ?, ?, ?, ?)";
+    // intervalo entre as tentativas de um produtor bloqueado
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    // para depois do servidor web (graceful shutdown), que ainda pode registrar eventos
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final BoundedMpscQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final Duration shutdownTimeout;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer flushTimer;
+    private final DistributionSummary flushSize;
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public AuditLogService(
+            @Value("${api.audit.enabled:true}") boolean enabled,
+            @Value("${api.audit.queue-capacity:16384}") int queueCapacity,
+            @Value("${api.audit.batch-size:500}") int batchSize,
+            @Value("${api.audit.flush-interval:1s}") Duration flushInterval,
+            @Value("${api.audit.overflow-policy:drop}") String overflowPolicy,
+            @Value("${api.audit.block-timeout:100ms}") Duration blockTimeout,
+            @Value("${api.audit.shutdown-timeout:10s}") Duration shutdownTimeout,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new BoundedMpscQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.written = eventsCounter(meterRegistry, "written");
+        this.dropped = eventsCounter(meterRegistry, "dropped");
+        this.failed = eventsCounter(meterRegistry, "failed");
+        this.flushTimer = Timer.builder("audit.flush")
+                .description("Time to write one batch of audit events")
+                .register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("audit.flush.size")
+                .description("Audit events written per batch")
+                .register(meterRegistry);
+        Gauge.builder("audit.queue.depth", this.queue, BoundedMpscQueue::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("audit.queue.capacity", this.queue, BoundedMpscQueue::capacity)
+                .description("Maximum audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra um evento de auditoria sem bloquear (exceto com a política {@code block} e a fila cheia).
+     *
+     * @param type O tipo do evento.
+     * @param login O login envolvido.
+     * @param clientIp O IP de origem, se conhecido.
+     * @param detail Informação complementar, opcional.
+     */
+    public void record(AuditEventType type, String login, String clientIp, String detail) {
+        if (!this.enabled) {
+            return;
+        }
+        var event = new AuditEvent(Instant.now(), type, login, clientIp, detail);
+        if (this.running && (this.queue.offer(event) || offerBlocking(event))) {
+            // lote completo: não espera o intervalo
+            if (this.queue.size() >= this.batchSize) {
+                LockSupport.unpark(this.writer);
+            }
+            return;
+        }
+        this.dropped.increment();
+    }
+
+    @Override
+    public void start() {
+        if (!this.enabled || this.running) {
+            return;
+        }
+        this.running = true;
+        this.writer = Thread.ofVirtual().name("audit-writer").start(this::writeLoop);
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = this.writer;
+        if (!this.running || thread == null) {
+            return;
+        }
+        this.running = false;
+        LockSupport.unpark(thread);
+        try {
+            if (!thread.join(this.shutdownTimeout)) {
+                log.warn("Audit log not fully written before shutdown, {} events lost", this.queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private boolean offerBlocking(AuditEvent event) {
+        if (this.overflowPolicy != OverflowPolicy.BLOCK) {
+            return false;
+        }
+        long deadline = System.nanoTime() + this.blockTimeoutNanos;
+        do {
+            LockSupport.unpark(this.writer);
+            LockSupport.parkNanos(this, BLOCKED_PARK_NANOS);
+            if (this.queue.offer(event)) {
+                return true;
+            }
+        } while (this.running && System.nanoTime() - deadline < 0);
+        return false;
+    }
+
+    private void writeLoop() {
+        var batch = new ArrayList<AuditEvent>(this.batchSize);
+        long oldestEventAt = 0;
+        while (true) {
+            // lido antes de esvaziar a fila: ao parar, tudo o que já estava nela é gravado
+            boolean stopping = !this.running;
+            AuditEvent event;
+            while (batch.size() < this.batchSize && (event = this.queue.poll()) != null) {
+                if (batch.isEmpty()) {
+                    oldestEventAt = System.nanoTime();
+                }
+                batch.add(event);
+            }
+            if (!batch.isEmpty() && (batch.size() >= this.batchSize || stopping
+                    || System.nanoTime() - oldestEventAt >= this.flushIntervalNanos)) {
+                flush(batch);
+                batch.clear();
+                continue;
+            }
+            if (stopping) {
+                return;
+            }
+            long wait = batch.isEmpty()
+                    ? this.flushIntervalNanos
+                    : this.flushIntervalNanos - (System.nanoTime() - oldestEventAt);
+            LockSupport.parkNanos(this, Math.max(wait, 1));
+        }
+    }
+
+    private void flush(List<AuditEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            this.jdbcTemplate.batchUpdate(INSERT_EVENT, batch, batch.size(), (statement, event) -> {
+                statement.setObject(1, OffsetDateTime.ofInstant(event.occurredAt(), ZoneOffset.UTC));
+                statement.setString(2, event.type().name());
+                statement.setString(3, event.login());
+                statement.setString(4, event.clientIp());
+                statement.setString(5, event.detail());
+            });
+            this.written.increment(batch.size());
+        } catch (DataAccessException e) {
+            this.failed.increment(batch.size());
+            log.warn("Failed to write {} audit events: {}", batch.size(), e.getMessage());
+        } finally {
+            this.flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            this.flushSize.record(batch.size());
+        }
+    }
+
+    private static Counter eventsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("audit.events")
+                .description("Audit events by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
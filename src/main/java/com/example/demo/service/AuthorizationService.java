@@ -1,28 +1,156 @@
 package com.example.demo.service;
 
+import com.example.demo.configuration.ReplicaRoutingDataSource;
+import com.example.demo.domain.user.User;
 import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
 
 @Service
-public class AuthorizationService implements UserDetailsService {
+public class AuthorizationService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository repository;
+    private final DatabaseBulkhead bulkhead;
+    // login -> usuário (Optional.empty() guarda o cache negativo de logins inexistentes)
+    private final AsyncLoadingCache<String, Optional<UserDetails>> users;
 
-    public AuthorizationService(UserRepository repository) {
+    public AuthorizationService(
+            UserRepository repository,
+            DatabaseBulkhead bulkhead,
+            @Value("${api.security.user-cache.max-size:10000}") long maxSize,
+            @Value("${api.security.user-cache.ttl:5m}") Duration ttl,
+            @Value("${api.security.user-cache.negative-ttl:30s}") Duration negativeTtl,
+            MeterRegistry meterRegistry
+    ) {
         this.repository = repository;
+        this.bulkhead = bulkhead;
+        // cache assíncrono: requisições concorrentes pelo mesmo login aguardam o mesmo future (single-flight)
+        // e a consulta roda fora do lock do mapa, sem prender o carrier das virtual threads; só a consulta
+        // ocupa uma permissão do bulkhead, não cada requisição que espera por ela
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PositiveNegativeExpiry(ttl, negativeTtl))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .recordStats()
+                .buildAsync(login -> this.bulkhead.call(DatabaseBulkhead.Workload.AUTH, () -> load(login)));
+        CaffeineCacheMetrics.monitor(meterRegistry, this.users, "auth.user.cache");
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<UserDetails> optional = repository.findByLogin(username);
+        Optional<UserDetails> optional = findByLogin(username);
         if (optional.isEmpty()) {
             throw new UsernameNotFoundException("User not found");
         }
         return optional.get();
     }
+
+    /**
+     * Regrava o hash da senha de um usuário após um login bem-sucedido.
+     * * <p>Chamado pelo {@code DaoAuthenticationProvider} quando o {@code PasswordEncoder} indica que o
+     * hash armazenado está desatualizado (sem prefixo de algoritmo ou com custo menor que o configurado).
+     * A senha em texto puro só está disponível no login, por isso a atualização acontece nesse momento.</p>
+     *
+     * @param user O usuário autenticado.
+     * @param newPassword O novo hash, já codificado com os parâmetros atuais.
+     * @return O usuário com o hash atualizado.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        this.bulkhead.call(DatabaseBulkhead.Workload.AUTH, () -> this.repository.updatePassword(user.getUsername(), newPassword));
+        // o UPDATE em JPQL não dispara os listeners da entidade
+        evict(user.getUsername());
+        if (user instanceof User entity) {
+            return entity.withPassword(newPassword);
+        }
+        return user;
+    }
+
+    /**
+     * Busca um usuário pelo login passando pelo cache.
+     * * <p>O cache é limitado por tamanho e por tempo de vida. Consultas simultâneas para o mesmo
+     * login que não estejam no cache resultam em uma única consulta ao banco. Logins inexistentes
+     * também ficam em cache por um tempo menor ({@code api.security.user-cache.negative-ttl}),
+     * o que reduz o custo de ataques de credential stuffing com logins aleatórios.</p>
+     * * <p>A consulta ao banco passa pelo {@link DatabaseBulkhead} (classe {@code auth}) na thread do carregamento:
+     * requisições que aguardam a mesma consulta não ocupam permissões. Quem já possui uma permissão (ex: a
+     * renovação do refresh token) consulta na própria thread, sem disputar a fila de novo, e o resultado não
+     * entra no cache.</p>
+     *
+     * @param login O login do usuário.
+     * @return O usuário encontrado, ou vazio caso o login não exista.
+     */
+    public Optional<UserDetails> findByLogin(String login) {
+        try {
+            var cached = this.users.getIfPresent(login);
+            if (cached != null) {
+                return cached.join();
+            }
+            if (this.bulkhead.holdsPermit()) {
+                return load(login);
+            }
+            return this.users.get(login).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Consulta o usuário sempre no primário. O carregamento roda em outra thread, onde o
+     * {@link com.example.demo.configuration.ReplicaStickiness} não enxerga a requisição, e o resultado (inclusive
+     * o negativo) é compartilhado por todos os clientes: um login logo após o cadastro não pode ler de uma réplica
+     * atrasada e deixar o login como inexistente no cache.
+     */
+    private Optional<UserDetails> load(String login) {
+        return ReplicaRoutingDataSource.callOnPrimary(() -> this.repository.findByLogin(login));
+    }
+
+    /**
+     * Remove um login do cache. Deve ser chamado sempre que o usuário for salvo,
+     * tiver a senha ou o papel alterados, ou for removido.
+     *
+     * @param login O login do usuário alterado.
+     */
+    public void evict(String login) {
+        this.users.synchronous().invalidate(login);
+    }
+
+    /**
+     * Usuários existentes ficam em cache pelo ttl configurado; logins inexistentes pelo ttl negativo.
+     */
+    record PositiveNegativeExpiry(Duration ttl, Duration negativeTtl)
+            implements Expiry<String, Optional<UserDetails>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<UserDetails> value, long currentTime) {
+            return value.isPresent() ? this.ttl.toNanos() : this.negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<UserDetails> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<UserDetails> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para strings, seguro para uso concorrente sem locks.
+ * * <p>Responde "talvez contenha" ou "certamente não contém". Inserções só ligam bits (um
+ * {@code getAndAccumulate} por bit), então leituras concorrentes nunca veem um estado que gere
+ * falso negativo. Não há remoção: o filtro é reconstruído quando os elementos expiram.</p>
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashFunctions;
+
+    private BloomFilter(long bits, int hashFunctions) {
+        this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+        this.bits = (long) this.words.length() << 6;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Cria um filtro dimensionado para a quantidade esperada de elementos e a taxa de falsos positivos.
+     *
+     * @param expectedInsertions A quantidade de elementos esperada.
+     * @param falsePositiveRate A taxa de falsos positivos desejada com essa quantidade, entre 0 e 1.
+     * @return Um filtro vazio.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashFunctions = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilter(bits, hashFunctions);
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < this.hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, this.bits);
+            long mask = 1L << bit;
+            this.words.getAndAccumulate((int) (bit >>> 6), mask, (current, m) -> current | m);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < this.hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, this.bits);
+            if ((this.words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a de 64 bits seguido do finalizador do MurmurHash3, para espalhar bem jtis parecidos
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE1A85EC2L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
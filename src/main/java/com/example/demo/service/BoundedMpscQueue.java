@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fila limitada sem locks para vários produtores e um único consumidor.
+ * * <p>Um array circular de tamanho fixo (potência de 2) em que cada posição tem um número de sequência.
+ * O produtor reserva uma posição com um CAS no contador de escrita e publica o elemento avançando a
+ * sequência da posição; o consumidor só lê posições já publicadas e as libera para a próxima volta.
+ * Com a fila cheia, {@link #offer(Object)} retorna {@code false} na hora, sem esperar e sem alocar.</p>
+ * * <p>{@link #poll()} deve ser chamado sempre pela mesma thread.</p>
+ */
+public final class BoundedMpscQueue<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public BoundedMpscQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Insere um elemento no fim da fila.
+     *
+     * @param element O elemento, não nulo.
+     * @return {@code false} se a fila estiver cheia.
+     */
+    public boolean offer(E element) {
+        long position = this.tail.get();
+        while (true) {
+            int slot = (int) (position & this.mask);
+            long difference = this.sequences.get(slot) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.elements.set(slot, element);
+                    this.sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = this.tail.get();
+            } else if (difference < 0) {
+                // a posição ainda guarda o elemento de uma volta anterior: fila cheia
+                return false;
+            } else {
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Remove o elemento do início da fila (somente pela thread consumidora).
+     *
+     * @return O elemento, ou {@code null} se a fila estiver vazia.
+     */
+    public E poll() {
+        long position = this.head.get();
+        int slot = (int) (position & this.mask);
+        // o produtor reservou a posição mas ainda não publicou: tratado como vazio
+        if (this.sequences.get(slot) != position + 1) {
+            return null;
+        }
+        E element = this.elements.get(slot);
+        this.elements.set(slot, null);
+        this.sequences.set(slot, position + capacity());
+        this.head.set(position + 1);
+        return element;
+    }
+
+    /**
+     * @return A quantidade aproximada de elementos na fila.
+     */
+    public int size() {
+        long size = this.tail.get() - this.head.get();
+        return Math.clamp(size, 0, capacity());
+    }
+
+    public int capacity() {
+        return this.mask + 1;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limita o acesso concorrente ao banco por classe de carga (consulta de autenticação, leitura e escrita de produtos).
+ * * <p>Com virtual threads o Tomcat aceita praticamente qualquer quantidade de requisições simultâneas, e todas
+ * disputam o mesmo pool do Hikari. Sob carga, a fila do pool cresce até o {@code connectionTimeout} e todas as
+ * rotas degradam juntas. Aqui cada classe tem um {@link Semaphore} justo (FIFO) com no máximo {@code permits}
+ * acessos simultâneos, de modo que uma rajada de escritas não consome as conexões das consultas de autenticação.
+ * A soma das permissões deve ficar abaixo de {@code spring.datasource.hikari.maximum-pool-size}, deixando
+ * conexões para as rotinas agendadas.</p>
+ * * <p>Uma requisição espera no máximo {@code max-wait} por uma permissão e é recusada na hora quando já existem
+ * {@code max-queue} requisições na fila da classe. Em ambos os casos a recusa é uma
+ * {@link ServiceOverloadedException} (503 com Retry-After), em vez de uma conexão que expira no pool.</p>
+ * * <p>A permissão é reentrante por thread: chamadas aninhadas (ex: a consulta do usuário dentro da transação
+ * de renovação do refresh token) reaproveitam a permissão já obtida, sem disputar a fila de novo.</p>
+ * * <p>Métricas, por classe ({@code workload}): {@code db.bulkhead.wait} (tempo de espera, por resultado
+ * {@code acquired}, {@code timeout} ou {@code rejected}), {@code db.bulkhead.queue} (requisições na fila) e
+ * {@code db.bulkhead.active} (permissões em uso).</p>
+ */
+@Service
+public class DatabaseBulkhead {
+
+    /**
+     * Classe de carga de um acesso ao banco; cada uma tem as suas próprias permissões e fila.
+     */
+    public enum Workload {
+        /** Consultas de usuário e tokens no caminho da autenticação (filtro, login, refresh, logout). */
+        AUTH,
+        /** Leituras de produtos (paginação, busca, exportação e reconstrução do catálogo). */
+        READ,
+        /** Escritas de produtos e usuários (cadastro e cargas em lote). */
+        WRITE;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final boolean enabled;
+    private final Duration retryAfter;
+    private final Map<Workload, Compartment> compartments = new EnumMap<>(Workload.class);
+    // a thread já possui uma permissão (qualquer classe)
+    private final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    public DatabaseBulkhead(
+            @Value("${api.database.bulkhead.enabled:true}") boolean enabled,
+            @Value("${api.database.bulkhead.retry-after:1s}") Duration retryAfter,
+            @Value("${api.database.bulkhead.auth.permits:4}") int authPermits,
+            @Value("${api.database.bulkhead.auth.max-wait:200ms}") Duration authMaxWait,
+            @Value("${api.database.bulkhead.auth.max-queue:200}") int authMaxQueue,
+            @Value("${api.database.bulkhead.read.permits:4}") int readPermits,
+            @Value("${api.database.bulkhead.read.max-wait:500ms}") Duration readMaxWait,
+            @Value("${api.database.bulkhead.read.max-queue:200}") int readMaxQueue,
+            @Value("${api.database.bulkhead.write.permits:2}") int writePermits,
+            @Value("${api.database.bulkhead.write.max-wait:1s}") Duration writeMaxWait,
+            @Value("${api.database.bulkhead.write.max-queue:50}") int writeMaxQueue,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.retryAfter = retryAfter;
+        this.compartments.put(Workload.AUTH, new Compartment(Workload.AUTH, authPermits, authMaxWait, authMaxQueue, meterRegistry));
+        this.compartments.put(Workload.READ, new Compartment(Workload.READ, readPermits, readMaxWait, readMaxQueue, meterRegistry));
+        this.compartments.put(Workload.WRITE, new Compartment(Workload.WRITE, writePermits, writeMaxWait, writeMaxQueue, meterRegistry));
+    }
+
+    /**
+     * Executa um acesso ao banco dentro das permissões da classe de carga.
+     *
+     * @param workload A classe de carga do acesso.
+     * @param action O acesso ao banco.
+     * @return O resultado de {@code action}.
+     * @throws ServiceOverloadedException Caso a fila da classe esteja cheia ou a espera exceda {@code max-wait}.
+     */
+    public <T> T call(Workload workload, Supplier<T> action) {
+        if (!this.enabled || this.holding.get() != null) {
+            return action.get();
+        }
+        Compartment compartment = this.compartments.get(workload);
+        compartment.acquire(this.retryAfter);
+        this.holding.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            this.holding.remove();
+            compartment.semaphore.release();
+        }
+    }
+
+    /**
+     * Executa um acesso ao banco sem resultado dentro das permissões da classe de carga.
+     *
+     * @param workload A classe de carga do acesso.
+     * @param action O acesso ao banco.
+     * @throws ServiceOverloadedException Caso a fila da classe esteja cheia ou a espera exceda {@code max-wait}.
+     */
+    public void run(Workload workload, Runnable action) {
+        call(workload, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return {@code true} se a thread atual já está dentro de {@link #call} (e chamadas aninhadas não esperam).
+     */
+    public boolean holdsPermit() {
+        return this.holding.get() != null;
+    }
+
+    /**
+     * Quantidade de requisições aguardando uma permissão da classe.
+     */
+    public int queueDepth(Workload workload) {
+        return this.compartments.get(workload).semaphore.getQueueLength();
+    }
+
+    /**
+     * Quantidade de permissões da classe em uso neste momento.
+     */
+    public int activeCount(Workload workload) {
+        Compartment compartment = this.compartments.get(workload);
+        return compartment.permits - compartment.semaphore.availablePermits();
+    }
+
+    private static final class Compartment {
+
+        private final Workload workload;
+        private final int permits;
+        private final Semaphore semaphore;
+        private final long maxWaitNanos;
+        private final int maxQueue;
+        private final Timer acquired;
+        private final Timer timedOut;
+        private final Timer rejected;
+
+        private Compartment(Workload workload, int permits, Duration maxWait, int maxQueue, MeterRegistry meterRegistry) {
+            if (permits < 1) {
+                throw new IllegalArgumentException("Bulkhead permits must be positive: " + workload.tag());
+            }
+            this.workload = workload;
+            this.permits = permits;
+            // justo: a ordem de chegada é respeitada, sem que novas requisições furem a fila
+            this.semaphore = new Semaphore(permits, true);
+            this.maxWaitNanos = maxWait.toNanos();
+            this.maxQueue = maxQueue;
+            this.acquired = waitTimer(meterRegistry, workload, "acquired");
+            this.timedOut = waitTimer(meterRegistry, workload, "timeout");
+            this.rejected = waitTimer(meterRegistry, workload, "rejected");
+            Gauge.builder("db.bulkhead.queue", this.semaphore, Semaphore::getQueueLength)
+                    .description("Requests waiting for a database bulkhead permit")
+                    .tag("workload", workload.tag())
+                    .register(meterRegistry);
+            Gauge.builder("db.bulkhead.active", this.semaphore, semaphore -> permits - semaphore.availablePermits())
+                    .description("Database bulkhead permits in use")
+                    .tag("workload", workload.tag())
+                    .register(meterRegistry);
+        }
+
+        private void acquire(Duration retryAfter) {
+            long start = System.nanoTime();
+            // com a fila cheia, recusa sem esperar
+            if (this.semaphore.getQueueLength() >= this.maxQueue) {
+                this.rejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw overloaded(retryAfter);
+            }
+            try {
+                // o tryAcquire() sem timeout ignora a ordem justa e passaria na frente da fila
+                if (!this.semaphore.tryAcquire(this.maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    this.timedOut.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    throw overloaded(retryAfter);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a database permit", e);
+            }
+            this.acquired.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        private ServiceOverloadedException overloaded(Duration retryAfter) {
+            return new ServiceOverloadedException("Database capacity exhausted (" + this.workload.tag() + ")", retryAfter);
+        }
+
+        private static Timer waitTimer(MeterRegistry meterRegistry, Workload workload, String outcome) {
+            return Timer.builder("db.bulkhead.wait")
+                    .description("Time spent waiting for a database bulkhead permit")
+                    .tag("workload", workload.tag())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
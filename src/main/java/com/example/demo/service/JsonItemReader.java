@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Leitor incremental de listas de itens JSON para os endpoints de carga em lote.
+ * * <p>Aceita tanto um array JSON ({@code [{...}, {...}]}) quanto NDJSON (um objeto por linha).
+ * Cada item é lido e entregue ao consumidor assim que termina de chegar, sem materializar
+ * o corpo inteiro da requisição em memória.</p>
+ */
+@Component
+public class JsonItemReader {
+
+    private final JsonMapper jsonMapper;
+    // lê um item por vez do mesmo parser, então o restante da entrada não é "conteúdo excedente"
+    private final ObjectReader nodeReader;
+
+    public JsonItemReader(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        this.nodeReader = jsonMapper.readerFor(JsonNode.class)
+                .without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+    }
+
+    /**
+     * Um item lido da entrada: o valor convertido ou a mensagem de erro de conversão.
+     *
+     * @param index A posição do item na entrada, a partir de 0.
+     * @param value O item convertido, ou {@code null} se a conversão falhou.
+     * @param error A mensagem de erro de conversão, ou {@code null} em caso de sucesso.
+     */
+    public record Item<T>(int index, T value, String error) {
+    }
+
+    /**
+     * Lê todos os itens da entrada, convertendo cada um para {@code type}.
+     * * <p>Um item com tipos incompatíveis (ex: texto em um campo numérico) é entregue com erro e
+     * a leitura continua. Um JSON sintaticamente inválido interrompe a leitura com
+     * {@link JacksonException}, já que não é possível saber onde o próximo item começa.</p>
+     *
+     * @param input O corpo da requisição.
+     * @param type A classe dos itens.
+     * @param consumer Recebe cada item, na ordem da entrada.
+     * @return A quantidade de itens lidos.
+     * @throws JacksonException Caso a entrada não seja um JSON válido.
+     */
+    public <T> int read(InputStream input, Class<T> type, Consumer<Item<T>> consumer) {
+        int index = 0;
+        try (JsonParser parser = this.jsonMapper.createParser(input)) {
+            JsonToken token = parser.nextToken();
+            // array JSON: os itens são os elementos; NDJSON: os itens são os valores na raiz
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonNode node = this.nodeReader.readValue(parser);
+                consumer.accept(convert(index++, node, type));
+                token = parser.nextToken();
+            }
+        }
+        return index;
+    }
+
+    private <T> Item<T> convert(int index, JsonNode node, Class<T> type) {
+        if (node == null || !node.isObject()) {
+            return new Item<>(index, null, "item must be a JSON object");
+        }
+        try {
+            return new Item<>(index, this.jsonMapper.treeToValue(node, type), null);
+        } catch (JacksonException e) {
+            return new Item<>(index, null, e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.TooManyLoginAttemptsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Limita tentativas de login com falha por login e por IP de origem.
+ * * <p>Cada tentativa de login custa um BCrypt completo, então a verificação acontece antes de
+ * qualquer hashing ou consulta ao banco. As falhas são contadas em {@link SlidingWindowCounter}s,
+ * guardados em caches limitados por tamanho que descartam chaves sem atividade após uma janela.</p>
+ * * <p>Para um login legítimo, o custo é de duas consultas a mapas em memória; nenhum objeto é
+ * criado enquanto a chave não tiver falhas.</p>
+ */
+@Service
+public class LoginThrottleService {
+
+    private final Cache<String, SlidingWindowCounter> failuresByLogin;
+    private final Cache<String, SlidingWindowCounter> failuresByIp;
+    private final int maxFailuresPerLogin;
+    private final int maxFailuresPerIp;
+    private final int buckets;
+    private final long bucketMillis;
+    private final Duration retryAfter;
+    private final Counter rejectedByLogin;
+    private final Counter rejectedByIp;
+    private final Counter failures;
+
+    public LoginThrottleService(
+            @Value("${api.security.login-throttle.window:15m}") Duration window,
+            @Value("${api.security.login-throttle.buckets:15}") int buckets,
+            @Value("${api.security.login-throttle.max-failures-per-login:5}") int maxFailuresPerLogin,
+            @Value("${api.security.login-throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+            @Value("${api.security.login-throttle.max-keys:100000}") long maxKeys,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxFailuresPerLogin = maxFailuresPerLogin;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+        // a contagem mais antiga sai da janela ao fim da fatia atual
+        this.retryAfter = Duration.ofMillis(this.bucketMillis);
+        this.failuresByLogin = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window)
+                .build();
+        this.failuresByIp = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window)
+                .build();
+
+        this.rejectedByLogin = Counter.builder("auth.login.throttled")
+                .description("Login attempts rejected before authentication")
+                .tag("key", "login")
+                .register(meterRegistry);
+        this.rejectedByIp = Counter.builder("auth.login.throttled")
+                .description("Login attempts rejected before authentication")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        this.failures = Counter.builder("auth.login.failures")
+                .description("Failed login attempts")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", this, service -> service.trackedKeys())
+                .description("Logins and IPs with recent failed attempts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recusa a tentativa se o login ou o IP já excederam o limite de falhas na janela.
+     *
+     * @param login O login informado na tentativa.
+     * @param ip O endereço IP do cliente.
+     * @throws TooManyLoginAttemptsException Caso algum dos limites tenha sido excedido.
+     */
+    public void checkAllowed(String login, String ip) {
+        long now = System.currentTimeMillis();
+        if (exceeds(this.failuresByLogin, login, this.maxFailuresPerLogin, now)) {
+            this.rejectedByLogin.increment();
+            throw new TooManyLoginAttemptsException(this.retryAfter);
+        }
+        if (exceeds(this.failuresByIp, ip, this.maxFailuresPerIp, now)) {
+            this.rejectedByIp.increment();
+            throw new TooManyLoginAttemptsException(this.retryAfter);
+        }
+    }
+
+    /**
+     * Registra uma tentativa de login com falha para o login e para o IP.
+     */
+    public void recordFailure(String login, String ip) {
+        long now = System.currentTimeMillis();
+        this.failures.increment();
+        if (login != null) {
+            this.failuresByLogin.get(login, key -> newCounter()).increment(now);
+        }
+        if (ip != null) {
+            this.failuresByIp.get(ip, key -> newCounter()).increment(now);
+        }
+    }
+
+    /**
+     * Zera as falhas do login após um login bem-sucedido. As falhas do IP são mantidas,
+     * para que um atacante não consiga "limpar" o IP usando uma conta própria.
+     */
+    public void recordSuccess(String login) {
+        if (login != null) {
+            this.failuresByLogin.invalidate(login);
+        }
+    }
+
+    private long trackedKeys() {
+        return this.failuresByLogin.estimatedSize() + this.failuresByIp.estimatedSize();
+    }
+
+    private SlidingWindowCounter newCounter() {
+        return new SlidingWindowCounter(this.buckets, this.bucketMillis);
+    }
+
+    private static boolean exceeds(Cache<String, SlidingWindowCounter> cache, String key, int limit, long now) {
+        if (key == null) {
+            return false;
+        }
+        SlidingWindowCounter counter = cache.getIfPresent(key);
+        return counter != null && counter.sum(now) >= limit;
+    }
+}
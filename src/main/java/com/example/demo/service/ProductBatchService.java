@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.UuidV7;
+import com.example.demo.domain.product.BatchItemStatus;
+import com.example.demo.domain.product.ProductBatchItemResultDTO;
+import com.example.demo.domain.product.ProductBatchResponseDTO;
+import com.example.demo.domain.product.ProductRequestDTO;
+import com.example.demo.exception.ServiceOverloadedException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class ProductBatchService {
+
+    private static final String INSERT_PRODUCT = "INSERT INTO products (id, name, price) VALUES (?, ?, ?)";
+
+    private final JsonItemReader itemReader;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseBulkhead bulkhead;
+    private final int batchSize;
+    private final int maxItems;
+
+    public ProductBatchService(
+            JsonItemReader itemReader,
+            Validator validator,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DatabaseBulkhead bulkhead,
+            @Value("${api.product.batch.size:500}") int batchSize,
+            @Value("${api.product.batch.max-items:100000}") int maxItems
+    ) {
+        this.itemReader = itemReader;
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkhead = bulkhead;
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Grava uma carga de produtos lida em streaming de um array JSON ou de NDJSON.
+     * * <p>Cada item é convertido e validado (as mesmas regras do {@code POST /product}) assim que
+     * é lido. Os itens válidos são acumulados em lotes de {@code api.product.batch.size} e cada lote
+     * é gravado em uma transação, com um único {@code batchUpdate} JDBC (o driver reescreve o lote
+     * em um INSERT multi-valores com {@code reWriteBatchedInserts=true}).</p>
+     * * <p>A resposta traz o resultado de cada item. Um erro de sintaxe no JSON interrompe a carga:
+     * os lotes anteriores permanecem gravados e o erro é informado no campo {@code error}.</p>
+     * * <p>Cada lote obtém a sua própria permissão de escrita no {@link DatabaseBulkhead}, liberada entre
+     * os lotes. Um lote recusado por falta de capacidade tem os itens informados como {@code FAILED},
+     * sem desfazer os lotes já gravados.</p>
+     *
+     * @param input O corpo da requisição.
+     * @return O resultado por item e os totais da carga.
+     */
+    public ProductBatchResponseDTO ingest(InputStream input) {
+        var results = new ArrayList<ProductBatchItemResultDTO>();
+        var pending = new ArrayList<PendingProduct>(this.batchSize);
+        String error = null;
+        try {
+            this.itemReader.read(input, ProductRequestDTO.class, item -> {
+                if (item.index() >= this.maxItems) {
+                    throw new BatchLimitExceededException(this.maxItems);
+                }
+                List<String> errors = item.error() != null ? List.of(item.error()) : validate(item.value());
+                if (!errors.isEmpty()) {
+                    results.add(new ProductBatchItemResultDTO(item.index(), BatchItemStatus.INVALID, null, errors));
+                    return;
+                }
+                pending.add(new PendingProduct(item.index(), UuidV7.generate(), item.value()));
+                if (pending.size() >= this.batchSize) {
+                    flush(pending, results);
+                }
+            });
+        } catch (JacksonException e) {
+            error = "Malformed JSON: " + e.getOriginalMessage();
+        } catch (BatchLimitExceededException e) {
+            error = e.getMessage();
+        }
+        flush(pending, results);
+        // itens inválidos entram no resultado antes do lote de que fariam parte
+        results.sort(Comparator.comparingInt(ProductBatchItemResultDTO::index));
+
+        int created = (int) results.stream().filter(result -> result.status() == BatchItemStatus.CREATED).count();
+        return new ProductBatchResponseDTO(created, results.size() - created, results, error);
+    }
+
+    private List<String> validate(ProductRequestDTO product) {
+        return this.validator.validate(product).stream()
+                .map(ProductBatchService::describe)
+                .sorted()
+                .toList();
+    }
+
+    private static String describe(ConstraintViolation<ProductRequestDTO> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private void flush(List<PendingProduct> pending, List<ProductBatchItemResultDTO> results) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            this.bulkhead.run(DatabaseBulkhead.Workload.WRITE, () ->
+                    this.transactionTemplate.executeWithoutResult(status ->
+                            this.jdbcTemplate.batchUpdate(INSERT_PRODUCT, pending, pending.size(), (statement, product) -> {
+                                statement.setObject(1, product.id());
+                                statement.setString(2, product.data().name());
+                                statement.setInt(3, product.data().price());
+                            })
+                    ));
+            pending.forEach(product -> results.add(
+                    new ProductBatchItemResultDTO(product.index(), BatchItemStatus.CREATED, product.id().toString(), List.of())));
+        } catch (DataAccessException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            pending.forEach(product -> results.add(
+                    new ProductBatchItemResultDTO(product.index(), BatchItemStatus.FAILED, null, List.of(message))));
+        } catch (ServiceOverloadedException e) {
+            pending.forEach(product -> results.add(
+                    new ProductBatchItemResultDTO(product.index(), BatchItemStatus.FAILED, null, List.of(e.getMessage()))));
+        }
+        pending.clear();
+    }
+
+    private record PendingProduct(int index, UUID id, ProductRequestDTO data) {
+    }
+
+    private static final class BatchLimitExceededException extends RuntimeException {
+        BatchLimitExceededException(int maxItems) {
+            super("Batch exceeds the limit of " + maxItems + " items");
+        }
+    }
+}
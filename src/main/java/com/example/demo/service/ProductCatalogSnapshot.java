@@ -0,0 +1,256 @@
+package com.example.demo.service;
+
+import com.example.demo.configuration.ReplicaRoutingDataSource;
+import com.example.demo.domain.product.ProductResponseDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retrato em memória do catálogo de produtos, já serializado em JSON (e opcionalmente em gzip).
+ * * <p>Leituras do catálogo são muito mais frequentes que escritas. Em vez de consultar, mapear e
+ * serializar a tabela a cada {@code GET /product}, o catálogo é serializado uma vez por versão e os
+ * mesmos bytes são servidos a todas as requisições, com um ETag que permite responder 304.</p>
+ * * <p>Cada escrita chama {@link #invalidate()}, que incrementa a versão e agenda uma reconstrução
+ * assíncrona. Várias escritas seguidas são agrupadas em uma única reconstrução; enquanto ela não
+ * termina, o retrato anterior continua sendo servido.</p>
+ * * <p>Escritas feitas por outras instâncias (ou direto no banco) não passam por {@link #invalidate()}.
+ * Para elas, cada construção guarda o {@code pg_current_snapshot()} tirado antes da leitura, e a cada
+ * {@code api.product.snapshot.refresh-interval} {@link #refresh()} procura produtos cuja transação
+ * ({@code txid}, migration V9) não era visível naquele snapshot. A comparação é por visibilidade e não
+ * por {@code max(version)}: uma transação lenta que pegou uma versão menor e confirma depois de uma
+ * mais nova também é detectada. Assim o retrato fica defasado no máximo um intervalo.</p>
+ * * <p>Com {@code api.product.search.in-memory=true} o retrato também carrega o {@link ProductSearchIndex},
+ * que responde a busca de produtos sem consultar o banco.</p>
+ * * <p>Com réplicas de leitura configuradas, a reconstrução lê sempre do primário: uma réplica atrasada
+ * produziria um retrato com a versão nova e o conteúdo antigo, servido até a próxima escrita.</p>
+ */
+@Slf4j
+@Service
+public class ProductCatalogSnapshot {
+
+    /**
+     * Uma versão imutável do catálogo serializado.
+     *
+     * @param version A versão local do catálogo usada na construção.
+     * @param readAt O {@code pg_current_snapshot()} (em texto) tirado antes da leitura do catálogo.
+     * @param json O catálogo serializado como array JSON.
+     * @param gzip O mesmo JSON comprimido em gzip, ou {@code null} se a compressão estiver desligada.
+     * @param etag O ETag (entre aspas) calculado a partir do conteúdo, estável entre reinícios.
+     * @param searchIndex O índice de busca da mesma versão, ou {@code null} se a busca em memória estiver desligada.
+     */
+    public record Snapshot(long version, String readAt, byte[] json, byte[] gzip, String etag, ProductSearchIndex searchIndex) {
+    }
+
+    private static final String SELECT_DATABASE_SNAPSHOT = "SELECT pg_current_snapshot()::text";
+
+    // só as linhas de transações a partir do xmin do snapshot podem ter ficado de fora (índice de V9)
+    private static final String SELECT_CHANGED_SINCE = """
+            SELECT EXISTS (
+                SELECT 1 FROM products
+                WHERE txid >= pg_snapshot_xmin(CAST(? AS pg_snapshot))::text::bigint
+                  AND NOT pg_visible_in_snapshot(txid::text::xid8, CAST(? AS pg_snapshot)))""";
+
+    private final ProductExportService exportService;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean gzipEnabled;
+    private final boolean searchIndexEnabled;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private final ExecutorService rebuildExecutor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("catalog-snapshot").factory());
+    private volatile Snapshot current;
+
+    public ProductCatalogSnapshot(
+            ProductExportService exportService,
+            JdbcTemplate jdbcTemplate,
+            @Value("${api.product.snapshot.gzip:true}") boolean gzipEnabled,
+            @Value("${api.product.search.in-memory:false}") boolean searchIndexEnabled
+    ) {
+        this.exportService = exportService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.gzipEnabled = gzipEnabled;
+        this.searchIndexEnabled = searchIndexEnabled;
+    }
+
+    /**
+     * Retorna o retrato mais recente do catálogo. Apenas a primeira chamada, antes de qualquer
+     * construção, consulta o banco de forma síncrona.
+     *
+     * @return O retrato atual do catálogo.
+     */
+    public Snapshot current() {
+        Snapshot snapshot = this.current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        return build();
+    }
+
+    /**
+     * Marca o catálogo como alterado e agenda a reconstrução assíncrona do retrato.
+     */
+    public void invalidate() {
+        this.version.incrementAndGet();
+        scheduleRebuild();
+    }
+
+    /**
+     * Invalida o retrato se algum produto foi gravado por uma transação que a última construção não
+     * enxergou. Cobre as escritas de outras instâncias; as locais já chamam {@link #invalidate()}.
+     */
+    @Scheduled(fixedDelayString = "${api.product.snapshot.refresh-interval:5s}",
+            initialDelayString = "${api.product.snapshot.refresh-interval:5s}")
+    public void refresh() {
+        Snapshot snapshot = this.current;
+        if (snapshot == null || this.rebuildScheduled.get()) {
+            return;
+        }
+        try {
+            Boolean changed = ReplicaRoutingDataSource.callOnPrimary(() -> this.jdbcTemplate.queryForObject(
+                    SELECT_CHANGED_SINCE, Boolean.class, snapshot.readAt(), snapshot.readAt()));
+            if (Boolean.TRUE.equals(changed)) {
+                invalidate();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to check product catalog for changes, serving version {}", snapshot.version(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.rebuildExecutor.shutdownNow();
+    }
+
+    private void scheduleRebuild() {
+        // se já existe uma reconstrução na fila, ela vai ler a versão mais nova
+        if (this.rebuildScheduled.compareAndSet(false, true)) {
+            this.rebuildExecutor.execute(() -> {
+                this.rebuildScheduled.set(false);
+                try {
+                    build();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to rebuild product catalog snapshot, serving version {}",
+                            this.current != null ? this.current.version() : null, e);
+                }
+            });
+        }
+    }
+
+    private Snapshot build() {
+        this.buildLock.lock();
+        try {
+            long targetVersion = this.version.get();
+            Snapshot snapshot = this.current;
+            if (snapshot != null && snapshot.version() >= targetVersion) {
+                return snapshot;
+            }
+            // tirado antes da leitura: o que for confirmado no meio dela aparece como alteração em refresh()
+            String readAt = ReplicaRoutingDataSource.callOnPrimary(() ->
+                    this.jdbcTemplate.queryForObject(SELECT_DATABASE_SNAPSHOT, String.class));
+            var json = new ByteArrayOutputStream(snapshot != null ? snapshot.json().length : 8192);
+            // a mesma leitura do catálogo alimenta o JSON e, se ligado, o índice de busca
+            List<ProductResponseDTO> products = this.searchIndexEnabled ? new ArrayList<>() : null;
+            ReplicaRoutingDataSource.runOnPrimary(() -> this.exportService.writeCatalog(json,
+                    products != null ? products::add : product -> {
+                    }));
+            byte[] jsonBytes = json.toByteArray();
+            snapshot = new Snapshot(targetVersion, readAt, jsonBytes, this.gzipEnabled ? gzip(jsonBytes) : null, etag(jsonBytes),
+                    products != null ? ProductSearchIndex.build(products) : null);
+            this.current = snapshot;
+            return snapshot;
+        } finally {
+            this.buildLock.unlock();
+        }
+    }
+
+    /**
+     * Indica se o cabeçalho {@code Accept-Encoding} aceita gzip.
+     * * <p>Respeita os pesos ({@code q}) da RFC 9110: {@code gzip;q=0} recusa a compressão explicitamente,
+     * e {@code *} vale para o gzip quando ele não é citado. Um peso malformado conta como recusa.</p>
+     *
+     * @param acceptEncoding O cabeçalho da requisição, ou {@code null} se ausente.
+     * @return {@code true} se o gzip tiver peso maior que zero.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    quality = quality(parameter.substring(2));
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                any = Math.max(any, quality);
+            }
+        }
+        // sem menção ao gzip vale o peso do curinga; sem nenhum dos dois, o gzip não foi pedido
+        return (gzip >= 0 ? gzip : any) > 0;
+    }
+
+    private static double quality(String value) {
+        try {
+            double quality = Double.parseDouble(value.trim());
+            return quality >= 0 && quality <= 1 ? quality : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        var compressed = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
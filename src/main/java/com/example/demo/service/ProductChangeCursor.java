@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.InvalidProductSearchException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição no feed de alterações: a transação e a versão da última alteração entregue, na ordem do feed.
+ * * <p>Vai para o cliente como texto opaco (base64url), para que ele não dependa do formato.</p>
+ */
+record ProductChangeCursor(long txid, long version) implements Comparable<ProductChangeCursor> {
+
+    /** Antes de qualquer alteração: traz o catálogo inteiro. */
+    static final ProductChangeCursor START = new ProductChangeCursor(0, 0);
+
+    private static final char SEPARATOR = ':';
+
+    String encode() {
+        byte[] bytes = (Long.toString(this.txid) + SEPARATOR + this.version).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static ProductChangeCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidProductSearchException("Invalid cursor");
+            }
+            return new ProductChangeCursor(Long.parseLong(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            // base64 ou número inválido
+            throw new InvalidProductSearchException("Invalid cursor");
+        }
+    }
+
+    static ProductChangeCursor min(ProductChangeCursor a, ProductChangeCursor b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    @Override
+    public int compareTo(ProductChangeCursor other) {
+        int byTxid = Long.compare(this.txid, other.txid);
+        return byTxid != 0 ? byTxid : Long.compare(this.version, other.version);
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.product.ProductChangeDTO;
+import com.example.demo.domain.product.ProductChangesResponseDTO;
+import com.example.demo.exception.InvalidProductSearchException;
+import com.example.demo.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Feed de alterações do catálogo: consulta por cursor ({@code GET /product/changes}) e stream SSE
+ * ({@code GET /product/changes/stream}).
+ * * <p>Cada inserção ou atualização de produto recebe uma {@code version} nova de uma sequência (migração V7) e
+ * grava o id da sua transação em {@code txid} (V9). A versão é atribuída na escrita, não no commit: uma transação
+ * mais lenta pode confirmar uma versão menor que outra já lida. Por isso o feed segue a ordem {@code (txid, version)}
+ * e só avança sobre transações anteriores ao {@code xmin} do snapshot da consulta, que já terminaram: toda transação
+ * que ainda vai confirmar tem um {@code txid} maior ou igual a ele e entra depois do cursor. Uma transação longa
+ * (de qualquer tabela) atrasa o feed até terminar, mas nenhuma alteração fica de fora. O cursor é um
+ * {@link ProductChangeCursor} opaco.</p>
+ * * <p>O stream envia o que o cliente perdeu desde {@code since} (ou {@code Last-Event-ID}) em páginas e depois
+ * as escritas novas logo após o commit, inclusive as que o cursor ainda não pode cobrir. Cada evento
+ * {@code products} traz um array de {@link ProductChangeDTO} e tem como id um cursor seguro para retomar a
+ * conexão: a entrega é pelo menos uma vez, e o cliente aplica as alterações pelo id do produto e pela versão.</p>
+ * * <p>Uma única thread envia os eventos e acorda com {@link #publish()}, chamado depois de cada escrita, e a cada
+ * {@code api.product.changes.poll-interval}, que também capta escritas de outras instâncias. Sem assinantes,
+ * o banco não é consultado. As consultas passam pelo bulkhead de leitura e vão sempre para o primário, já que
+ * uma réplica atrasada adiantaria o cursor sobre escritas que ela ainda não aplicou.</p>
+ */
+@Slf4j
+@Service
+public class ProductChangeFeed {
+
+    // settled: a transação da escrita terminou antes do snapshot da consulta, então o cursor pode passar dela
+    private static final String SELECT_CHANGES = """
+            SELECT id, name, price, version, updated_at, txid,
+                   txid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS settled
+            FROM products
+            WHERE (txid, version) > (?, ?)
+            ORDER BY txid, version
+            LIMIT ?""";
+    private static final String SELECT_HEAD = "SELECT txid, version FROM products ORDER BY txid DESC, version DESC LIMIT 1";
+    private static final Duration RETRY_WHEN_FULL = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseBulkhead bulkhead;
+    private final Duration heartbeatInterval;
+    private final Duration streamTimeout;
+    private final int maxSubscribers;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final Set<Subscriber> catchingUp = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> live = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean broadcastScheduled = new AtomicBoolean();
+    private final ExecutorService broadcastExecutor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("product-change-feed").factory());
+    // estado do envio aos assinantes em dia, acessado só pela thread do feed
+    private ProductChangeCursor liveCursor = ProductChangeCursor.START;
+    private final Set<ProductChangeCursor> sentAboveCursor = new HashSet<>();
+    private long lastHeartbeat = System.nanoTime();
+
+    public ProductChangeFeed(
+            JdbcTemplate jdbcTemplate,
+            DatabaseBulkhead bulkhead,
+            @Value("${api.product.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+            @Value("${api.product.changes.stream-timeout:30m}") Duration streamTimeout,
+            @Value("${api.product.changes.max-subscribers:1000}") int maxSubscribers,
+            @Value("${api.product.page.default-size:50}") int defaultPageSize,
+            @Value("${api.product.page.max-size:500}") int maxPageSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkhead = bulkhead;
+        this.heartbeatInterval = heartbeatInterval;
+        this.streamTimeout = streamTimeout;
+        this.maxSubscribers = maxSubscribers;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        Gauge.builder("product.changes.subscribers", this, ProductChangeFeed::subscriberCount)
+                .description("Open product change streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lista as alterações de produtos posteriores a um cursor, na ordem do feed.
+     *
+     * @param since O {@code nextCursor} da chamada anterior; vazio traz o catálogo inteiro.
+     * @param size A quantidade máxima de alterações, limitada a {@code api.product.page.max-size}.
+     * @return As alterações, o cursor da próxima chamada e se já existem mais alterações a buscar.
+     * @throws InvalidProductSearchException Se o cursor é inválido.
+     */
+    public ProductChangesResponseDTO changes(String since, Integer size) {
+        int pageSize = Math.clamp(size != null ? size : this.defaultPageSize, 1, this.maxPageSize);
+        return settledPage(ProductChangeCursor.decode(since), pageSize).response();
+    }
+
+    /**
+     * Abre um stream SSE de alterações a partir de um cursor.
+     *
+     * @param since O último cursor recebido pelo cliente; vazio envia o catálogo inteiro primeiro.
+     * @return O emitter, respondido de forma assíncrona pela thread do feed.
+     * @throws InvalidProductSearchException Se o cursor é inválido.
+     * @throws ServiceOverloadedException Se já existem {@code api.product.changes.max-subscribers} streams abertos.
+     */
+    public SseEmitter subscribe(String since) {
+        var cursor = ProductChangeCursor.decode(since);
+        if (subscriberCount() >= this.maxSubscribers) {
+            throw new ServiceOverloadedException("Too many product change streams", RETRY_WHEN_FULL);
+        }
+        var subscriber = new Subscriber(new SseEmitter(this.streamTimeout.toMillis()), cursor);
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        this.catchingUp.add(subscriber);
+        scheduleBroadcast();
+        return subscriber.emitter;
+    }
+
+    /**
+     * Avisa que produtos foram gravados; deve ser chamado depois do commit.
+     */
+    public void publish() {
+        if (subscriberCount() > 0) {
+            scheduleBroadcast();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${api.product.changes.poll-interval:1s}",
+            initialDelayString = "${api.product.changes.poll-interval:1s}")
+    public void poll() {
+        publish();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        // streams abertos segurariam o encerramento do servidor até o stream-timeout
+        List.copyOf(this.catchingUp).forEach(subscriber -> subscriber.emitter.complete());
+        List.copyOf(this.live).forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.broadcastExecutor.shutdownNow();
+    }
+
+    private int subscriberCount() {
+        return this.catchingUp.size() + this.live.size();
+    }
+
+    private void remove(Subscriber subscriber) {
+        this.catchingUp.remove(subscriber);
+        this.live.remove(subscriber);
+    }
+
+    private void scheduleBroadcast() {
+        // se já existe um envio na fila, ele vai ler as escritas mais novas
+        if (this.broadcastScheduled.compareAndSet(false, true)) {
+            this.broadcastExecutor.execute(() -> {
+                this.broadcastScheduled.set(false);
+                try {
+                    broadcast();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to push product changes, retrying on next poll: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void broadcast() {
+        if (this.live.isEmpty()) {
+            this.sentAboveCursor.clear();
+        } else {
+            pushLive();
+        }
+        catchUp();
+        if (System.nanoTime() - this.lastHeartbeat >= this.heartbeatInterval.toNanos()) {
+            this.lastHeartbeat = System.nanoTime();
+            // detecta conexões mortas e mantém proxies com a conexão aberta
+            var heartbeat = SseEmitter.event().comment("heartbeat").build();
+            this.live.forEach(subscriber -> send(subscriber, heartbeat));
+        }
+    }
+
+    private void pushLive() {
+        ProductChangeCursor safeCursor = this.liveCursor;
+        boolean settledPrefix = true;
+        var sent = new ArrayList<ProductChangeCursor>();
+        List<Change> rows;
+        ProductChangeCursor from = this.liveCursor;
+        do {
+            rows = fetch(from, this.maxPageSize);
+            var fresh = new ArrayList<ProductChangeDTO>(rows.size());
+            for (Change row : rows) {
+                // as escritas visíveis já foram confirmadas e vão na hora; o cursor só passa das que estão no prefixo
+                settledPrefix &= row.settled();
+                if (settledPrefix) {
+                    safeCursor = row.cursor();
+                }
+                if (!this.sentAboveCursor.contains(row.cursor())) {
+                    fresh.add(row.product());
+                    sent.add(row.cursor());
+                }
+            }
+            if (!fresh.isEmpty()) {
+                var event = changesEvent(fresh, safeCursor);
+                this.live.forEach(subscriber -> send(subscriber, event));
+            }
+            if (!rows.isEmpty()) {
+                from = rows.getLast().cursor();
+            }
+        } while (rows.size() == this.maxPageSize && !this.live.isEmpty());
+        this.liveCursor = safeCursor;
+        this.sentAboveCursor.addAll(sent);
+        // o que o cursor já cobre não volta a ser lido
+        this.sentAboveCursor.removeIf(cursor -> cursor.compareTo(this.liveCursor) <= 0);
+    }
+
+    private void catchUp() {
+        boolean behind = false;
+        for (Subscriber subscriber : this.catchingUp) {
+            SettledPage page = settledPage(subscriber.cursor, this.maxPageSize);
+            if (!page.changes().isEmpty() && !send(subscriber, changesEvent(page.changes(), page.nextCursor()))) {
+                continue;
+            }
+            subscriber.cursor = page.nextCursor();
+            if (page.hasMore()) {
+                behind = true;
+                continue;
+            }
+            // em dia: passa a receber as escritas novas
+            this.catchingUp.remove(subscriber);
+            if (this.live.isEmpty()) {
+                // um cursor além da última alteração existente deixaria escritas futuras fora do feed
+                this.liveCursor = ProductChangeCursor.min(subscriber.cursor, head());
+            } else {
+                // o novo assinante pode estar atrás do envio em dia: os demais recebem de novo o trecho
+                this.liveCursor = ProductChangeCursor.min(subscriber.cursor, this.liveCursor);
+            }
+            // as alterações já enviadas adiantadas vão também para quem acabou de entrar
+            this.sentAboveCursor.clear();
+            this.live.add(subscriber);
+        }
+        if (behind) {
+            scheduleBroadcast();
+        }
+    }
+
+    private SettledPage settledPage(ProductChangeCursor since, int pageSize) {
+        // busca um item a mais apenas para saber se existe próxima página
+        List<Change> rows = fetch(since, pageSize + 1);
+        var changes = new ArrayList<ProductChangeDTO>(Math.min(rows.size(), pageSize));
+        ProductChangeCursor nextCursor = since;
+        for (Change row : rows) {
+            if (!row.settled() || changes.size() == pageSize) {
+                break;
+            }
+            changes.add(row.product());
+            nextCursor = row.cursor();
+        }
+        boolean hasMore = changes.size() == pageSize && rows.size() > pageSize && rows.get(pageSize).settled();
+        return new SettledPage(changes, nextCursor, hasMore);
+    }
+
+    private ProductChangeCursor head() {
+        List<ProductChangeCursor> head = this.bulkhead.call(DatabaseBulkhead.Workload.READ, () -> this.jdbcTemplate.query(
+                SELECT_HEAD, (rs, rowNum) -> new ProductChangeCursor(rs.getLong("txid"), rs.getLong("version"))));
+        return head.isEmpty() ? ProductChangeCursor.START : head.getFirst();
+    }
+
+    private List<Change> fetch(ProductChangeCursor since, int limit) {
+        // fora de transação: vai sempre para o primário, e o snapshot do xmin é o mesmo da leitura
+        return this.bulkhead.call(DatabaseBulkhead.Workload.READ, () -> this.jdbcTemplate.query(SELECT_CHANGES, (rs, rowNum) -> new Change(
+                new ProductChangeDTO(rs.getString("id"), rs.getString("name"), rs.getInt("price"),
+                        rs.getLong("version"), rs.getObject("updated_at", OffsetDateTime.class).toInstant()),
+                new ProductChangeCursor(rs.getLong("txid"), rs.getLong("version")),
+                rs.getBoolean("settled")
+        ), since.txid(), since.version(), limit));
+    }
+
+    // montado uma vez e enviado a todos os assinantes
+    private static Set<ResponseBodyEmitter.DataWithMediaType> changesEvent(List<ProductChangeDTO> changes,
+                                                                          ProductChangeCursor cursor) {
+        return SseEmitter.event()
+                .name("products")
+                .id(cursor.encode())
+                .data(changes, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private boolean send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // cliente desconectado ou stream já encerrado
+            remove(subscriber);
+            return false;
+        }
+    }
+
+    // alteração lida do banco, a sua posição no feed e se a transação dela já terminou para todos
+    private record Change(ProductChangeDTO product, ProductChangeCursor cursor, boolean settled) {
+    }
+
+    private record SettledPage(List<ProductChangeDTO> changes, ProductChangeCursor nextCursor, boolean hasMore) {
+
+        ProductChangesResponseDTO response() {
+            return new ProductChangesResponseDTO(this.changes, this.nextCursor.encode(), this.hasMore);
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        // cursor do envio inicial, até o assinante ficar em dia
+        private ProductChangeCursor cursor;
+
+        private Subscriber(SseEmitter emitter, ProductChangeCursor cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.product.ProductResponseDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+@Service
+public class ProductExportService {
+
+    private static final String SELECT_ALL_PRODUCTS = "SELECT id, name, price FROM products ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonMapper jsonMapper;
+    private final DatabaseBulkhead bulkhead;
+
+    public ProductExportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            JsonMapper jsonMapper,
+            DatabaseBulkhead bulkhead,
+            @Value("${api.product.export.fetch-size:500}") int fetchSize
+    ) {
+        // cópia do template para não alterar o fetch size das demais consultas da aplicação
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonMapper = jsonMapper;
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Escreve o catálogo completo como um array JSON diretamente no {@link OutputStream}.
+     * * <p>As linhas são lidas por um cursor JDBC ({@code api.product.export.fetch-size} linhas por
+     * ida ao banco) e cada produto é serializado assim que chega, sem materializar a lista de
+     * entidades nem a de DTOs. O uso de memória é constante, independente do tamanho da tabela.</p>
+     * * <p>O driver do PostgreSQL só respeita o fetch size com autocommit desligado, por isso a
+     * leitura acontece dentro de uma transação somente leitura.</p>
+     * * <p>A conexão fica presa durante toda a escrita, por isso a leitura passa pelo {@link DatabaseBulkhead}
+     * (classe {@code read}). A permissão é obtida antes de escrever qualquer byte, de modo que uma recusa
+     * ainda pode virar 503.</p>
+     *
+     * @param outputStream O destino do JSON (normalmente o corpo da resposta HTTP).
+     */
+    public void writeCatalog(OutputStream outputStream) {
+        writeCatalog(outputStream, product -> {
+        });
+    }
+
+    /**
+     * Escreve o catálogo completo como em {@link #writeCatalog(OutputStream)}, entregando também cada
+     * produto ao {@code consumer} na mesma leitura (usado para montar o índice de busca em memória).
+     *
+     * @param outputStream O destino do JSON.
+     * @param consumer Recebe cada produto, na ordem do id.
+     */
+    public void writeCatalog(OutputStream outputStream, Consumer<ProductResponseDTO> consumer) {
+        this.bulkhead.run(DatabaseBulkhead.Workload.READ, () -> write(outputStream, consumer));
+    }
+
+    private void write(OutputStream outputStream, Consumer<ProductResponseDTO> consumer) {
+        try (JsonGenerator generator = this.jsonMapper.createGenerator(outputStream)) {
+            generator.writeStartArray();
+            this.readOnlyTransaction.executeWithoutResult(status ->
+                    this.jdbcTemplate.query(SELECT_ALL_PRODUCTS, resultSet -> {
+                        var product = new ProductResponseDTO(
+                                resultSet.getString("id"),
+                                resultSet.getString("name"),
+                                resultSet.getInt("price")
+                        );
+                        generator.writePOJO(product);
+                        consumer.accept(product);
+                    })
+            );
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.InvalidProductSearchException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posição keyset de uma busca de produtos: o valor do campo de ordenação e o id do último item da página.
+ * * <p>Vai para o cliente como texto opaco (base64url), para que ele não dependa do formato.</p>
+ */
+record ProductSearchCursor(String key, String id) {
+
+    // o id nunca contém NUL, então o separador é procurado a partir do fim
+    private static final char SEPARATOR = '\0';
+
+    String encode() {
+        byte[] bytes = (this.key + SEPARATOR + this.id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static ProductSearchCursor decode(String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidProductSearchException("Invalid cursor");
+        }
+        int separator = decoded.lastIndexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new InvalidProductSearchException("Invalid cursor");
+        }
+        return new ProductSearchCursor(decoded.substring(0, separator), decoded.substring(separator + 1));
+    }
+
+    // a coluna id é uuid: o parâmetro precisa ir como UUID, não como texto
+    UUID productId() {
+        try {
+            return UUID.fromString(this.id);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidProductSearchException("Invalid cursor");
+        }
+    }
+
+    int priceKey() {
+        try {
+            return Integer.parseInt(this.key);
+        } catch (NumberFormatException e) {
+            throw new InvalidProductSearchException("Invalid cursor");
+        }
+    }
+}
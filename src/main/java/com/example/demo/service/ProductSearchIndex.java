@@ -0,0 +1,181 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.product.ProductNameMatch;
+import com.example.demo.domain.product.ProductPageResponseDTO;
+import com.example.demo.domain.product.ProductResponseDTO;
+import com.example.demo.domain.product.ProductSearchQuery;
+import com.example.demo.domain.product.ProductSortField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Índice em memória do catálogo para a busca de produtos, sem consulta ao banco.
+ * * <p>O catálogo é mantido em três arrays imutáveis, ordenados por id, por nome (minúsculo) e por
+ * preço, sempre desempatando pelo id, a mesma ordem da busca no banco. Cada busca percorre o array
+ * da ordenação pedida a partir do cursor (busca binária). Quando o filtro é sobre o próprio campo de
+ * ordenação (prefixo com ordenação por nome, faixa de preço com ordenação por preço), o início e o fim
+ * da faixa também são encontrados por busca binária e apenas ela é percorrida; os demais filtros são
+ * avaliados item a item.</p>
+ * * <p>O índice é construído junto com o {@link ProductCatalogSnapshot} e segue a mesma versão dele.</p>
+ */
+public final class ProductSearchIndex {
+
+    private record Entry(ProductResponseDTO product, String nameKey) {
+    }
+
+    private static final Comparator<Entry> BY_ID = Comparator.comparing(entry -> entry.product().id());
+    private static final Comparator<Entry> BY_NAME = Comparator.comparing(Entry::nameKey).thenComparing(BY_ID);
+    private static final Comparator<Entry> BY_PRICE =
+            Comparator.<Entry>comparingInt(entry -> entry.product().price()).thenComparing(BY_ID);
+
+    private final Entry[] byId;
+    private final Entry[] byName;
+    private final Entry[] byPrice;
+
+    private ProductSearchIndex(Entry[] entries) {
+        this.byId = sorted(entries, BY_ID);
+        this.byName = sorted(entries, BY_NAME);
+        this.byPrice = sorted(entries, BY_PRICE);
+    }
+
+    public static ProductSearchIndex build(List<ProductResponseDTO> products) {
+        Entry[] entries = products.stream()
+                .map(product -> new Entry(product, product.name().toLowerCase(Locale.ROOT)))
+                .toArray(Entry[]::new);
+        return new ProductSearchIndex(entries);
+    }
+
+    public int size() {
+        return this.byId.length;
+    }
+
+    public ProductPageResponseDTO search(ProductSearchQuery query) {
+        Entry[] entries = switch (query.sort()) {
+            case ID -> this.byId;
+            case NAME -> this.byName;
+            case PRICE -> this.byPrice;
+        };
+        ProductSearchCursor cursor = query.cursor() != null ? ProductSearchCursor.decode(query.cursor()) : null;
+        boolean prefixRange = query.sort() == ProductSortField.NAME && query.name() != null
+                && query.match() == ProductNameMatch.PREFIX;
+        boolean priceRange = query.sort() == ProductSortField.PRICE;
+
+        var items = new ArrayList<ProductResponseDTO>(Math.min(query.size() + 1, 64));
+        String lastKey = null;
+        int step = query.descending() ? -1 : 1;
+        for (int i = start(entries, query, cursor, prefixRange); i >= 0 && i < entries.length; i += step) {
+            Entry entry = entries[i];
+            if (prefixRange && !entry.nameKey().startsWith(query.name())) {
+                break;
+            }
+            if (priceRange && outsidePriceRange(entry, query)) {
+                break;
+            }
+            if (!matches(entry, query)) {
+                continue;
+            }
+            if (items.size() == query.size()) {
+                // existe ao menos mais um item: a página seguinte começa depois do último incluído
+                return new ProductPageResponseDTO(items, new ProductSearchCursor(lastKey, items.getLast().id()).encode());
+            }
+            items.add(entry.product());
+            lastKey = key(entry, query.sort());
+        }
+        return new ProductPageResponseDTO(items, null);
+    }
+
+    // primeira posição a percorrer: depois do cursor e dentro da faixa do filtro sobre o campo de ordenação
+    private static int start(Entry[] entries, ProductSearchQuery query, ProductSearchCursor cursor, boolean prefixRange) {
+        ProductSortField sort = query.sort();
+        if (!query.descending()) {
+            int start = 0;
+            if (cursor != null) {
+                start = Math.max(start, firstIndex(entries, entry -> compareToCursor(entry, sort, cursor) > 0));
+            }
+            if (prefixRange) {
+                start = Math.max(start, firstIndex(entries, entry -> entry.nameKey().compareTo(query.name()) >= 0));
+            }
+            if (sort == ProductSortField.PRICE && query.minPrice() != null) {
+                start = Math.max(start, firstIndex(entries, entry -> entry.product().price() >= query.minPrice()));
+            }
+            return start;
+        }
+        int start = entries.length - 1;
+        if (cursor != null) {
+            start = Math.min(start, firstIndex(entries, entry -> compareToCursor(entry, sort, cursor) >= 0) - 1);
+        }
+        if (prefixRange) {
+            start = Math.min(start, firstIndex(entries, entry -> entry.nameKey().compareTo(query.name()) > 0
+                    && !entry.nameKey().startsWith(query.name())) - 1);
+        }
+        if (sort == ProductSortField.PRICE && query.maxPrice() != null) {
+            start = Math.min(start, firstIndex(entries, entry -> entry.product().price() > query.maxPrice()) - 1);
+        }
+        return start;
+    }
+
+    // percorrendo por preço, o primeiro item fora da faixa encerra a busca
+    private static boolean outsidePriceRange(Entry entry, ProductSearchQuery query) {
+        int price = entry.product().price();
+        return query.descending()
+                ? query.minPrice() != null && price < query.minPrice()
+                : query.maxPrice() != null && price > query.maxPrice();
+    }
+
+    private static boolean matches(Entry entry, ProductSearchQuery query) {
+        if (query.name() != null) {
+            boolean nameMatches = query.match() == ProductNameMatch.PREFIX
+                    ? entry.nameKey().startsWith(query.name())
+                    : entry.nameKey().contains(query.name());
+            if (!nameMatches) {
+                return false;
+            }
+        }
+        int price = entry.product().price();
+        return (query.minPrice() == null || price >= query.minPrice())
+                && (query.maxPrice() == null || price <= query.maxPrice());
+    }
+
+    private static int compareToCursor(Entry entry, ProductSortField sort, ProductSearchCursor cursor) {
+        int compare = switch (sort) {
+            case ID -> 0;
+            case NAME -> entry.nameKey().compareTo(cursor.key());
+            case PRICE -> Integer.compare(entry.product().price(), cursor.priceKey());
+        };
+        return compare != 0 ? compare : entry.product().id().compareTo(cursor.id());
+    }
+
+    private static String key(Entry entry, ProductSortField sort) {
+        return switch (sort) {
+            case ID -> entry.product().id();
+            case NAME -> entry.nameKey();
+            case PRICE -> String.valueOf(entry.product().price());
+        };
+    }
+
+    // busca binária pela primeira posição em que o predicado (monótono na ordem do array) é verdadeiro
+    private static int firstIndex(Entry[] entries, Predicate<Entry> predicate) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (predicate.test(entries[mid])) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static Entry[] sorted(Entry[] entries, Comparator<Entry> comparator) {
+        Entry[] copy = Arrays.copyOf(entries, entries.length);
+        Arrays.sort(copy, comparator);
+        return copy;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.product.ProductNameMatch;
+import com.example.demo.domain.product.ProductPageResponseDTO;
+import com.example.demo.domain.product.ProductResponseDTO;
+import com.example.demo.domain.product.ProductSearchQuery;
+import com.example.demo.domain.product.ProductSortField;
+import com.example.demo.exception.InvalidProductSearchException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class ProductSearchService {
+
+    // mesma expressão do índice products_name_lower_idx (V5)
+    private static final String NAME_KEY = "lower(name) COLLATE \"C\"";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ProductCatalogSnapshot catalogSnapshot;
+    private final DatabaseBulkhead bulkhead;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public ProductSearchService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ProductCatalogSnapshot catalogSnapshot,
+            DatabaseBulkhead bulkhead,
+            @Value("${api.product.page.default-size:50}") int defaultPageSize,
+            @Value("${api.product.page.max-size:500}") int maxPageSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        // somente leitura: com réplicas configuradas, a busca vai para uma réplica
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.catalogSnapshot = catalogSnapshot;
+        this.bulkhead = bulkhead;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Monta os critérios de busca a partir dos parâmetros da requisição.
+     *
+     * @param name O termo buscado no nome (opcional).
+     * @param match {@code prefix} ou {@code contains}.
+     * @param minPrice O preço mínimo, inclusivo (opcional).
+     * @param maxPrice O preço máximo, inclusivo (opcional).
+     * @param sort {@code id}, {@code name} ou {@code price}.
+     * @param direction {@code asc} ou {@code desc}.
+     * @param cursor O {@code nextCursor} da página anterior (opcional).
+     * @param size A quantidade de produtos por página, limitada a {@code api.product.page.max-size}.
+     * @return Os critérios validados.
+     * @throws InvalidProductSearchException Se algum parâmetro for inválido.
+     */
+    public ProductSearchQuery query(String name, String match, Integer minPrice, Integer maxPrice,
+                                    String sort, String direction, String cursor, Integer size) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new InvalidProductSearchException("minPrice must not be greater than maxPrice");
+        }
+        if (!"asc".equalsIgnoreCase(direction) && !"desc".equalsIgnoreCase(direction)) {
+            throw new InvalidProductSearchException("direction must be asc or desc");
+        }
+        int pageSize = Math.clamp(size != null ? size : this.defaultPageSize, 1, this.maxPageSize);
+        return new ProductSearchQuery(name, parse(ProductNameMatch.class, "match", match), minPrice, maxPrice,
+                parse(ProductSortField.class, "sort", sort), "desc".equalsIgnoreCase(direction), cursor, pageSize);
+    }
+
+    /**
+     * Busca produtos por nome (prefixo ou substring) e faixa de preço, com ordenação e paginação keyset.
+     * * <p>Por padrão a busca é feita no banco, apoiada nos índices da migração V5: B-tree em
+     * {@code lower(name)} com collation "C" para prefixo e ordenação por nome, trigramas
+     * ({@code pg_trgm}) para substring e B-tree em {@code (price, id)} para faixa e ordenação por preço.
+     * O cursor é uma comparação de linha ({@code (chave, id) > (?, ?)}), que continua do ponto exato pelo
+     * índice, sem {@code OFFSET}.</p>
+     * * <p>Com {@code api.product.search.in-memory=true} a busca é respondida pelo {@link ProductSearchIndex}
+     * do retrato atual do catálogo, sem consulta ao banco. Nesse caso escritas recentes aparecem na busca
+     * assim que o retrato é reconstruído, como no {@code GET /product}.</p>
+     *
+     * @param query Os critérios da busca.
+     * @return A página de produtos e o cursor da próxima página, ou {@code null} na última.
+     */
+    public ProductPageResponseDTO search(ProductSearchQuery query) {
+        ProductSearchIndex index = this.catalogSnapshot.current().searchIndex();
+        if (index != null) {
+            return index.search(query);
+        }
+        return searchDatabase(query);
+    }
+
+    private ProductPageResponseDTO searchDatabase(ProductSearchQuery query) {
+        String key = switch (query.sort()) {
+            case ID -> "id";
+            case NAME -> NAME_KEY;
+            case PRICE -> "price";
+        };
+        var sql = new StringBuilder("SELECT id, name, price, ").append(key).append(" AS sort_key FROM products WHERE TRUE");
+        var args = new ArrayList<>();
+        if (query.name() != null) {
+            if (query.match() == ProductNameMatch.PREFIX) {
+                sql.append(" AND ").append(NAME_KEY).append(" LIKE ?");
+                args.add(escapeLike(query.name()) + "%");
+            } else {
+                sql.append(" AND lower(name) LIKE ?");
+                args.add("%" + escapeLike(query.name()) + "%");
+            }
+        }
+        if (query.minPrice() != null) {
+            sql.append(" AND price >= ?");
+            args.add(query.minPrice());
+        }
+        if (query.maxPrice() != null) {
+            sql.append(" AND price <= ?");
+            args.add(query.maxPrice());
+        }
+        String comparison = query.descending() ? " < " : " > ";
+        if (query.cursor() != null) {
+            ProductSearchCursor cursor = ProductSearchCursor.decode(query.cursor());
+            switch (query.sort()) {
+                case ID -> sql.append(" AND id").append(comparison).append("?");
+                case NAME -> {
+                    sql.append(" AND (").append(key).append(", id)").append(comparison).append("(?, ?)");
+                    args.add(cursor.key());
+                }
+                case PRICE -> {
+                    sql.append(" AND (").append(key).append(", id)").append(comparison).append("(?, ?)");
+                    args.add(cursor.priceKey());
+                }
+            }
+            args.add(cursor.productId());
+        }
+        String direction = query.descending() ? " DESC" : "";
+        sql.append(" ORDER BY ").append(key).append(direction);
+        if (query.sort() != ProductSortField.ID) {
+            sql.append(", id").append(direction);
+        }
+        // busca um item a mais apenas para saber se existe próxima página
+        sql.append(" LIMIT ?");
+        args.add(query.size() + 1);
+
+        List<SearchRow> rows = this.bulkhead.call(DatabaseBulkhead.Workload.READ, () ->
+                this.readOnlyTransaction.execute(status -> this.jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new SearchRow(
+                        new ProductResponseDTO(rs.getString("id"), rs.getString("name"), rs.getInt("price")),
+                        rs.getString("sort_key")
+                ), args.toArray())));
+
+        boolean hasNext = rows.size() > query.size();
+        List<SearchRow> page = hasNext ? rows.subList(0, query.size()) : rows;
+        String nextCursor = hasNext
+                ? new ProductSearchCursor(page.getLast().key(), page.getLast().product().id()).encode()
+                : null;
+        return new ProductPageResponseDTO(page.stream().map(SearchRow::product).toList(), nextCursor);
+    }
+
+    // o termo é literal: %, _ e \ não funcionam como curingas
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String parameter, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidProductSearchException("Invalid " + parameter + ": " + value);
+        }
+    }
+
+    // produto e valor do campo de ordenação calculado pelo banco (base do cursor)
+    private record SearchRow(ProductResponseDTO product, String key) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.user.User;
+import com.example.demo.repository.ReactiveUserRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Versão reativa do {@link AuthorizationService}, usada pelo {@code ReactiveAuthenticationManager} no modo reativo.
+ * * <p>Mantém o mesmo cache por login (limitado, com ttl positivo e negativo e consultas simultâneas
+ * agrupadas em uma só), mas a carga é feita pelo {@link ReactiveUserRepository} e o resultado chega
+ * como {@link Mono}, sem ocupar uma thread enquanto o banco responde.</p>
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthorizationService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
+
+    private final ReactiveUserRepository repository;
+    // login -> usuário (Optional.empty() guarda o cache negativo de logins inexistentes)
+    private final AsyncLoadingCache<String, Optional<UserDetails>> users;
+
+    public ReactiveAuthorizationService(
+            ReactiveUserRepository repository,
+            @Value("${api.security.user-cache.max-size:10000}") long maxSize,
+            @Value("${api.security.user-cache.ttl:5m}") Duration ttl,
+            @Value("${api.security.user-cache.negative-ttl:30s}") Duration negativeTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new AuthorizationService.PositiveNegativeExpiry(ttl, negativeTtl))
+                .recordStats()
+                .buildAsync((login, executor) -> this.repository.findByLogin(login)
+                        .map(user -> Optional.<UserDetails>of(user))
+                        .defaultIfEmpty(Optional.empty())
+                        .toFuture());
+        // o AuthorizationService também existe no modo reativo (refresh token), por isso outro nome de cache
+        CaffeineCacheMetrics.monitor(meterRegistry, this.users, "auth.user.cache.reactive");
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        // suppressCancel: o cancelamento de uma requisição não cancela o future compartilhado do cache
+        return Mono.fromFuture(() -> this.users.get(username), true)
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Regrava o hash da senha de um usuário após um login bem-sucedido, como no {@link AuthorizationService}.
+     *
+     * @param user O usuário autenticado.
+     * @param newPassword O novo hash, já codificado com os parâmetros atuais.
+     * @return O usuário com o hash atualizado.
+     */
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails user, String newPassword) {
+        return this.repository.updatePassword(user.getUsername(), newPassword)
+                .doOnSuccess(updated -> evict(user.getUsername()))
+                .thenReturn(user instanceof User entity ? entity.withPassword(newPassword) : user);
+    }
+
+    /**
+     * Remove um login do cache. Deve ser chamado sempre que o usuário for salvo pelo {@link ReactiveUserRepository}.
+     *
+     * @param login O login do usuário alterado.
+     */
+    public void evict(String login) {
+        this.users.synchronous().invalidate(login);
+    }
+}
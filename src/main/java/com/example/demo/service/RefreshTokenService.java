@@ -0,0 +1,211 @@
+package com.example.demo.service;
+
+import com.example.demo.configuration.IssuedToken;
+import com.example.demo.configuration.TokenService;
+import com.example.demo.configuration.VerifiedToken;
+import com.example.demo.domain.user.LoginResponseDTO;
+import com.example.demo.domain.user.User;
+import com.example.demo.exception.InvalidRefreshTokenException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Emite e rotaciona refresh tokens.
+ * * <p>O refresh token é um valor aleatório opaco; apenas o seu hash SHA-256 é gravado em
+ * {@code refresh_tokens}. Cada uso gera um novo refresh token da mesma família e marca o anterior
+ * como usado. Se um refresh token já usado for apresentado de novo, a família inteira é revogada,
+ * junto com os tokens de acesso emitidos por ela: um dos dois usos veio de quem roubou o token.</p>
+ * * <p>A renovação relê o usuário (pelo cache do {@link AuthorizationService}), então mudanças de
+ * papel valem a partir do próximo token de acesso.</p>
+ * * <p>Emissão, renovação e logout passam pelo {@link DatabaseBulkhead} na classe {@code auth}, a mesma da
+ * consulta de usuários: uma rajada de escritas de produtos não atrasa o login.</p>
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final String INSERT_REFRESH_TOKEN = """
+            INSERT INTO refresh_tokens (token_hash, family_id, user_login, access_jti, access_expires_at, expires_at)
+            VALUES (?, ?, ?, ?, ?, ?)""";
+    private static final String USE_REFRESH_TOKEN = """
+            UPDATE refresh_tokens SET used_at = now()
+            WHERE token_hash = ? AND used_at IS NULL AND revoked_at IS NULL AND expires_at > now()
+            RETURNING family_id, user_login""";
+    private static final String SELECT_FAMILY_IF_USED =
+            "SELECT family_id FROM refresh_tokens WHERE token_hash = ? AND used_at IS NOT NULL";
+    private static final String REVOKE_FAMILY = """
+            UPDATE refresh_tokens SET revoked_at = now()
+            WHERE family_id = ? AND revoked_at IS NULL
+            RETURNING access_jti, access_expires_at""";
+    private static final String DELETE_EXPIRED = "DELETE FROM refresh_tokens WHERE expires_at <= now()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TokenService tokenService;
+    private final AuthorizationService authorizationService;
+    private final TokenRevocationStore revocationStore;
+    private final DatabaseBulkhead bulkhead;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom random = new SecureRandom();
+    private final Counter reuseDetected;
+
+    public RefreshTokenService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TokenService tokenService,
+            AuthorizationService authorizationService,
+            TokenRevocationStore revocationStore,
+            DatabaseBulkhead bulkhead,
+            @Value("${api.security.token.refresh-ttl:7d}") Duration refreshTokenTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tokenService = tokenService;
+        this.authorizationService = authorizationService;
+        this.revocationStore = revocationStore;
+        this.bulkhead = bulkhead;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.reuseDetected = Counter.builder("auth.refresh-token.reuse")
+                .description("Refresh tokens presented after being rotated; the whole family is revoked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Emite um token de acesso e um refresh token de uma nova família, após um login.
+     *
+     * @param user O usuário autenticado.
+     * @return O par de tokens.
+     */
+    public LoginResponseDTO issue(User user) {
+        return this.bulkhead.call(DatabaseBulkhead.Workload.AUTH, () -> issue(user, UUID.randomUUID().toString()));
+    }
+
+    /**
+     * Troca um refresh token válido por um novo par de tokens, invalidando o refresh token usado.
+     *
+     * @param refreshToken O refresh token recebido do cliente.
+     * @return O novo par de tokens.
+     * @throws InvalidRefreshTokenException Caso o token seja inválido, expirado, revogado ou já usado.
+     */
+    public LoginResponseDTO refresh(String refreshToken) {
+        return this.bulkhead.call(DatabaseBulkhead.Workload.AUTH, () -> rotate(refreshToken));
+    }
+
+    /**
+     * Encerra a sessão: revoga o token de acesso atual e, se informado, a família do refresh token.
+     *
+     * @param accessToken O token de acesso usado na requisição.
+     * @param refreshToken O refresh token da sessão, ou {@code null}.
+     */
+    public void logout(VerifiedToken accessToken, String refreshToken) {
+        this.bulkhead.run(DatabaseBulkhead.Workload.AUTH, () -> revoke(accessToken, refreshToken));
+    }
+
+    private LoginResponseDTO rotate(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        // a marcação do token usado e a gravação do novo refresh token são confirmadas juntas
+        LoginResponseDTO rotated = this.transactionTemplate.execute(status -> {
+            List<String[]> used = this.jdbcTemplate.query(USE_REFRESH_TOKEN,
+                    (rs, rowNum) -> new String[]{rs.getString("family_id"), rs.getString("user_login")}, tokenHash);
+            if (used.isEmpty()) {
+                return null;
+            }
+            User user = this.authorizationService.findByLogin(used.getFirst()[1])
+                    .filter(User.class::isInstance)
+                    .map(User.class::cast)
+                    .orElseThrow(InvalidRefreshTokenException::new);
+            return issue(user, used.getFirst()[0]);
+        });
+        if (rotated != null) {
+            return rotated;
+        }
+        // token já rotacionado: quem o apresentou de novo pode ser o cliente legítimo ou quem o roubou
+        List<String> families = this.jdbcTemplate.queryForList(SELECT_FAMILY_IF_USED, String.class, tokenHash);
+        if (!families.isEmpty()) {
+            this.reuseDetected.increment();
+            log.warn("Refresh token reuse detected, revoking token family {}", families.getFirst());
+            revokeFamily(families.getFirst());
+        }
+        throw new InvalidRefreshTokenException();
+    }
+
+    private void revoke(VerifiedToken accessToken, String refreshToken) {
+        this.revocationStore.revoke(accessToken.jti(), accessToken.expiresAt());
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return;
+        }
+        List<String> families = this.jdbcTemplate.queryForList(
+                "SELECT family_id FROM refresh_tokens WHERE token_hash = ? AND user_login = ?",
+                String.class, hash(refreshToken), accessToken.subject());
+        if (!families.isEmpty()) {
+            revokeFamily(families.getFirst());
+        }
+    }
+
+    /**
+     * Apaga os refresh tokens expirados, que não servem mais nem para detectar reúso.
+     */
+    @Scheduled(fixedDelayString = "${api.security.refresh.cleanup-interval:1h}",
+            initialDelayString = "${api.security.refresh.cleanup-interval:1h}")
+    public void deleteExpired() {
+        int deleted = this.jdbcTemplate.update(DELETE_EXPIRED);
+        log.debug("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private LoginResponseDTO issue(User user, String familyId) {
+        IssuedToken accessToken = this.tokenService.issueToken(user);
+        String refreshToken = newRefreshToken();
+        this.jdbcTemplate.update(INSERT_REFRESH_TOKEN,
+                hash(refreshToken),
+                familyId,
+                user.getLogin(),
+                accessToken.jti(),
+                OffsetDateTime.ofInstant(accessToken.expiresAt(), ZoneOffset.UTC),
+                OffsetDateTime.ofInstant(Instant.now().plus(this.refreshTokenTtl), ZoneOffset.UTC));
+        return new LoginResponseDTO(accessToken.token(), refreshToken);
+    }
+
+    private void revokeFamily(String familyId) {
+        // os tokens de acesso emitidos pela família também são revogados
+        List<IssuedToken> accessTokens = this.jdbcTemplate.query(REVOKE_FAMILY,
+                (rs, rowNum) -> new IssuedToken(null, rs.getString("access_jti"),
+                        rs.getObject("access_expires_at", OffsetDateTime.class).toInstant()),
+                familyId);
+        accessTokens.forEach(token -> this.revocationStore.revoke(token.jti(), token.expiresAt()));
+    }
+
+    private String newRefreshToken() {
+        byte[] bytes = new byte[32];
+        this.random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
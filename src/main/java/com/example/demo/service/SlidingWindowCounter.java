@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador de eventos em janela deslizante, sem locks.
+ * * <p>A janela é dividida em {@code buckets} fatias de tempo. Cada posição do array guarda, em um
+ * único {@code long}, a fatia de tempo (epoch) a que pertence e a contagem dessa fatia. Incrementar
+ * é um CAS na posição da fatia atual; se a posição ainda guarda uma fatia antiga, ela é reaproveitada
+ * com contagem 1. A soma considera apenas as fatias dentro da janela.</p>
+ * * <p>A memória por chave é fixa ({@code buckets} longs), independente da quantidade de eventos.</p>
+ */
+public final class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLongArray buckets;
+    private final long bucketMillis;
+
+    public SlidingWindowCounter(int buckets, long bucketMillis) {
+        this.buckets = new AtomicLongArray(buckets);
+        this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * Registra um evento no instante informado.
+     *
+     * @param nowMillis O instante atual em milissegundos.
+     */
+    public void increment(long nowMillis) {
+        long epoch = nowMillis / this.bucketMillis;
+        int slot = (int) (epoch % this.buckets.length());
+        while (true) {
+            long current = this.buckets.get(slot);
+            long next;
+            if ((current >>> COUNT_BITS) == epoch) {
+                // contagem saturada: a janela já está muito acima de qualquer limite razoável
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    return;
+                }
+                next = current + 1;
+            } else {
+                next = (epoch << COUNT_BITS) | 1;
+            }
+            if (this.buckets.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Soma os eventos registrados dentro da janela que termina no instante informado.
+     *
+     * @param nowMillis O instante atual em milissegundos.
+     * @return A quantidade de eventos na janela.
+     */
+    public int sum(long nowMillis) {
+        long epoch = nowMillis / this.bucketMillis;
+        long oldest = epoch - this.buckets.length() + 1;
+        int sum = 0;
+        for (int i = 0; i < this.buckets.length(); i++) {
+            long value = this.buckets.get(i);
+            long bucketEpoch = value >>> COUNT_BITS;
+            if (bucketEpoch >= oldest && bucketEpoch <= epoch) {
+                sum += (int) (value & COUNT_MASK);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lista de tokens de acesso revogados (pelo {@code jti}), consultada em memória a cada requisição.
+ * * <p>A tabela {@code revoked_tokens} é a fonte da verdade e é compartilhada entre instâncias.
+ * Cada instância mantém uma cópia em memória: um {@link BloomFilter} na frente de um conjunto exato.
+ * Para um token não revogado, que é o caso comum, o filtro responde "não contém" lendo alguns bits,
+ * sem consultar o conjunto nem o banco. Um falso positivo do filtro custa apenas a consulta ao conjunto.</p>
+ * * <p>Revogações feitas nesta instância entram na memória imediatamente; as feitas em outras
+ * instâncias chegam na sincronização incremental ({@code api.security.revocation.sync-interval}).
+ * Periodicamente o filtro é reconstruído sem as entradas expiradas, que também são apagadas do banco.</p>
+ */
+@Slf4j
+@Service
+public class TokenRevocationStore {
+
+    private static final String INSERT_REVOCATION =
+            "INSERT INTO revoked_tokens (jti, expires_at) VALUES (?, ?) ON CONFLICT (jti) DO NOTHING";
+    private static final String SELECT_REVOKED_SINCE =
+            "SELECT jti, expires_at, revoked_at FROM revoked_tokens WHERE revoked_at > ? AND expires_at > now()";
+    private static final String DELETE_EXPIRED = "DELETE FROM revoked_tokens WHERE expires_at <= now()";
+
+    // revogações são lidas com uma sobreposição para não perder transações que confirmaram fora de ordem
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final Counter falsePositives;
+    private final Counter rejected;
+    private volatile Revocations revocations;
+    private volatile Instant watermark = Instant.EPOCH;
+
+    public TokenRevocationStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${api.security.revocation.expected-size:100000}") long expectedRevocations,
+            @Value("${api.security.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.revocations = new Revocations(BloomFilter.create(expectedRevocations, falsePositiveRate));
+
+        this.falsePositives = Counter.builder("auth.token.revocation.false-positives")
+                .description("Revocation filter hits for tokens that are not revoked")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.token.revocation.rejected")
+                .description("Requests rejected because the access token was revoked")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.revocation.size", this, store -> store.revocations.jtis.size())
+                .description("Revoked access tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica se o token de acesso foi revogado. Não acessa o banco.
+     *
+     * @param jti O identificador do token (claim {@code jti}); tokens sem jti nunca são considerados revogados.
+     * @return {@code true} caso o token esteja na lista de revogação.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Revocations current = this.revocations;
+        if (!current.filter.mightContain(jti)) {
+            return false;
+        }
+        if (current.jtis.containsKey(jti)) {
+            this.rejected.increment();
+            return true;
+        }
+        this.falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Revoga um token de acesso até a sua expiração.
+     *
+     * @param jti O identificador do token.
+     * @param expiresAt A expiração do token; depois dela a revogação pode ser descartada.
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        this.jdbcTemplate.update(INSERT_REVOCATION, jti, OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC));
+        this.revocations.add(jti, expiresAt);
+    }
+
+    /**
+     * Traz para a memória as revogações feitas desde a última sincronização (inclusive por outras instâncias).
+     */
+    @Scheduled(fixedDelayString = "${api.security.revocation.sync-interval:5s}",
+            initialDelayString = "${api.security.revocation.sync-interval:5s}")
+    public void sync() {
+        Revocations current = this.revocations;
+        Instant since = this.watermark.minus(SYNC_OVERLAP);
+        this.watermark = load(since, current);
+    }
+
+    /**
+     * Reconstrói o filtro apenas com as revogações ainda válidas e apaga as expiradas do banco.
+     * * <p>O filtro de Bloom não permite remoção; sem a reconstrução ele só cresceria e a taxa de
+     * falsos positivos subiria.</p>
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${api.security.revocation.rebuild-interval:10m}",
+            initialDelayString = "${api.security.revocation.rebuild-interval:10m}")
+    public void rebuild() {
+        int deleted = this.jdbcTemplate.update(DELETE_EXPIRED);
+        long size = Math.max(this.expectedRevocations, this.revocations.jtis.size() * 2L);
+        var rebuilt = new Revocations(BloomFilter.create(size, this.falsePositiveRate));
+        Instant loadedUntil = load(Instant.EPOCH, rebuilt);
+        // revogações locais feitas durante a carga também entram no filtro novo
+        Instant now = Instant.now();
+        this.revocations.jtis.forEach((jti, expiresAt) -> {
+            if (expiresAt.isAfter(now)) {
+                rebuilt.add(jti, expiresAt);
+            }
+        });
+        this.revocations = rebuilt;
+        this.watermark = loadedUntil;
+        log.debug("Revocation filter rebuilt with {} tokens, {} expired removed", rebuilt.jtis.size(), deleted);
+    }
+
+    private Instant load(Instant since, Revocations target) {
+        List<Instant> revokedAt = this.jdbcTemplate.query(SELECT_REVOKED_SINCE, (rs, rowNum) -> {
+            target.add(rs.getString("jti"), rs.getObject("expires_at", OffsetDateTime.class).toInstant());
+            return rs.getObject("revoked_at", OffsetDateTime.class).toInstant();
+        }, OffsetDateTime.ofInstant(since, ZoneOffset.UTC));
+        return revokedAt.stream().max(Instant::compareTo).orElse(this.watermark);
+    }
+
+    /**
+     * Filtro e conjunto exato trocados juntos na reconstrução.
+     */
+    private record Revocations(BloomFilter filter, ConcurrentHashMap<String, Instant> jtis) {
+
+        Revocations(BloomFilter filter) {
+            this(filter, new ConcurrentHashMap<>());
+        }
+
+        void add(String jti, Instant expiresAt) {
+            // o conjunto exato é preenchido antes do filtro: quem vê o bit ligado encontra o jti no conjunto
+            this.jtis.put(jti, expiresAt);
+            this.filter.put(jti);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.user.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Listener JPA da entidade {@link User} que mantém o cache do {@link AuthorizationService} coerente.
+ * * <p>Sempre que um usuário é inserido, alterado (senha, papel) ou removido, o login é removido
+ * do cache. A remoção é repetida após o commit para que uma leitura concorrente feita antes do
+ * commit não deixe no cache o estado antigo (inclusive uma entrada negativa).</p>
+ * * <p>O Hibernate instancia o listener pelo container do Spring; o {@link AuthorizationService}
+ * é resolvido de forma tardia porque ele depende do repositório que está sendo inicializado.</p>
+ */
+@Component
+public class UserCacheEvictionListener {
+
+    private final ObjectProvider<AuthorizationService> authorizationService;
+
+    public UserCacheEvictionListener(ObjectProvider<AuthorizationService> authorizationService) {
+        this.authorizationService = authorizationService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        evict(user.getLogin());
+    }
+
+    private void evict(String login) {
+        AuthorizationService service = this.authorizationService.getIfAvailable();
+        if (service == null || login == null) {
+            return;
+        }
+        service.evict(login);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    service.evict(login);
+                }
+            });
+        }
+    }
+}
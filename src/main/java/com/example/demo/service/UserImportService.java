@@ -0,0 +1,223 @@
+package com.example.demo.service;
+
+import com.example.demo.configuration.BoundedPasswordEncoder;
+import com.example.demo.domain.UuidV7;
+import com.example.demo.domain.user.RegisterDTO;
+import com.example.demo.domain.user.UserImportItemResultDTO;
+import com.example.demo.domain.user.UserImportResponseDTO;
+import com.example.demo.domain.user.UserImportStatus;
+import com.example.demo.exception.ServiceOverloadedException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+@Service
+public class UserImportService {
+
+    // um único INSERT por lote; RETURNING informa quais linhas entraram, as demais são logins duplicados
+    private static final String INSERT_USERS = """
+            INSERT INTO users (id, login, password, role)
+            SELECT * FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[])
+            ON CONFLICT (login) DO NOTHING
+            RETURNING id""";
+
+    private final JsonItemReader itemReader;
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final AuthorizationService authorizationService;
+    private final DatabaseBulkhead bulkhead;
+    private final ForkJoinPool hashingPool;
+    private final int batchSize;
+    private final int maxItems;
+
+    public UserImportService(
+            JsonItemReader itemReader,
+            JdbcTemplate jdbcTemplate,
+            BoundedPasswordEncoder passwordEncoder,
+            AuthorizationService authorizationService,
+            DatabaseBulkhead bulkhead,
+            @Value("${api.user.import.parallelism:0}") int parallelism,
+            @Value("${api.user.import.batch-size:500}") int batchSize,
+            @Value("${api.user.import.max-items:100000}") int maxItems
+    ) {
+        this.itemReader = itemReader;
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder.unbounded();
+        this.authorizationService = authorizationService;
+        this.bulkhead = bulkhead;
+        // por padrão metade dos núcleos, para que logins concorrentes ainda tenham CPU para o BCrypt
+        this.hashingPool = new ForkJoinPool(parallelism > 0
+                ? parallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Cadastra usuários lidos em streaming de um array JSON ou de NDJSON, no formato do {@code /auth/register}.
+     * * <p>Os itens válidos são acumulados em lotes de {@code api.user.import.batch-size}. As senhas de
+     * cada lote são codificadas em paralelo em um {@link ForkJoinPool} próprio, limitado a
+     * {@code api.user.import.parallelism} threads, e o lote é gravado com um único INSERT. Logins já
+     * existentes não são consultados antes: a restrição UNIQUE de {@code users.login} com
+     * {@code ON CONFLICT DO NOTHING} descarta as duplicatas, informadas item a item.</p>
+     * * <p>Um erro de sintaxe no JSON interrompe a carga: os lotes anteriores permanecem gravados
+     * e o erro é informado no campo {@code error}.</p>
+     *
+     * @param input A carga de usuários.
+     * @return O resultado por item e os totais da carga.
+     */
+    public UserImportResponseDTO importUsers(InputStream input) {
+        var results = new ArrayList<UserImportItemResultDTO>();
+        var pending = new ArrayList<PendingUser>(this.batchSize);
+        String error = null;
+        try {
+            this.itemReader.read(input, RegisterDTO.class, item -> {
+                if (item.index() >= this.maxItems) {
+                    throw new ImportLimitExceededException(this.maxItems);
+                }
+                RegisterDTO user = item.value();
+                List<String> errors = item.error() != null ? List.of(item.error()) : validate(user);
+                if (!errors.isEmpty()) {
+                    String login = user != null ? user.login() : null;
+                    results.add(new UserImportItemResultDTO(item.index(), login, UserImportStatus.INVALID, errors));
+                    return;
+                }
+                pending.add(new PendingUser(item.index(), UuidV7.generate(), user));
+                if (pending.size() >= this.batchSize) {
+                    flush(pending, results);
+                }
+            });
+        } catch (JacksonException e) {
+            error = "Malformed JSON: " + e.getOriginalMessage();
+        } catch (ImportLimitExceededException e) {
+            error = e.getMessage();
+        }
+        flush(pending, results);
+        results.sort(Comparator.comparingInt(UserImportItemResultDTO::index));
+
+        int created = 0;
+        int duplicates = 0;
+        for (UserImportItemResultDTO result : results) {
+            if (result.status() == UserImportStatus.CREATED) {
+                created++;
+            } else if (result.status() == UserImportStatus.DUPLICATE) {
+                duplicates++;
+            }
+        }
+        return new UserImportResponseDTO(created, duplicates, results.size() - created - duplicates, results, error);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.hashingPool.shutdownNow();
+    }
+
+    private static List<String> validate(RegisterDTO user) {
+        var errors = new ArrayList<String>();
+        if (user.login() == null || user.login().isBlank()) {
+            errors.add("login: must not be blank");
+        }
+        if (user.password() == null || user.password().isEmpty()) {
+            errors.add("password: must not be blank");
+        }
+        if (user.role() == null) {
+            errors.add("role: must not be null");
+        }
+        return errors;
+    }
+
+    private void flush(List<PendingUser> pending, List<UserImportItemResultDTO> results) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            String[] hashes = hashAll(pending);
+            // o hashing roda antes, sem ocupar a permissão de escrita
+            List<UUID> insertedIds = this.bulkhead.call(DatabaseBulkhead.Workload.WRITE, () ->
+                    this.jdbcTemplate.query(
+                            connection -> insertStatement(connection, pending, hashes),
+                            (rs, rowNum) -> rs.getObject(1, UUID.class)));
+            var inserted = new HashSet<>(insertedIds);
+            for (PendingUser user : pending) {
+                if (inserted.contains(user.id())) {
+                    results.add(new UserImportItemResultDTO(user.index(), user.data().login(), UserImportStatus.CREATED, List.of()));
+                    // o login pode estar no cache negativo do AuthorizationService
+                    this.authorizationService.evict(user.data().login());
+                } else {
+                    results.add(new UserImportItemResultDTO(user.index(), user.data().login(), UserImportStatus.DUPLICATE,
+                            List.of("login: already exists")));
+                }
+            }
+        } catch (DataAccessException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            pending.forEach(user -> results.add(
+                    new UserImportItemResultDTO(user.index(), user.data().login(), UserImportStatus.FAILED, List.of(message))));
+        } catch (ServiceOverloadedException e) {
+            pending.forEach(user -> results.add(
+                    new UserImportItemResultDTO(user.index(), user.data().login(), UserImportStatus.FAILED, List.of(e.getMessage()))));
+        }
+        pending.clear();
+    }
+
+    private String[] hashAll(List<PendingUser> pending) {
+        try {
+            // o parallel stream submetido ao pool roda nas threads dele, não no pool comum
+            return this.hashingPool.submit(() -> pending.parallelStream()
+                    .map(user -> this.passwordEncoder.encode(user.data().password()))
+                    .toArray(String[]::new)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static PreparedStatement insertStatement(Connection connection, List<PendingUser> pending, String[] hashes)
+            throws SQLException {
+        int size = pending.size();
+        var ids = new UUID[size];
+        var logins = new String[size];
+        var roles = new String[size];
+        for (int i = 0; i < size; i++) {
+            PendingUser user = pending.get(i);
+            ids[i] = user.id();
+            logins[i] = user.data().login();
+            roles[i] = user.data().role().name();
+        }
+        PreparedStatement statement = connection.prepareStatement(INSERT_USERS);
+        statement.setArray(1, connection.createArrayOf("uuid", ids));
+        statement.setArray(2, connection.createArrayOf("text", logins));
+        statement.setArray(3, connection.createArrayOf("text", hashes));
+        statement.setArray(4, connection.createArrayOf("text", roles));
+        return statement;
+    }
+
+    private record PendingUser(int index, UUID id, RegisterDTO data) {
+    }
+
+    private static final class ImportLimitExceededException extends RuntimeException {
+        ImportLimitExceededException(int maxItems) {
+            super("Import exceeds the limit of " + maxItems + " users");
+        }
+    }
+}
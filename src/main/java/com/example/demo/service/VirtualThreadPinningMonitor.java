@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta virtual threads presas ao carrier (pinning), com atenção especial ao caminho JDBC.
+ * * <p>Uma virtual thread que bloqueia dentro de um bloco {@code synchronized} (ou de código nativo) não
+ * libera o carrier. Com poucos carriers (um por núcleo), alguns acessos ao banco presos dessa forma bastam
+ * para parar todas as requisições, e o {@link DatabaseBulkhead} não ajuda: a espera acontece depois da
+ * permissão obtida. O monitor assina o evento JFR {@code jdk.VirtualThreadPinned} em um
+ * {@link RecordingStream} dentro do próprio processo, sem gravar arquivo.</p>
+ * * <p>Cada evento acima de {@code api.jvm.pinning-monitor.threshold} é medido no timer
+ * {@code db.virtual-thread.pinned}, com a tag {@code source=jdbc} quando a pilha passa pelo driver, pelo
+ * pool ou pelo Spring JDBC/Hibernate, e {@code source=other} nos demais casos. A primeira ocorrência de
+ * cada ponto de pinning do caminho JDBC é registrada no log com o início da pilha.</p>
+ */
+@Slf4j
+@Service
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final List<String> JDBC_PACKAGES = List.of(
+            "org.postgresql.", "com.zaxxer.hikari.", "org.springframework.jdbc.", "org.hibernate.", "java.sql.");
+    private static final int LOGGED_FRAMES = 12;
+    // limita o log a um aviso por ponto de pinning
+    private static final int MAX_REPORTED_SITES = 256;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Timer pinnedJdbc;
+    private final Timer pinnedOther;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            @Value("${api.jvm.pinning-monitor.enabled:true}") boolean enabled,
+            @Value("${api.jvm.pinning-monitor.threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.pinnedJdbc = pinnedTimer(meterRegistry, "jdbc");
+        this.pinnedOther = pinnedTimer(meterRegistry, "other");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!this.enabled || this.stream != null) {
+            return;
+        }
+        try {
+            this.stream = new RecordingStream();
+        } catch (RuntimeException e) {
+            // ex: imagem nativa gerada sem --enable-monitoring=jfr
+            log.warn("JFR not available, virtual thread pinning monitor disabled: {}", e.getMessage());
+            return;
+        }
+        this.stream.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+        this.stream.onEvent(PINNED_EVENT, this::onPinned);
+        this.stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {})", this.threshold);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (this.stream != null) {
+            this.stream.close();
+            this.stream = null;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        boolean jdbc = frames.stream().anyMatch(VirtualThreadPinningMonitor::isJdbcFrame);
+        (jdbc ? this.pinnedJdbc : this.pinnedOther).record(event.getDuration());
+        if (!jdbc) {
+            return;
+        }
+        String site = frames.stream().filter(VirtualThreadPinningMonitor::isJdbcFrame).findFirst()
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("unknown");
+        if (this.reportedSites.size() < MAX_REPORTED_SITES && this.reportedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms in the JDBC path at {}:\n\t{}",
+                    event.getDuration().toMillis(), site,
+                    frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::describe)
+                            .collect(Collectors.joining("\n\t")));
+        }
+    }
+
+    private static boolean isJdbcFrame(RecordedFrame frame) {
+        if (!frame.isJavaFrame() || frame.getMethod() == null) {
+            return false;
+        }
+        String className = frame.getMethod().getType().getName();
+        return JDBC_PACKAGES.stream().anyMatch(className::startsWith);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        if (frame.getMethod() == null) {
+            return "?";
+        }
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static Timer pinnedTimer(MeterRegistry meterRegistry, String source) {
+        return Timer.builder("db.virtual-thread.pinned")
+                .description("Virtual threads pinned to their carrier while blocked")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
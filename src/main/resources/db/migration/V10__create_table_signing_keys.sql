@@ -0,0 +1,12 @@
+-- chaves de assinatura RS256/ES256 dos tokens, compartilhadas por todas as instâncias
+-- public_key: X.509 (SubjectPublicKeyInfo); private_key: PKCS#8 cifrado com AES-GCM (iv || texto cifrado)
+CREATE TABLE signing_keys (
+    kid TEXT PRIMARY KEY NOT NULL,
+    algorithm TEXT NOT NULL,
+    public_key BYTEA NOT NULL,
+    private_key BYTEA NOT NULL,
+    activates_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX signing_keys_algorithm_idx ON signing_keys (algorithm, activates_at);
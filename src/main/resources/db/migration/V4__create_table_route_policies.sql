@@ -0,0 +1,7 @@
+CREATE TABLE route_policies (
+    id SERIAL PRIMARY KEY,
+    method TEXT,
+    pattern TEXT NOT NULL,
+    access TEXT NOT NULL,
+    role TEXT
+);
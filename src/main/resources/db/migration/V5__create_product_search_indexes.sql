@@ -0,0 +1,12 @@
+-- busca de produtos (GET /product/search)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- prefixo e ordenação por nome: lower(name) com collation "C" compara por bytes (como o text_pattern_ops),
+-- o que permite LIKE 'abc%', ORDER BY e o cursor keyset no mesmo índice, independente da collation do banco
+CREATE INDEX products_name_lower_idx ON products ((lower(name) COLLATE "C"), id);
+
+-- substring: índice de trigramas para LIKE '%abc%'
+CREATE INDEX products_name_trgm_idx ON products USING gin (lower(name) gin_trgm_ops);
+
+-- faixa e ordenação por preço
+CREATE INDEX products_price_idx ON products (price, id);
@@ -0,0 +1,31 @@
+-- feed de alterações (GET /product/changes): cada inserção ou atualização recebe uma versão nova, crescente
+CREATE SEQUENCE products_version_seq;
+
+ALTER TABLE products
+    ADD COLUMN version BIGINT,
+    ADD COLUMN updated_at TIMESTAMPTZ;
+
+UPDATE products SET version = nextval('products_version_seq'), updated_at = now();
+
+-- clock_timestamp() é o instante da escrita da linha, não o início da transação
+ALTER TABLE products
+    ALTER COLUMN version SET DEFAULT nextval('products_version_seq'),
+    ALTER COLUMN version SET NOT NULL,
+    ALTER COLUMN updated_at SET DEFAULT clock_timestamp(),
+    ALTER COLUMN updated_at SET NOT NULL;
+
+ALTER SEQUENCE products_version_seq OWNED BY products.version;
+
+CREATE UNIQUE INDEX products_version_idx ON products (version);
+
+CREATE FUNCTION products_touch_version() RETURNS trigger AS $$
+BEGIN
+    NEW.version := nextval('products_version_seq');
+    NEW.updated_at := clock_timestamp();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER products_touch_version
+    BEFORE UPDATE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_touch_version();
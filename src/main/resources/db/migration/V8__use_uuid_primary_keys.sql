@@ -0,0 +1,12 @@
+-- chaves primárias uuid nativas: 16 bytes por chave em vez de 36 caracteres de texto, nos índices que incluem o id
+-- (products_pkey, products_name_lower_idx, products_price_idx, users_pkey); os ids novos são UUIDv7, crescentes
+-- no tempo, e entram no fim do índice em vez de em páginas aleatórias
+
+-- o UNIQUE declarado junto com a PRIMARY KEY (V1/V2) repete o índice da chave; o Postgres já o descarta na
+-- criação, mas bancos criados por outro caminho podem ter a constraint
+ALTER TABLE products DROP CONSTRAINT IF EXISTS products_id_key;
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_id_key;
+
+-- reescreve as tabelas e reconstrói os índices; os ids existentes (UUIDv4 em texto) são convertidos sem mudar
+ALTER TABLE products ALTER COLUMN id TYPE uuid USING id::uuid;
+ALTER TABLE users ALTER COLUMN id TYPE uuid USING id::uuid;
@@ -0,0 +1,19 @@
+-- feed de alterações: a transação de cada escrita. O feed segue a ordem (txid, version) e só avança sobre
+-- transações anteriores ao xmin do snapshot, que já terminaram; a versão sozinha é atribuída antes do commit
+-- e uma transação mais lenta pode confirmar uma versão menor que outra já lida.
+-- As linhas existentes já estão confirmadas e ficam com 0 (o default constante não reescreve a tabela)
+ALTER TABLE products ADD COLUMN txid BIGINT NOT NULL DEFAULT 0;
+
+-- pg_current_xact_id() é o id (xid8) da transação de topo, o mesmo usado por pg_current_snapshot()
+ALTER TABLE products ALTER COLUMN txid SET DEFAULT pg_current_xact_id()::text::bigint;
+
+CREATE UNIQUE INDEX products_txid_version_idx ON products (txid, version);
+
+CREATE OR REPLACE FUNCTION products_touch_version() RETURNS trigger AS $$
+BEGIN
+    NEW.version := nextval('products_version_seq');
+    NEW.updated_at := clock_timestamp();
+    NEW.txid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,95 @@
+package com.example.demo;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PostgreSQL embutido para os testes, sem Docker nem Postgres local: os binários vêm como dependência Maven
+ * e um único servidor é iniciado por JVM, na primeira vez que é usado.
+ * * <p>Cada contexto de teste ou chamada a {@link #migrated()} recebe um banco novo, migrado pelas mesmas
+ * migrações de {@code db/migration} que rodam em produção (pg_trgm, triggers, sequências).</p>
+ * * <p>Nos testes de contexto: {@code @ContextConfiguration(initializers = EmbeddedPostgresDatabase.Initializer.class)}.</p>
+ */
+public final class EmbeddedPostgresDatabase {
+
+    private static final String USER = "postgres";
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private EmbeddedPostgresDatabase() {
+    }
+
+    /**
+     * @return Um banco novo, já migrado pelo Flyway.
+     */
+    public static DataSource migrated() {
+        var dataSource = new DriverManagerDataSource(jdbcUrl(createDatabase()), USER, "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        return dataSource;
+    }
+
+    private static String createDatabase() {
+        String database = "test_" + DATABASES.incrementAndGet();
+        try (Connection connection = Server.INSTANCE.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create test database " + database, e);
+        }
+        return database;
+    }
+
+    private static String jdbcUrl(String database) {
+        return "jdbc:postgresql://localhost:" + Server.INSTANCE.getPort() + "/" + database + "?reWriteBatchedInserts=true";
+    }
+
+    /**
+     * Aponta o JDBC (e o R2DBC, no modo reativo) da aplicação para um banco novo; o Flyway da aplicação o migra.
+     */
+    public static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            String database = createDatabase();
+            TestPropertyValues.of(
+                    "spring.datasource.url=" + jdbcUrl(database),
+                    "spring.datasource.username=" + USER,
+                    "spring.datasource.password=",
+                    "spring.r2dbc.url=r2dbc:postgresql://localhost:" + Server.INSTANCE.getPort() + "/" + database
+            ).applyTo(context);
+        }
+    }
+
+    // iniciado na primeira chamada e encerrado junto com a JVM
+    private static final class Server {
+
+        private static final EmbeddedPostgres INSTANCE = start();
+
+        private static EmbeddedPostgres start() {
+            try {
+                EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+                Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().unstarted(() -> {
+                    try {
+                        postgres.close();
+                    } catch (IOException ignored) {
+                        // a JVM já está encerrando
+                    }
+                }));
+                return postgres;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+@ContextConfiguration(initializers = EmbeddedPostgresDatabase.Initializer.class)
+class ReactiveApplicationTests {
+
+	@Autowired
+	private SecurityWebFilterChain securityWebFilterChain;
+
+	@Test
+	void contextLoads() {
+		assertThat(this.securityWebFilterChain).isNotNull();
+	}
+
+}
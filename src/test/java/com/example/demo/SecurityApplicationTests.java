@@ -1,13 +1,58 @@
 package com.example.demo;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresDatabase.Initializer.class)
 class SecurityApplicationTests {
 
+	@Autowired
+	private MockMvc mockMvc;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void encodedPathsDoNotBypassAdminRoutes() throws Exception {
+		String token = userToken();
+		String product = "{\"name\":\"encoded\",\"price\":10}";
+
+		for (String path : new String[]{"/product", "/%70roduct", "/product/b%61tch", "/auth/register/b%61tch"}) {
+			this.mockMvc.perform(post(URI.create(path))
+							.header("Authorization", "Bearer " + token)
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(path.contains("batch") ? "[" + product + "]" : product))
+					.andExpect(status().isForbidden());
+		}
+	}
+
+	private String userToken() throws Exception {
+		String login = "user-" + UUID.randomUUID();
+		String credentials = "{\"login\":\"" + login + "\",\"password\":\"secret-password\"";
+		this.mockMvc.perform(post("/auth/register")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(credentials + ",\"role\":\"USER\"}"))
+				.andExpect(status().isOk());
+		String response = this.mockMvc.perform(post("/auth/login")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(credentials + "}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return response.replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+	}
+
 }
@@ -0,0 +1,41 @@
+package com.example.demo.configuration;
+
+import com.example.demo.domain.product.Product;
+import com.example.demo.domain.product.ProductPageResponseDTO;
+import com.example.demo.domain.product.ProductResponseDTO;
+import com.example.demo.domain.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApplicationRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    ApplicationRuntimeHintsTest() {
+        new ApplicationRuntimeHints().registerHints(this.hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void entitiesAndDtosAreReflectable() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(User.class)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.ACCESS_DECLARED_FIELDS))
+                .accepts(this.hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Product.class)).accepts(this.hints);
+        // os itens da página entram junto com o record que os contém
+        assertThat(RuntimeHintsPredicates.reflection().onType(ProductPageResponseDTO.class)).accepts(this.hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ProductResponseDTO.class)).accepts(this.hints);
+    }
+
+    @Test
+    void jwtSerializersAreReflectable() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("com.auth0.jwt.impl.PayloadDeserializer")))
+                .accepts(this.hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("com.auth0.jwt.impl.HeaderSerializer")))
+                .accepts(this.hints);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.configuration;
+
+import com.example.demo.domain.enums.UserRole;
+import com.example.demo.domain.user.User;
+import com.example.demo.exception.ServiceOverloadedException;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AuthorizationService;
+import com.example.demo.service.DatabaseBulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<BoundedPasswordEncoder> encoders = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        this.encoders.forEach(BoundedPasswordEncoder::close);
+    }
+
+    @Test
+    void rejectsWhenThePoolAndQueueAreFull() throws Exception {
+        var release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return "hash";
+        });
+        var encoder = track(new BoundedPasswordEncoder(slow, 1, 1, Duration.ofSeconds(2), this.meterRegistry));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // uma tarefa ocupa a única thread e a segunda ocupa a única vaga da fila
+            Future<String> running = executor.submit(() -> encoder.encode("a"));
+            await(() -> encoder.activeCount() == 1);
+            Future<String> queued = executor.submit(() -> encoder.encode("b"));
+            await(() -> encoder.queueDepth() == 1);
+
+            try {
+                assertThatThrownBy(() -> encoder.encode("c"))
+                        .isInstanceOfSatisfying(ServiceOverloadedException.class, e -> {
+                            assertThat(e.getMessage()).isEqualTo("Password hashing capacity exhausted");
+                            assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2));
+                        });
+            } finally {
+                release.countDown();
+            }
+            assertThat(running.get(1, TimeUnit.SECONDS)).isEqualTo("hash");
+            assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("hash");
+        }
+        assertThat(this.meterRegistry.get("auth.password.hashing").tag("operation", "encode").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void flagsHashesWithoutPrefixOrWithALowerCostForUpgrade() {
+        var encoder = configured(5);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void rehashesAnOutdatedHashOnLogin() {
+        var encoder = configured(5);
+        UserRepository repository = mock(UserRepository.class);
+        // hash gravado antes do DelegatingPasswordEncoder: sem prefixo e com custo menor
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        when(repository.findByLogin("ana")).thenReturn(Optional.of(new User("ana", legacy, UserRole.USER)));
+        var authorizationService = authorizationService(repository);
+
+        var provider = new DaoAuthenticationProvider(authorizationService);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(authorizationService);
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("ana", "secret"));
+
+        var rehashed = ArgumentCaptor.forClass(String.class);
+        verify(repository).updatePassword(eq("ana"), rehashed.capture());
+        assertThat(rehashed.getValue()).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder.matches("secret", rehashed.getValue())).isTrue();
+    }
+
+    @Test
+    void keepsACurrentHashOnLogin() {
+        var encoder = configured(5);
+        UserRepository repository = mock(UserRepository.class);
+        when(repository.findByLogin("ana")).thenReturn(Optional.of(new User("ana", encoder.encode("secret"), UserRole.USER)));
+        var authorizationService = authorizationService(repository);
+
+        var provider = new DaoAuthenticationProvider(authorizationService);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(authorizationService);
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("ana", "secret"));
+
+        verify(repository, never()).updatePassword(eq("ana"), anyString());
+    }
+
+    private BoundedPasswordEncoder configured(int bcryptCost) {
+        return track(new PasswordEncoderConfiguration().passwordEncoder(bcryptCost, 1, 4, Duration.ofSeconds(1),
+                this.meterRegistry));
+    }
+
+    private BoundedPasswordEncoder track(BoundedPasswordEncoder encoder) {
+        this.encoders.add(encoder);
+        return encoder;
+    }
+
+    private AuthorizationService authorizationService(UserRepository repository) {
+        var bulkhead = new DatabaseBulkhead(false, Duration.ofSeconds(1),
+                1, Duration.ofMillis(50), 1,
+                1, Duration.ofMillis(50), 1,
+                1, Duration.ofMillis(50), 1,
+                this.meterRegistry);
+        return new AuthorizationService(repository, bulkhead, 100, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                this.meterRegistry);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met within 5s").isNegative();
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+    private final DataSource primary = dataSource(this.primaryConnection);
+    private final DataSource first = dataSource(this.firstConnection);
+    private final DataSource second = dataSource(this.secondConnection);
+    private final ReplicaStickiness stickiness = new ReplicaStickiness(Duration.ofMinutes(1), 100);
+    private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(this.primary, List.of(
+            new ReplicaRoutingDataSource.Replica("replica-1", this.first),
+            new ReplicaRoutingDataSource.Replica("replica-2", this.second)
+    ), this.stickiness, this.meterRegistry);
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void alternatesBetweenReplicas() throws SQLException {
+        assertThat(List.of(this.routing.getConnection(), this.routing.getConnection(), this.routing.getConnection()))
+                .containsExactly(this.firstConnection, this.secondConnection, this.firstConnection);
+    }
+
+    @Test
+    void skipsFailedReplicaUntilHealthCheckSucceeds() throws SQLException {
+        when(this.first.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+
+        assertThat(this.routing.getConnection()).isSameAs(this.secondConnection);
+        assertThat(this.routing.getConnection()).isSameAs(this.secondConnection);
+        assertThat(this.meterRegistry.get("db.replica.healthy").tag("replica", "replica-1").gauge().value()).isZero();
+
+        // a réplica voltou
+        doReturn(this.firstConnection).when(this.first).getConnection();
+        when(this.firstConnection.isValid(2)).thenReturn(true);
+        when(this.secondConnection.isValid(2)).thenReturn(true);
+        this.routing.checkHealth();
+        assertThat(List.of(this.routing.getConnection(), this.routing.getConnection()))
+                .containsExactlyInAnyOrder(this.firstConnection, this.secondConnection);
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenNoReplicaIsAvailable() throws SQLException {
+        when(this.first.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+        when(this.second.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+
+        assertThat(this.routing.getConnection()).isSameAs(this.primaryConnection);
+        assertThat(this.routing.getConnection()).isSameAs(this.primaryConnection);
+        assertThat(this.meterRegistry.get("db.replica.reads").tags("target", "primary", "reason", "failover")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void readsFromPrimaryAfterOwnWriteAndWhenForced() throws SQLException {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                "writer", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        this.stickiness.afterCommit(transaction(true), null);
+        assertThat(this.routing.getConnection()).isSameAs(this.firstConnection);
+
+        this.stickiness.afterCommit(transaction(false), null);
+        assertThat(this.routing.getConnection()).isSameAs(this.primaryConnection);
+
+        // outro usuário continua lendo das réplicas
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                "reader", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        assertThat(this.routing.getConnection()).isSameAs(this.secondConnection);
+
+        Connection[] forced = new Connection[1];
+        ReplicaRoutingDataSource.runOnPrimary(() -> forced[0] = connection());
+        assertThat(forced[0]).isSameAs(this.primaryConnection);
+        assertThat(ReplicaRoutingDataSource.callOnPrimary(this::connection)).isSameAs(this.primaryConnection);
+        assertThat(this.routing.getConnection()).isSameAs(this.firstConnection);
+    }
+
+    private Connection connection() {
+        try {
+            return this.routing.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataSource dataSource(Connection connection) {
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            when(dataSource.getConnection()).thenReturn(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+
+    private static TransactionExecution transaction(boolean readOnly) {
+        TransactionExecution transaction = mock(TransactionExecution.class);
+        when(transaction.isReadOnly()).thenReturn(readOnly);
+        return transaction;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouteTableTest {
+
+    private final RouteTable table = RouteTable.compile(List.of(
+            RoutePolicy.permitAll("POST", "/auth/login"),
+            RoutePolicy.hasRole("POST", "/product", "ADMIN"),
+            RoutePolicy.hasRole(null, "/admin/**", "ADMIN"),
+            RoutePolicy.permitAll("GET", "/docs/**"),
+            RoutePolicy.authenticated("GET", "/docs/private/**")
+    ));
+
+    @Test
+    void exactPathsAreMatchedPerMethod() {
+        assertThat(table.match("POST", "/auth/login").access()).isEqualTo(RoutePolicy.Access.PUBLIC);
+        assertThat(table.match("POST", "/product").role()).isEqualTo("ADMIN");
+        // mesmo caminho com outro método cai na regra padrão
+        assertThat(table.match("GET", "/product").access()).isEqualTo(RoutePolicy.Access.AUTHENTICATED);
+    }
+
+    @Test
+    void encodedPathsMatchTheDecodedRoute() {
+        // o MVC decodifica o caminho antes de escolher o controller; a regra tem que ver o mesmo caminho
+        assertThat(table.match("POST", "/%70roduct").role()).isEqualTo("ADMIN");
+        assertThat(table.match("POST", "/%61uth/login").access()).isEqualTo(RoutePolicy.Access.PUBLIC);
+        assertThat(table.match("DELETE", "/%61dmin/users/1").role()).isEqualTo("ADMIN");
+        assertThat(table.match("POST", "/product;jsessionid=1").role()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    void actuatorEndpointsOtherThanHealthRequireAdmin() {
+        RouteTable defaults = RouteTable.compile(RoutePolicy.defaults());
+
+        assertThat(defaults.match("GET", "/actuator/health").access()).isEqualTo(RoutePolicy.Access.PUBLIC);
+        assertThat(defaults.match("GET", "/actuator/prometheus").role()).isEqualTo("ADMIN");
+        assertThat(defaults.match("GET", "/actuator/metrics/auth.login").role()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    void mostSpecificPatternWins() {
+        assertThat(table.match("GET", "/docs/intro").access()).isEqualTo(RoutePolicy.Access.PUBLIC);
+        assertThat(table.match("GET", "/docs/private/keys").access()).isEqualTo(RoutePolicy.Access.AUTHENTICATED);
+    }
+
+    @Test
+    void anyMethodPatternsApplyToEveryMethod() {
+        assertThat(table.match("DELETE", "/admin/users/1").role()).isEqualTo("ADMIN");
+        assertThat(table.match("GET", "/admin").role()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    void laterPolicyReplacesEarlierOneForSameRoute() {
+        var overridden = RouteTable.compile(List.of(
+                RoutePolicy.permitAll("GET", "/status"),
+                RoutePolicy.hasRole("GET", "/status", "ADMIN")
+        ));
+
+        assertThat(overridden.match("GET", "/status").access()).isEqualTo(RoutePolicy.Access.ROLE);
+    }
+
+    @Test
+    void rolePolicyWithoutRoleIsRejected() {
+        assertThatThrownBy(() -> RouteTable.compile(List.of(new RoutePolicy("GET", "/x", RoutePolicy.Access.ROLE, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
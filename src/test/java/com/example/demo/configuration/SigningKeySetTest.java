@@ -0,0 +1,92 @@
+package com.example.demo.configuration;
+
+import com.auth0.jwt.JWT;
+import com.example.demo.EmbeddedPostgresDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningKeySetTest {
+
+    private final DataSource dataSource = EmbeddedPostgresDatabase.migrated();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+
+    @Test
+    void instancesShareTheKeysAndSurviveARestart() {
+        SigningKeySet first = instance("ES256", "secret", Duration.ofDays(1));
+        SigningKeySet second = instance("ES256", "secret", Duration.ofDays(1));
+        String token = sign(first);
+
+        assertThat(second.verify(token).getSubject()).isEqualTo("ana");
+        assertThat(kids(second)).isEqualTo(kids(first)).hasSize(1);
+        assertThat(instance("ES256", "secret", Duration.ofDays(1)).verify(token).getSubject()).isEqualTo("ana");
+        assertThat(this.jdbcTemplate.queryForObject("SELECT count(*) FROM signing_keys", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void publishesTheNextKeyOneJwksLifetimeBeforeItSigns() {
+        // a rotação vence dentro do max-age do JWKS: a próxima chave já precisa ser publicada
+        SigningKeySet signingKeys = instance("RS256", "secret", Duration.ofMinutes(5));
+        String kid = signingKeys.current().kid();
+
+        signingKeys.refresh();
+
+        assertThat(kids(signingKeys)).hasSize(2).startsWith(kid);
+        assertThat(signingKeys.current().kid()).isEqualTo(kid);
+        Instant activatesAt = this.jdbcTemplate.queryForObject(
+                "SELECT max(activates_at) FROM signing_keys", Timestamp.class).toInstant();
+        assertThat(activatesAt).isAfter(Instant.now().plus(Duration.ofMinutes(4)));
+
+        // as outras instâncias publicam a mesma chave sem criar outra
+        assertThat(kids(instance("RS256", "secret", Duration.ofMinutes(5)))).isEqualTo(kids(signingKeys));
+    }
+
+    @Test
+    void concurrentInstancesCreateASingleKey() throws Exception {
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            Callable<SigningKeySet> start = () -> instance("ES256", "secret", Duration.ofDays(1));
+            var started = executor.invokeAll(List.of(start, start, start, start));
+            for (var instance : started) {
+                assertThat(kids(instance.get())).hasSize(1);
+            }
+        }
+        assertThat(this.jdbcTemplate.queryForObject("SELECT count(*) FROM signing_keys", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void refusesKeysEncryptedWithAnotherSecret() {
+        instance("ES256", "secret", Duration.ofDays(1));
+
+        assertThatThrownBy(() -> instance("ES256", "other-secret", Duration.ofDays(1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private SigningKeySet instance(String algorithm, String secret, Duration rotationInterval) {
+        return new SigningKeySet(algorithm, secret, rotationInterval, Duration.ofHours(1), Duration.ofMinutes(5),
+                this.jdbcTemplate, new DataSourceTransactionManager(this.dataSource));
+    }
+
+    private static String sign(SigningKeySet signingKeys) {
+        SigningKeySet.SigningKey key = signingKeys.current();
+        return JWT.create()
+                .withIssuer(signingKeys.issuer())
+                .withKeyId(key.kid())
+                .withSubject("ana")
+                .sign(key.algorithm());
+    }
+
+    private static List<Object> kids(SigningKeySet signingKeys) {
+        return signingKeys.publicKeys().stream().map(jwk -> (Object) jwk.get("kid")).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.configuration;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.demo.domain.enums.UserRole;
+import com.example.demo.domain.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenServiceTest {
+
+    private static final UUID USER_ID = UUID.fromString("0190c9d2-6f1a-7b3e-9c4d-2a1b3c4d5e6f");
+
+    private final TokenService tokenService = tokenService(new SigningKeySet("HS256", "test-secret", Duration.ofDays(1), Duration.ofHours(1), Duration.ofMinutes(5), null, null));
+
+    private static TokenService tokenService(SigningKeySet signingKeys) {
+        return new TokenService(signingKeys, 100, Duration.ofMinutes(15), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void validTokenIsVerifiedOnceAndServedFromCache() {
+        String token = tokenService.generateToken(new User("ana", "hash", UserRole.USER));
+
+        assertThat(tokenService.validateToken(token)).isEqualTo("ana");
+        assertThat(tokenService.validateToken(token)).isEqualTo("ana");
+
+        assertThat(tokenService.cacheStats().missCount()).isEqualTo(1);
+        assertThat(tokenService.cacheStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void roleAndUserIdTravelAsClaims() {
+        String token = tokenService.generateToken(new User(USER_ID, "ana", "hash", UserRole.ADMIN));
+
+        assertThat(tokenService.verifyToken(token)).hasValueSatisfying(verified -> {
+            assertThat(verified.subject()).isEqualTo("ana");
+            assertThat(verified.userId()).isEqualTo(USER_ID.toString());
+            assertThat(verified.role()).isEqualTo(UserRole.ADMIN);
+            assertThat(verified.hasPrincipalClaims()).isTrue();
+        });
+    }
+
+    @Test
+    void everyTokenHasItsOwnJtiAndShortExpiry() {
+        var user = new User(USER_ID, "ana", "hash", UserRole.USER);
+        IssuedToken first = tokenService.issueToken(user);
+        IssuedToken second = tokenService.issueToken(user);
+
+        assertThat(first.jti()).isNotEqualTo(second.jti());
+        assertThat(first.expiresAt()).isBefore(Instant.now().plus(Duration.ofMinutes(16)));
+        assertThat(tokenService.verifyToken(first.token()))
+                .hasValueSatisfying(verified -> assertThat(verified.jti()).isEqualTo(first.jti()));
+    }
+
+    @Test
+    void tamperedTokenIsRejectedAndNotCached() {
+        String token = tokenService.generateToken(new User("ana", "hash", UserRole.USER));
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThat(tokenService.validateToken(tampered)).isEmpty();
+        assertThat(tokenService.validateToken(tampered)).isEmpty();
+
+        assertThat(tokenService.cacheStats().hitCount()).isZero();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String expired = JWT.create()
+                .withIssuer("spring-security")
+                .withSubject("ana")
+                .withExpiresAt(Instant.now().minusSeconds(60))
+                .sign(Algorithm.HMAC256("test-secret"));
+
+        assertThat(tokenService.validateToken(expired)).isEmpty();
+    }
+
+    @Test
+    void asymmetricTokensCarryKidAndSurviveRotationDuringOverlap() {
+        // rotação vencida a cada verificação e a próxima chave assinando logo que publicada
+        var signingKeys = new SigningKeySet("ES256", "unused", Duration.ZERO, Duration.ofHours(1), Duration.ZERO, null, null);
+        var service = tokenService(signingKeys);
+        String beforeRotation = service.generateToken(new User("ana", "hash", UserRole.USER));
+
+        signingKeys.refresh();
+        String afterRotation = service.generateToken(new User("ana", "hash", UserRole.USER));
+
+        assertThat(JWT.decode(beforeRotation).getKeyId()).isNotEqualTo(JWT.decode(afterRotation).getKeyId());
+        assertThat(signingKeys.publicKeys()).hasSize(2);
+        assertThat(tokenService(signingKeys).validateToken(beforeRotation)).isEqualTo("ana");
+        assertThat(tokenService(signingKeys).validateToken(afterRotation)).isEqualTo("ana");
+    }
+
+    @Test
+    void tokenSignedByUnknownKeyIsRejected() {
+        String foreign = tokenService(new SigningKeySet("ES256", "unused", Duration.ofDays(1), Duration.ofHours(1), Duration.ofMinutes(5), null, null))
+                .generateToken(new User("ana", "hash", UserRole.USER));
+
+        assertThat(tokenService(new SigningKeySet("ES256", "unused", Duration.ofDays(1), Duration.ofHours(1), Duration.ofMinutes(5), null, null)).validateToken(foreign)).isEmpty();
+        assertThat(tokenService.validateToken(foreign)).isEmpty();
+    }
+}
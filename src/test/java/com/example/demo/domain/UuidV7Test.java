@@ -0,0 +1,63 @@
+package com.example.demo.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    @Test
+    void carriesVersionVariantAndCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.generate();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        // os 48 bits mais altos são o instante em milissegundos (pode avançar 1 ms se o contador estourar)
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    void sequentialIdsSortInCreationOrderAsBytesAndAsText() {
+        UUID previous = UuidV7.generate();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7.generate();
+            // a ordem do Postgres (uuid) e a de texto (índice em memória) são ambas sem sinal, byte a byte
+            assertThat(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()))
+                    .isPositive();
+            assertThat(next.toString()).isGreaterThan(previous.toString());
+            previous = next;
+        }
+    }
+
+    @Test
+    void concurrentGenerationNeverRepeats() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        var ids = new HashSet<UUID>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<List<UUID>>>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    var generated = new ArrayList<UUID>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        generated.add(UuidV7.generate());
+                    }
+                    return generated;
+                }));
+            }
+            for (Future<List<UUID>> future : futures) {
+                ids.addAll(future.get());
+            }
+        }
+        assertThat(ids).hasSize(threads * perThread);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import com.example.demo.EmbeddedPostgresDatabase;
+import com.example.demo.domain.audit.AuditEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource dataSource = EmbeddedPostgresDatabase.migrated();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+    private AuditLogService service;
+
+    @AfterEach
+    void stopService() {
+        this.service.stop();
+    }
+
+    @Test
+    void flushesAsSoonAsTheBatchIsFull() {
+        start(16, 3, Duration.ofHours(1), "drop", Duration.ZERO);
+
+        record(3);
+        await(() -> outcome("written") == 3);
+
+        // lote incompleto espera o intervalo
+        record(2);
+        pause();
+        assertThat(writtenCount()).isEqualTo(3);
+        assertThat(this.meterRegistry.summary("audit.flush.size").max()).isEqualTo(3);
+    }
+
+    @Test
+    void flushesAPartialBatchAfterTheInterval() {
+        start(16, 100, Duration.ofMillis(100), "drop", Duration.ZERO);
+
+        record(2);
+
+        await(() -> outcome("written") == 2);
+        assertThat(writtenCount()).isEqualTo(2);
+        assertThat(this.meterRegistry.summary("audit.flush.size").totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void dropsEventsWhenTheQueueIsFull() throws SQLException {
+        start(2, 1, Duration.ofMillis(10), "drop", Duration.ZERO);
+
+        try (Connection lock = lockAuditTable()) {
+            fillQueueBehindBlockedWriter();
+
+            record(1);
+            assertThat(outcome("dropped")).isEqualTo(1);
+            lock.commit();
+        }
+
+        await(() -> writtenCount() == 3);
+        assertThat(outcome("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void blocksUntilTheQueueHasRoomWithTheBlockPolicy() throws Exception {
+        start(2, 1, Duration.ofMillis(10), "block", Duration.ofSeconds(10));
+
+        CompletableFuture<Void> blocked;
+        try (Connection lock = lockAuditTable()) {
+            fillQueueBehindBlockedWriter();
+
+            blocked = CompletableFuture.runAsync(() -> record(1));
+            pause();
+            assertThat(blocked).isNotDone();
+            lock.commit();
+        }
+
+        blocked.get();
+        await(() -> writtenCount() == 4);
+        assertThat(outcome("dropped")).isZero();
+    }
+
+    @Test
+    void blockPolicyDropsAfterTheTimeout() throws SQLException {
+        start(2, 1, Duration.ofMillis(10), "block", Duration.ofMillis(50));
+
+        try (Connection lock = lockAuditTable()) {
+            fillQueueBehindBlockedWriter();
+
+            record(1);
+            assertThat(outcome("dropped")).isEqualTo(1);
+            lock.commit();
+        }
+        await(() -> writtenCount() == 3);
+    }
+
+    @Test
+    void stopWritesWhatIsLeftInTheQueue() {
+        start(16, 100, Duration.ofHours(1), "drop", Duration.ZERO);
+
+        record(5);
+        this.service.stop();
+
+        assertThat(writtenCount()).isEqualTo(5);
+        assertThat(outcome("written")).isEqualTo(5);
+    }
+
+    private void start(int capacity, int batchSize, Duration flushInterval, String overflowPolicy, Duration blockTimeout) {
+        this.service = new AuditLogService(true, capacity, batchSize, flushInterval, overflowPolicy, blockTimeout,
+                Duration.ofSeconds(10), this.jdbcTemplate, this.meterRegistry);
+        this.service.start();
+    }
+
+    // o primeiro evento fica preso no INSERT da thread de escrita e os dois seguintes enchem a fila
+    private void fillQueueBehindBlockedWriter() {
+        record(1);
+        await(() -> this.meterRegistry.get("audit.queue.depth").gauge().value() == 0);
+        record(2);
+        assertThat(this.meterRegistry.get("audit.queue.depth").gauge().value()).isEqualTo(2);
+    }
+
+    private Connection lockAuditTable() throws SQLException {
+        Connection connection = this.dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.createStatement().execute("LOCK TABLE audit_events IN ACCESS EXCLUSIVE MODE");
+        return connection;
+    }
+
+    private void record(int events) {
+        for (int i = 0; i < events; i++) {
+            this.service.record(AuditEventType.LOGIN_SUCCESS, "ana", "127.0.0.1", null);
+        }
+    }
+
+    private Integer writtenCount() {
+        return this.jdbcTemplate.queryForObject("SELECT count(*) FROM audit_events", Integer.class);
+    }
+
+    private double outcome(String outcome) {
+        return this.meterRegistry.get("audit.events").tag("outcome", outcome).counter().count();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met within 5s").isNegative();
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.enums.UserRole;
+import com.example.demo.domain.user.User;
+import com.example.demo.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthorizationServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserRepository repository = mock(UserRepository.class);
+    // uma permissão auth, espera de 50ms e fila de 1: só passa quem não disputa a permissão
+    private final DatabaseBulkhead bulkhead = new DatabaseBulkhead(true, Duration.ofSeconds(1),
+            1, Duration.ofMillis(50), 1,
+            1, Duration.ofMillis(50), 1,
+            1, Duration.ofMillis(50), 1,
+            this.meterRegistry);
+    private final AuthorizationService service = new AuthorizationService(this.repository, this.bulkhead,
+            100, Duration.ofMinutes(5), Duration.ofSeconds(30), this.meterRegistry);
+
+    @Test
+    void concurrentMissesShareOneQueryAndOnePermit() throws Exception {
+        var release = new CountDownLatch(1);
+        var user = new User("ana", "hash", UserRole.USER);
+        when(this.repository.findByLogin("ana")).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(user);
+        });
+
+        var lookups = new ArrayList<Future<Optional<UserDetails>>>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                lookups.add(executor.submit(() -> this.service.findByLogin("ana")));
+            }
+            while (this.bulkhead.activeCount(DatabaseBulkhead.Workload.AUTH) < 1) {
+                Thread.onSpinWait();
+            }
+            // os que aguardam a consulta em andamento não ocupam nem esperam permissões
+            Thread.sleep(100);
+            release.countDown();
+            for (var lookup : lookups) {
+                assertThat(lookup.get(1, TimeUnit.SECONDS)).containsSame(user);
+            }
+        }
+        verify(this.repository, times(1)).findByLogin("ana");
+        assertThat(this.bulkhead.activeCount(DatabaseBulkhead.Workload.AUTH)).isZero();
+    }
+
+    @Test
+    void callerHoldingAPermitQueriesOnItsOwnThread() {
+        var user = new User("ana", "hash", UserRole.USER);
+        when(this.repository.findByLogin("ana")).thenReturn(Optional.of(user));
+
+        Optional<UserDetails> found = this.bulkhead.call(DatabaseBulkhead.Workload.AUTH, () -> this.service.findByLogin("ana"));
+
+        assertThat(found).containsSame(user);
+        assertThat(this.bulkhead.activeCount(DatabaseBulkhead.Workload.AUTH)).isZero();
+    }
+}
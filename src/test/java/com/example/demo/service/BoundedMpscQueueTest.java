@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedMpscQueueTest {
+
+    @Test
+    void roundsCapacityUpAndRejectsWhenFull() {
+        var queue = new BoundedMpscQueue<Integer>(3);
+        assertThat(queue.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(queue.offer(i)).isTrue();
+        }
+        assertThat(queue.offer(4)).isFalse();
+        assertThat(queue.size()).isEqualTo(4);
+
+        // libera uma posição, que volta a aceitar na próxima volta do array
+        assertThat(queue.poll()).isZero();
+        assertThat(queue.offer(4)).isTrue();
+        assertThat(queue.offer(5)).isFalse();
+    }
+
+    @Test
+    void keepsFifoOrderAcrossWrapAround() {
+        var queue = new BoundedMpscQueue<Integer>(4);
+        var polled = new ArrayList<Integer>();
+        for (int i = 0; i < 10; i++) {
+            queue.offer(i);
+            if (i % 2 == 1) {
+                polled.add(queue.poll());
+                polled.add(queue.poll());
+            }
+        }
+        assertThat(polled).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void concurrentProducersLoseNothingThatWasAccepted() throws Exception {
+        var queue = new BoundedMpscQueue<Integer>(1024);
+        int producers = 8;
+        int perProducer = 5_000;
+        var consumed = new HashSet<Integer>();
+        int accepted = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                results.add(executor.submit(() -> {
+                    int ok = 0;
+                    for (int i = 0; i < perProducer; i++) {
+                        // insiste até caber: nenhum elemento aceito pode se perder ou duplicar
+                        while (!queue.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                        ok++;
+                    }
+                    return ok;
+                }));
+            }
+            while (consumed.size() < producers * perProducer) {
+                Integer element = queue.poll();
+                if (element != null) {
+                    assertThat(consumed.add(element)).isTrue();
+                }
+            }
+            for (Future<Integer> result : results) {
+                accepted += result.get();
+            }
+        }
+        assertThat(accepted).isEqualTo(producers * perProducer);
+        assertThat(queue.poll()).isNull();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.ServiceOverloadedException;
+import com.example.demo.service.DatabaseBulkhead.Workload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseBulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // uma permissão por classe, espera de 50ms e fila de até 1 requisição
+    private final DatabaseBulkhead bulkhead = new DatabaseBulkhead(true, Duration.ofSeconds(2),
+            1, Duration.ofMillis(50), 1,
+            1, Duration.ofMillis(50), 1,
+            1, Duration.ofMillis(50), 1,
+            this.meterRegistry);
+
+    @Test
+    void waitsUpToMaxWaitAndThenRejectsWithRetryAfter() throws Exception {
+        var release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var holder = executor.submit(() -> this.bulkhead.call(Workload.WRITE, () -> await(release)));
+            awaitActive(Workload.WRITE, 1);
+
+            assertThatThrownBy(() -> this.bulkhead.run(Workload.WRITE, () -> {
+            }))
+                    .isInstanceOfSatisfying(ServiceOverloadedException.class,
+                            e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2)));
+            // as demais classes continuam atendendo
+            assertThat(this.bulkhead.call(Workload.AUTH, () -> "ok")).isEqualTo("ok");
+
+            release.countDown();
+            holder.get(1, TimeUnit.SECONDS);
+        }
+        assertThat(this.meterRegistry.get("db.bulkhead.wait").tags("workload", "write", "outcome", "timeout").timer().count())
+                .isEqualTo(1);
+        assertThat(this.bulkhead.activeCount(Workload.WRITE)).isZero();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() throws Exception {
+        var slowBulkhead = new DatabaseBulkhead(true, Duration.ofSeconds(1),
+                1, Duration.ofSeconds(10), 1,
+                1, Duration.ofSeconds(10), 1,
+                1, Duration.ofSeconds(10), 1,
+                this.meterRegistry);
+        var release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> slowBulkhead.call(Workload.READ, () -> await(release)));
+            awaitActive(slowBulkhead, Workload.READ, 1);
+            var queued = executor.submit(() -> slowBulkhead.call(Workload.READ, () -> "queued"));
+            while (slowBulkhead.queueDepth(Workload.READ) < 1) {
+                Thread.onSpinWait();
+            }
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> slowBulkhead.call(Workload.READ, () -> "rejected"))
+                    .isInstanceOf(ServiceOverloadedException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+
+            release.countDown();
+            assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("queued");
+        }
+    }
+
+    @Test
+    void nestedCallsReuseThePermitOfTheCurrentThread() {
+        String result = this.bulkhead.call(Workload.AUTH, () ->
+                this.bulkhead.call(Workload.AUTH, () -> this.bulkhead.call(Workload.WRITE,
+                        () -> this.bulkhead.holdsPermit() ? "nested" : "not held")));
+
+        assertThat(result).isEqualTo("nested");
+        assertThat(this.bulkhead.holdsPermit()).isFalse();
+        assertThat(this.bulkhead.activeCount(Workload.AUTH)).isZero();
+        assertThat(this.bulkhead.activeCount(Workload.WRITE)).isZero();
+    }
+
+    @Test
+    void permitIsReleasedWhenTheActionFails() {
+        assertThatThrownBy(() -> this.bulkhead.run(Workload.READ, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(this.bulkhead.activeCount(Workload.READ)).isZero();
+        assertThat(this.bulkhead.call(Workload.READ, () -> "ok")).isEqualTo("ok");
+    }
+
+    private void awaitActive(Workload workload, int expected) {
+        awaitActive(this.bulkhead, workload, expected);
+    }
+
+    private static void awaitActive(DatabaseBulkhead bulkhead, Workload workload, int expected) {
+        while (bulkhead.activeCount(workload) < expected) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await();
+            return "done";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
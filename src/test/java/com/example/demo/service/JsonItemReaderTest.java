@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.product.ProductRequestDTO;
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonItemReaderTest {
+
+    private final JsonItemReader reader = new JsonItemReader(JsonMapper.builder().build());
+
+    @Test
+    void readsAJsonArrayAndNdjsonAlike() {
+        List<JsonItemReader.Item<ProductRequestDTO>> array = read("""
+                [{"name":"a","price":1}, {"name":"b","price":2}]""");
+        List<JsonItemReader.Item<ProductRequestDTO>> ndjson = read("""
+                {"name":"a","price":1}
+                {"name":"b","price":2}
+                """);
+
+        assertThat(array).isEqualTo(ndjson);
+        assertThat(array).extracting(JsonItemReader.Item::value)
+                .containsExactly(new ProductRequestDTO("a", 1), new ProductRequestDTO("b", 2));
+    }
+
+    @Test
+    void reportsABadItemAndKeepsReading() {
+        List<JsonItemReader.Item<ProductRequestDTO>> items = read("""
+                [{"name":"a","price":1}, {"name":"b","price":"cheap"}, 42, {"name":"c","price":3}]""");
+
+        assertThat(items).extracting(JsonItemReader.Item::index).containsExactly(0, 1, 2, 3);
+        assertThat(items.get(1).value()).isNull();
+        assertThat(items.get(1).error()).isNotBlank();
+        assertThat(items.get(2).error()).isEqualTo("item must be a JSON object");
+        assertThat(items.get(3).value()).isEqualTo(new ProductRequestDTO("c", 3));
+    }
+
+    @Test
+    void stopsAtMalformedJsonAfterDeliveringEarlierItems() {
+        var items = new ArrayList<JsonItemReader.Item<ProductRequestDTO>>();
+
+        assertThatThrownBy(() -> this.reader.read(input("""
+                [{"name":"a","price":1}, {"name":"b", price: 2}]"""), ProductRequestDTO.class, items::add))
+                .isInstanceOf(JacksonException.class);
+        assertThat(items).extracting(JsonItemReader.Item::value).containsExactly(new ProductRequestDTO("a", 1));
+    }
+
+    private List<JsonItemReader.Item<ProductRequestDTO>> read(String json) {
+        var items = new ArrayList<JsonItemReader.Item<ProductRequestDTO>>();
+        int count = this.reader.read(input(json), ProductRequestDTO.class, items::add);
+        assertThat(count).isEqualTo(items.size());
+        return items;
+    }
+
+    private static ByteArrayInputStream input(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
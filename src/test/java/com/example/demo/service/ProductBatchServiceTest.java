@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import com.example.demo.EmbeddedPostgresDatabase;
+import com.example.demo.domain.product.BatchItemStatus;
+import com.example.demo.domain.product.ProductBatchItemResultDTO;
+import com.example.demo.domain.product.ProductBatchResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ProductBatchServiceTest {
+
+    private final DataSource dataSource = EmbeddedPostgresDatabase.migrated();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+
+    @Test
+    void writesValidItemsInBatchesAndReportsInvalidOnes() {
+        ProductBatchResponseDTO response = service(2, 100).ingest(json("""
+                {"name":"a","price":1}
+                {"name":"b","price":2}
+                {"name":"","price":3}
+                {"name":"c","price":"cheap"}
+                {"name":"d","price":4}
+                {"name":"e","price":5}
+                {"name":"f"}
+                """));
+
+        assertThat(response.items()).extracting(ProductBatchItemResultDTO::index, ProductBatchItemResultDTO::status)
+                .containsExactly(
+                        tuple(0, BatchItemStatus.CREATED),
+                        tuple(1, BatchItemStatus.CREATED),
+                        tuple(2, BatchItemStatus.INVALID),
+                        tuple(3, BatchItemStatus.INVALID),
+                        tuple(4, BatchItemStatus.CREATED),
+                        tuple(5, BatchItemStatus.CREATED),
+                        tuple(6, BatchItemStatus.INVALID));
+        assertThat(response.items().get(2).errors()).containsExactly("name: must not be blank");
+        assertThat(response.items().get(6).errors()).containsExactly("price: must not be null");
+        assertThat(response).extracting(ProductBatchResponseDTO::created, ProductBatchResponseDTO::rejected,
+                ProductBatchResponseDTO::error).containsExactly(4, 3, null);
+        // cada lote de 2 itens válidos é uma transação
+        assertThat(this.jdbcTemplate.queryForList("SELECT DISTINCT txid FROM products", Long.class)).hasSize(2);
+        assertThat(this.jdbcTemplate.queryForList("SELECT name FROM products ORDER BY name", String.class))
+                .containsExactly("a", "b", "d", "e");
+    }
+
+    @Test
+    void flushesAPartialLastBatch() {
+        ProductBatchResponseDTO response = service(2, 100).ingest(json("""
+                [{"name":"a","price":1}, {"name":"b","price":2}, {"name":"c","price":3}]"""));
+
+        assertThat(response.created()).isEqualTo(3);
+        assertThat(this.jdbcTemplate.queryForList("SELECT DISTINCT txid FROM products", Long.class)).hasSize(2);
+    }
+
+    @Test
+    void stopsAtMaxItems() {
+        ProductBatchResponseDTO response = service(10, 2).ingest(json("""
+                [{"name":"a","price":1}, {"name":"b","price":2}, {"name":"c","price":3}]"""));
+
+        assertThat(response.error()).isEqualTo("Batch exceeds the limit of 2 items");
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(productCount()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsCommittedBatchesWhenTheJsonBreaks() {
+        ProductBatchResponseDTO response = service(2, 100).ingest(json("""
+                [{"name":"a","price":1}, {"name":"b","price":2}, {"name":"c","price":3}, {"name":"""));
+
+        assertThat(response.error()).startsWith("Malformed JSON");
+        assertThat(response.created()).isEqualTo(3);
+        assertThat(productCount()).isEqualTo(3);
+    }
+
+    private ProductBatchService service(int batchSize, int maxItems) {
+        var bulkhead = new DatabaseBulkhead(false, Duration.ofSeconds(1),
+                1, Duration.ZERO, 1,
+                1, Duration.ZERO, 1,
+                1, Duration.ZERO, 1,
+                new SimpleMeterRegistry());
+        return new ProductBatchService(new JsonItemReader(JsonMapper.builder().build()),
+                Validation.buildDefaultValidatorFactory().getValidator(), this.jdbcTemplate,
+                new DataSourceTransactionManager(this.dataSource), bulkhead, batchSize, maxItems);
+    }
+
+    private Integer productCount() {
+        return this.jdbcTemplate.queryForObject("SELECT count(*) FROM products", Integer.class);
+    }
+
+    private static ByteArrayInputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import com.example.demo.EmbeddedPostgresDatabase;
+import com.example.demo.domain.UuidV7;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCatalogSnapshotTest {
+
+    private final DataSource dataSource = EmbeddedPostgresDatabase.migrated();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+    private final ProductExportService exportService = new ProductExportService(this.jdbcTemplate,
+            new DataSourceTransactionManager(this.dataSource), JsonMapper.builder().build(),
+            new DatabaseBulkhead(false, Duration.ofSeconds(1),
+                    1, Duration.ZERO, 1,
+                    1, Duration.ZERO, 1,
+                    1, Duration.ZERO, 1,
+                    new SimpleMeterRegistry()), 500);
+    private final ProductCatalogSnapshot catalog = new ProductCatalogSnapshot(this.exportService, this.jdbcTemplate, false, false);
+
+    @AfterEach
+    void shutdownCatalog() {
+        this.catalog.shutdown();
+    }
+
+    @Test
+    void picksUpWritesMadeByAnotherInstance() {
+        insert("local", 10);
+        ProductCatalogSnapshot.Snapshot before = this.catalog.current();
+
+        // sem escritas o retrato continua o mesmo
+        this.catalog.refresh();
+        assertThat(this.catalog.current()).isSameAs(before);
+
+        // gravado direto no banco, sem passar por invalidate()
+        insert("remote", 20);
+        this.catalog.refresh();
+        awaitCatalogContaining("remote");
+        assertThat(this.catalog.current().etag()).isNotEqualTo(before.etag());
+    }
+
+    @Test
+    void picksUpASlowWriteThatCommitsAfterANewerOne() throws SQLException {
+        try (Connection slow = this.dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            // a transação lenta pega a versão menor e confirma depois da mais nova
+            insert(slow, "slow", 10);
+            insert("fast", 20);
+            this.catalog.refresh();
+            assertThat(json(this.catalog.current())).contains("fast").doesNotContain("slow");
+
+            slow.commit();
+            this.catalog.refresh();
+            awaitCatalogContaining("slow");
+        }
+    }
+
+    @Test
+    void acceptsGzipOnlyWithAPositiveWeight() {
+        assertThat(ProductCatalogSnapshot.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(ProductCatalogSnapshot.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(ProductCatalogSnapshot.acceptsGzip("x-gzip")).isTrue();
+        assertThat(ProductCatalogSnapshot.acceptsGzip("*")).isTrue();
+
+        assertThat(ProductCatalogSnapshot.acceptsGzip(null)).isFalse();
+        assertThat(ProductCatalogSnapshot.acceptsGzip("identity")).isFalse();
+        assertThat(ProductCatalogSnapshot.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ProductCatalogSnapshot.acceptsGzip("gzip ; q=0.000, deflate")).isFalse();
+        // o gzip citado explicitamente vale mais que o curinga
+        assertThat(ProductCatalogSnapshot.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(ProductCatalogSnapshot.acceptsGzip("br, *;q=0")).isFalse();
+        assertThat(ProductCatalogSnapshot.acceptsGzip("gzip;q=abc")).isFalse();
+        assertThat(ProductCatalogSnapshot.acceptsGzip("gzipped")).isFalse();
+    }
+
+    private void awaitCatalogContaining(String name) {
+        // a reconstrução é assíncrona
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!json(this.catalog.current()).contains(name) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(json(this.catalog.current())).contains(name);
+    }
+
+    private static String json(ProductCatalogSnapshot.Snapshot snapshot) {
+        return new String(snapshot.json(), StandardCharsets.UTF_8);
+    }
+
+    private void insert(String name, int price) {
+        this.jdbcTemplate.update("INSERT INTO products (id, name, price) VALUES (?, ?, ?)",
+                UuidV7.generate(), name, price);
+    }
+
+    private static void insert(Connection connection, String name, int price) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO products (id, name, price) VALUES (?, ?, ?)")) {
+            statement.setObject(1, UuidV7.generate());
+            statement.setString(2, name);
+            statement.setInt(3, price);
+            statement.executeUpdate();
+        }
+    }
+}
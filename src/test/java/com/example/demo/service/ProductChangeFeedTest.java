@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.example.demo.EmbeddedPostgresDatabase;
+import com.example.demo.domain.UuidV7;
+import com.example.demo.domain.product.ProductChangeDTO;
+import com.example.demo.domain.product.ProductChangesResponseDTO;
+import com.example.demo.exception.InvalidProductSearchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ProductChangeFeedTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource dataSource = EmbeddedPostgresDatabase.migrated();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+    private final DatabaseBulkhead bulkhead = new DatabaseBulkhead(false, Duration.ofSeconds(1),
+            1, Duration.ZERO, 1,
+            1, Duration.ZERO, 1,
+            1, Duration.ZERO, 1,
+            this.meterRegistry);
+    private final ProductChangeFeed feed = new ProductChangeFeed(this.jdbcTemplate, this.bulkhead, Duration.ofSeconds(15),
+            Duration.ofMinutes(1), 10, 50, 500, this.meterRegistry);
+
+    @AfterEach
+    void shutdownFeed() {
+        this.feed.shutdown();
+    }
+
+    @Test
+    void pagesThroughChangesInWriteOrder() {
+        insert("a", 10);
+        insert("b", 20);
+        insert("c", 30);
+
+        ProductChangesResponseDTO first = this.feed.changes(null, 2);
+        assertThat(first.changes()).extracting(ProductChangeDTO::name).containsExactly("a", "b");
+        assertThat(first.hasMore()).isTrue();
+
+        ProductChangesResponseDTO second = this.feed.changes(first.nextCursor(), 2);
+        assertThat(second.changes()).extracting(ProductChangeDTO::name).containsExactly("c");
+        assertThat(second.hasMore()).isFalse();
+
+        // nada mudou: o cursor fica onde está
+        ProductChangesResponseDTO third = this.feed.changes(second.nextCursor(), 2);
+        assertThat(third.changes()).isEmpty();
+        assertThat(third.nextCursor()).isEqualTo(second.nextCursor());
+
+        insert("d", 40);
+        this.jdbcTemplate.update("UPDATE products SET price = 11 WHERE name = 'a'");
+        assertThat(this.feed.changes(third.nextCursor(), 10).changes())
+                .extracting(ProductChangeDTO::name, ProductChangeDTO::price)
+                .containsExactly(tuple("d", 40), tuple("a", 11));
+    }
+
+    @Test
+    void doesNotSkipAWriteThatCommitsAfterANewerOne() throws SQLException {
+        try (Connection slow = this.dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            // a transação lenta grava primeiro e fica com a versão menor
+            insert(slow, "slow", 10);
+            insert("fast", 20);
+
+            // a versão maior já está confirmada, mas o cursor não pode passar da menor, ainda aberta
+            ProductChangesResponseDTO pending = this.feed.changes(null, 10);
+            assertThat(pending.changes()).isEmpty();
+            assertThat(pending.hasMore()).isFalse();
+
+            slow.commit();
+            ProductChangesResponseDTO changes = this.feed.changes(pending.nextCursor(), 10);
+            assertThat(changes.changes()).extracting(ProductChangeDTO::name).containsExactlyInAnyOrder("slow", "fast");
+        }
+    }
+
+    @Test
+    void holdsBackChangesBehindAnOpenTransaction() throws SQLException {
+        insert("before", 10);
+        ProductChangesResponseDTO start = this.feed.changes(null, 10);
+        assertThat(start.changes()).extracting(ProductChangeDTO::name).containsExactly("before");
+
+        try (Connection open = this.dataSource.getConnection()) {
+            open.setAutoCommit(false);
+            // a transação recebe o seu id antes das escritas de produtos
+            open.createStatement().execute("SELECT pg_current_xact_id()");
+            insert("after", 20);
+
+            assertThat(this.feed.changes(start.nextCursor(), 10).changes()).isEmpty();
+
+            open.rollback();
+            assertThat(this.feed.changes(start.nextCursor(), 10).changes())
+                    .extracting(ProductChangeDTO::name).containsExactly("after");
+        }
+    }
+
+    @Test
+    void rejectsAnInvalidCursor() {
+        assertThatThrownBy(() -> this.feed.changes("not-a-cursor", 10)).isInstanceOf(InvalidProductSearchException.class);
+        assertThatThrownBy(() -> this.feed.changes("42", 10)).isInstanceOf(InvalidProductSearchException.class);
+    }
+
+    private void insert(String name, int price) {
+        this.jdbcTemplate.update("INSERT INTO products (id, name, price) VALUES (?, ?, ?)",
+                UuidV7.generate(), name, price);
+    }
+
+    private static void insert(Connection connection, String name, int price) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO products (id, name, price) VALUES (?, ?, ?)")) {
+            statement.setObject(1, UuidV7.generate());
+            statement.setString(2, name);
+            statement.setInt(3, price);
+            statement.executeUpdate();
+        }
+    }
+}
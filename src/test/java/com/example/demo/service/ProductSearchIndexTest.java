@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.example.demo.domain.product.ProductNameMatch;
+import com.example.demo.domain.product.ProductPageResponseDTO;
+import com.example.demo.domain.product.ProductResponseDTO;
+import com.example.demo.domain.product.ProductSearchQuery;
+import com.example.demo.domain.product.ProductSortField;
+import com.example.demo.exception.InvalidProductSearchException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductSearchIndexTest {
+
+    private static final List<ProductResponseDTO> CATALOG = List.of(
+            new ProductResponseDTO("1", "Cadeira", 300),
+            new ProductResponseDTO("2", "cadeado", 40),
+            new ProductResponseDTO("3", "Mesa", 900),
+            new ProductResponseDTO("4", "Cadeira gamer", 1200),
+            new ProductResponseDTO("5", "Armário", 300)
+    );
+
+    private final ProductSearchIndex index = ProductSearchIndex.build(CATALOG);
+
+    @Test
+    void prefixIsCaseInsensitiveAndPagesFollowTheCursor() {
+        var first = index.search(query("CAD", ProductNameMatch.PREFIX, null, null, ProductSortField.NAME, false, null, 2));
+
+        assertThat(first.items()).extracting(ProductResponseDTO::id).containsExactly("2", "1");
+        assertThat(first.nextCursor()).isNotNull();
+
+        var second = index.search(query("CAD", ProductNameMatch.PREFIX, null, null, ProductSortField.NAME, false, first.nextCursor(), 2));
+        assertThat(second.items()).extracting(ProductResponseDTO::id).containsExactly("4");
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void priceRangeDescendingBreaksTiesById() {
+        var page = index.search(query(null, ProductNameMatch.PREFIX, 300, 900, ProductSortField.PRICE, true, null, 10));
+
+        assertThat(page.items()).extracting(ProductResponseDTO::id).containsExactly("3", "5", "1");
+    }
+
+    @Test
+    void everyQueryMatchesAFullScanAcrossAllPages() {
+        var random = new Random(42);
+        String[] words = {"cadeira", "Cadeado", "mesa", "MESA de canto", "armário", "abajur", "a_b%c"};
+        var products = new ArrayList<ProductResponseDTO>();
+        for (int i = 0; i < 300; i++) {
+            products.add(new ProductResponseDTO(String.format("%04d", random.nextInt(10000)) + "-" + i,
+                    words[random.nextInt(words.length)] + " " + random.nextInt(20), random.nextInt(50)));
+        }
+        var randomIndex = ProductSearchIndex.build(products);
+        String[] terms = {null, "cad", "mesa", "a_b", "de", "zzz"};
+
+        for (String term : terms) {
+            for (ProductNameMatch match : ProductNameMatch.values()) {
+                for (ProductSortField sort : ProductSortField.values()) {
+                    for (boolean descending : new boolean[]{false, true}) {
+                        Integer min = random.nextBoolean() ? random.nextInt(25) : null;
+                        Integer max = random.nextBoolean() ? 25 + random.nextInt(25) : null;
+                        var expected = products.stream()
+                                .filter(product -> matches(product, term, match, min, max))
+                                .sorted(order(sort, descending))
+                                .toList();
+
+                        var actual = new ArrayList<ProductResponseDTO>();
+                        String cursor = null;
+                        do {
+                            ProductPageResponseDTO page = randomIndex.search(query(term, match, min, max, sort, descending, cursor, 7));
+                            actual.addAll(page.items());
+                            cursor = page.nextCursor();
+                        } while (cursor != null);
+
+                        assertThat(actual).as("%s %s %s desc=%s %s..%s", term, match, sort, descending, min, max)
+                                .containsExactlyElementsOf(expected);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> index.search(query(null, ProductNameMatch.PREFIX, null, null, ProductSortField.PRICE, false, "bm90LWEtY3Vyc29y", 10)))
+                .isInstanceOf(InvalidProductSearchException.class);
+    }
+
+    private static ProductSearchQuery query(String name, ProductNameMatch match, Integer minPrice, Integer maxPrice,
+                                            ProductSortField sort, boolean descending, String cursor, int size) {
+        return new ProductSearchQuery(name, match, minPrice, maxPrice, sort, descending, cursor, size);
+    }
+
+    private static boolean matches(ProductResponseDTO product, String term, ProductNameMatch match, Integer min, Integer max) {
+        String name = product.name().toLowerCase(Locale.ROOT);
+        if (term != null && !(match == ProductNameMatch.PREFIX ? name.startsWith(term) : name.contains(term))) {
+            return false;
+        }
+        return (min == null || product.price() >= min) && (max == null || product.price() <= max);
+    }
+
+    private static Comparator<ProductResponseDTO> order(ProductSortField sort, boolean descending) {
+        Comparator<ProductResponseDTO> byId = Comparator.comparing(ProductResponseDTO::id);
+        Comparator<ProductResponseDTO> comparator = switch (sort) {
+            case ID -> byId;
+            case NAME -> Comparator.<ProductResponseDTO, String>comparing(product -> product.name().toLowerCase(Locale.ROOT)).thenComparing(byId);
+            case PRICE -> Comparator.comparing(ProductResponseDTO::price).thenComparing(byId);
+        };
+        return descending ? comparator.reversed() : comparator;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.EmbeddedPostgresDatabase;
+import com.example.demo.configuration.SigningKeySet;
+import com.example.demo.configuration.TokenService;
+import com.example.demo.domain.UuidV7;
+import com.example.demo.domain.enums.UserRole;
+import com.example.demo.domain.user.LoginResponseDTO;
+import com.example.demo.domain.user.User;
+import com.example.demo.exception.InvalidRefreshTokenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource dataSource = EmbeddedPostgresDatabase.migrated();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSource);
+    private final TokenService tokenService = new TokenService(new SigningKeySet("HS256", "test-secret",
+            Duration.ofDays(1), Duration.ofHours(1), Duration.ofMinutes(5), null, null),
+            100, Duration.ofMinutes(15), this.meterRegistry);
+    private final AuthorizationService authorizationService = mock(AuthorizationService.class);
+    private final TokenRevocationStore revocationStore = new TokenRevocationStore(this.jdbcTemplate, 1000, 0.01,
+            this.meterRegistry);
+    private final RefreshTokenService service = new RefreshTokenService(this.jdbcTemplate,
+            new DataSourceTransactionManager(this.dataSource), this.tokenService, this.authorizationService,
+            this.revocationStore, new DatabaseBulkhead(false, Duration.ofSeconds(1),
+                    1, Duration.ZERO, 1,
+                    1, Duration.ZERO, 1,
+                    1, Duration.ZERO, 1,
+                    this.meterRegistry),
+            Duration.ofDays(7), this.meterRegistry);
+    private final User user = new User(UuidV7.generate(), "ana", "hash", UserRole.USER);
+
+    RefreshTokenServiceTest() {
+        this.jdbcTemplate.update("INSERT INTO users (id, login, password, role) VALUES (?, 'ana', 'hash', 'USER')",
+                this.user.getId());
+        when(this.authorizationService.findByLogin("ana")).thenReturn(Optional.of(this.user));
+    }
+
+    @Test
+    void rotatesTheRefreshTokenOnEveryUse() {
+        LoginResponseDTO login = this.service.issue(this.user);
+
+        LoginResponseDTO first = this.service.refresh(login.refreshToken());
+        LoginResponseDTO second = this.service.refresh(first.refreshToken());
+
+        assertThat(second.refreshToken()).isNotIn(login.refreshToken(), first.refreshToken());
+        assertThat(this.tokenService.validateToken(second.token())).isEqualTo("ana");
+        assertThat(familyStatus()).containsExactly(3L, 0L);
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() {
+        LoginResponseDTO login = this.service.issue(this.user);
+        LoginResponseDTO rotated = this.service.refresh(login.refreshToken());
+
+        // o token antigo apresentado de novo: a segunda troca falha
+        assertThatThrownBy(() -> this.service.refresh(login.refreshToken()))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+
+        // o token mais novo da família, e o token de acesso emitido com ele, também deixam de valer
+        assertThatThrownBy(() -> this.service.refresh(rotated.refreshToken()))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        assertThat(this.revocationStore.isRevoked(this.tokenService.verifyToken(rotated.token()).orElseThrow().jti()))
+                .isTrue();
+        assertThat(familyStatus()).containsExactly(2L, 2L);
+        assertThat(this.meterRegistry.counter("auth.refresh-token.reuse").count()).isEqualTo(1);
+    }
+
+    @Test
+    void otherFamiliesSurviveAReuse() {
+        LoginResponseDTO stolen = this.service.issue(this.user);
+        LoginResponseDTO otherDevice = this.service.issue(this.user);
+        this.service.refresh(stolen.refreshToken());
+
+        assertThatThrownBy(() -> this.service.refresh(stolen.refreshToken()))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        assertThat(this.service.refresh(otherDevice.refreshToken()).token()).isNotBlank();
+    }
+
+    // total de refresh tokens e quantos estão revogados
+    private Object[] familyStatus() {
+        return this.jdbcTemplate.queryForObject(
+                "SELECT count(*), count(revoked_at) FROM refresh_tokens",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2)});
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void countsOnlyEventsInsideTheWindow() {
+        // janela de 4 fatias de 1s
+        var counter = new SlidingWindowCounter(4, 1_000);
+
+        counter.increment(10_000);
+        counter.increment(10_500);
+        counter.increment(12_000);
+
+        assertThat(counter.sum(12_000)).isEqualTo(3);
+        assertThat(counter.sum(13_999)).isEqualTo(3);
+        // a fatia de 10s sai da janela quando a fatia de 14s começa
+        assertThat(counter.sum(14_000)).isEqualTo(1);
+        assertThat(counter.sum(16_000)).isZero();
+    }
+
+    @Test
+    void reusesSlotsFromPreviousWindows() {
+        var counter = new SlidingWindowCounter(4, 1_000);
+
+        counter.increment(10_000);
+        // mesma posição do array, quatro fatias depois
+        counter.increment(14_000);
+
+        assertThat(counter.sum(14_000)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws InterruptedException {
+        var counter = new SlidingWindowCounter(4, 60_000);
+        int threads = 8;
+        int incrementsPerThread = 10_000;
+        var start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int j = 0; j < incrementsPerThread; j++) {
+                        counter.increment(1_000);
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(counter.sum(1_000)).isEqualTo(threads * incrementsPerThread);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.service;
+
+import com.example.demo.EmbeddedPostgresDatabase;
+import com.example.demo.configuration.BoundedPasswordEncoder;
+import com.example.demo.domain.UuidV7;
+import com.example.demo.domain.user.UserImportItemResultDTO;
+import com.example.demo.domain.user.UserImportResponseDTO;
+import com.example.demo.domain.user.UserImportStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class UserImportServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(EmbeddedPostgresDatabase.migrated());
+    private final BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4),
+            1, 10, Duration.ofSeconds(1), this.meterRegistry);
+    private final AuthorizationService authorizationService = mock(AuthorizationService.class);
+    private final List<UserImportService> services = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        this.services.forEach(UserImportService::shutdown);
+        this.passwordEncoder.close();
+    }
+
+    @Test
+    void reportsEachRowWithItsStatus() {
+        this.jdbcTemplate.update("INSERT INTO users (id, login, password, role) VALUES (?, 'existing', 'hash', 'USER')",
+                UuidV7.generate());
+
+        UserImportResponseDTO response = service(10, 100, bulkhead(false)).importUsers(json("""
+                [{"login":"ana","password":"pw","role":"USER"},
+                 {"login":"existing","password":"pw","role":"USER"},
+                 {"login":"ana","password":"other","role":"ADMIN"},
+                 {"login":"","password":"pw","role":"USER"},
+                 {"login":"bia","password":"pw","role":"UNKNOWN"},
+                 {"login":"caio","password":"pw","role":"ADMIN"}]"""));
+
+        assertThat(response.items())
+                .extracting(UserImportItemResultDTO::index, UserImportItemResultDTO::login, UserImportItemResultDTO::status)
+                .containsExactly(
+                        tuple(0, "ana", UserImportStatus.CREATED),
+                        tuple(1, "existing", UserImportStatus.DUPLICATE),
+                        // o mesmo login duas vezes no lote: só o primeiro entra
+                        tuple(2, "ana", UserImportStatus.DUPLICATE),
+                        tuple(3, "", UserImportStatus.INVALID),
+                        tuple(4, null, UserImportStatus.INVALID),
+                        tuple(5, "caio", UserImportStatus.CREATED));
+        assertThat(response.items().get(3).errors()).containsExactly("login: must not be blank");
+        assertThat(response).extracting(UserImportResponseDTO::created, UserImportResponseDTO::duplicates,
+                UserImportResponseDTO::rejected, UserImportResponseDTO::error).containsExactly(2, 2, 2, null);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT role FROM users WHERE login = 'ana'", String.class))
+                .isEqualTo("USER");
+        verify(this.authorizationService).evict("ana");
+        verify(this.authorizationService).evict("caio");
+    }
+
+    @Test
+    void stopsAtMaxItems() {
+        UserImportResponseDTO response = service(2, 3, bulkhead(false)).importUsers(json("""
+                {"login":"u0","password":"pw","role":"USER"}
+                {"login":"u1","password":"pw","role":"USER"}
+                {"login":"u2","password":"pw","role":"USER"}
+                {"login":"u3","password":"pw","role":"USER"}
+                {"login":"u4","password":"pw","role":"USER"}"""));
+
+        assertThat(response.error()).isEqualTo("Import exceeds the limit of 3 users");
+        assertThat(response.items()).extracting(UserImportItemResultDTO::login).containsExactly("u0", "u1", "u2");
+        assertThat(userCount()).isEqualTo(3);
+    }
+
+    @Test
+    void keepsCommittedBatchesWhenTheJsonBreaks() {
+        UserImportResponseDTO response = service(2, 100, bulkhead(false)).importUsers(json("""
+                [{"login":"u0","password":"pw","role":"USER"},
+                 {"login":"u1","password":"pw","role":"USER"},
+                 {"login":"u2","password":"pw","role":"USER"},
+                 {"login":"u3","password":"""));
+
+        assertThat(response.error()).startsWith("Malformed JSON");
+        assertThat(response.created()).isEqualTo(3);
+        assertThat(userCount()).isEqualTo(3);
+    }
+
+    @Test
+    void reportsABatchRejectedByTheWriteBulkheadAsFailed() throws Exception {
+        DatabaseBulkhead bulkhead = bulkhead(true);
+        var holding = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            // outra escrita ocupa a única permissão; o lote desiste depois de 10ms
+            executor.submit(() -> bulkhead.run(DatabaseBulkhead.Workload.WRITE, () -> {
+                holding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            holding.await();
+
+            UserImportResponseDTO response;
+            try {
+                response = service(10, 100, bulkhead).importUsers(json("""
+                        [{"login":"ana","password":"pw","role":"USER"}]"""));
+            } finally {
+                release.countDown();
+            }
+
+            assertThat(response.items()).extracting(UserImportItemResultDTO::status).containsExactly(UserImportStatus.FAILED);
+            assertThat(response.items().getFirst().errors()).containsExactly("Database capacity exhausted (write)");
+            assertThat(response.rejected()).isEqualTo(1);
+        }
+        assertThat(userCount()).isZero();
+    }
+
+    private UserImportService service(int batchSize, int maxItems, DatabaseBulkhead bulkhead) {
+        var service = new UserImportService(new JsonItemReader(JsonMapper.builder().build()), this.jdbcTemplate,
+                this.passwordEncoder, this.authorizationService, bulkhead, 2, batchSize, maxItems);
+        this.services.add(service);
+        return service;
+    }
+
+    private DatabaseBulkhead bulkhead(boolean enabled) {
+        return new DatabaseBulkhead(enabled, Duration.ofSeconds(1),
+                1, Duration.ofMillis(10), 1,
+                1, Duration.ofMillis(10), 1,
+                1, Duration.ofMillis(10), 1,
+                this.meterRegistry);
+    }
+
+    private Integer userCount() {
+        return this.jdbcTemplate.queryForObject("SELECT count(*) FROM users", Integer.class);
+    }
+
+    private static ByteArrayInputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}